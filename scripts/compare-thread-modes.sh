@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Runs the same load against the app on platform threads and on virtual threads and prints
+# throughput and latency for both, so the two modes can be compared on the same machine and
+# database.
+#
+# Needs: a Java 21 runtime, a running MySQL configured as in application.yml, and `hey`
+# (https://github.com/rakyll/hey) on the PATH. Build first with: ./mvnw -P java21 -DskipTests package
+#
+# Usage: scripts/compare-thread-modes.sh [concurrency...]   (default: 50 200 1000)
+set -euo pipefail
+
+JAR=target/qp-assessment-0.0.1-SNAPSHOT.jar
+PORT=${PORT:-8087}
+BASE_URL="http://localhost:${PORT}"
+DURATION=${DURATION:-30s}
+USER_ID=${USER_ID:-1}
+ITEM_ID=${ITEM_ID:-1}
+CONCURRENCY=("${@:-50 200 1000}")
+read -r -a CONCURRENCY <<< "${CONCURRENCY[*]}"
+
+command -v hey >/dev/null || { echo "hey is required" >&2; exit 1; }
+[ -f "$JAR" ] || { echo "$JAR not found, build with ./mvnw -P java21 -DskipTests package" >&2; exit 1; }
+
+wait_for_app() {
+  for _ in $(seq 1 60); do
+    curl -sf "${BASE_URL}/user/view-available-grocery-items" >/dev/null && return 0
+    sleep 1
+  done
+  echo "app did not start" >&2
+  return 1
+}
+
+run_mode() {
+  local mode=$1 profiles=$2
+  java -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profiles" --spring.jpa.show-sql=false \
+    > "target/compare-${mode}.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  wait_for_app
+
+  for c in "${CONCURRENCY[@]}"; do
+    echo "== ${mode}, concurrency ${c}, catalog page"
+    hey -z "$DURATION" -c "$c" "${BASE_URL}/user/view-available-grocery-items/page?size=50" \
+      | grep -E "Requests/sec|50%|99%|Status code|\[[0-9]+\]"
+    echo "== ${mode}, concurrency ${c}, create order"
+    hey -z "$DURATION" -c "$c" -m POST -T application/json \
+      -d "{\"userId\":${USER_ID},\"itemWithQuantity\":{\"${ITEM_ID}\":0.001}}" \
+      "${BASE_URL}/user/create-order" \
+      | grep -E "Requests/sec|50%|99%|Status code|\[[0-9]+\]"
+  done
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode platform default
+run_mode virtual virtual-threads
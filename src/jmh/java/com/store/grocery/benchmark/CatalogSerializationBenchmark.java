@@ -0,0 +1,69 @@
+package com.store.grocery.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.grocery.cache.CatalogPayload;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.store.grocery.entity.UnitOfMeasurement;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.SuccessResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing the catalog response, per request before catalog payloads were cached and
+ * once per catalog version now (including the gzip variant), with and without Blackbird.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CatalogSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int itemCount;
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    private ObjectMapper objectMapper;
+
+    private SuccessResponse<List<GroceryItemResponse>> response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        if (blackbird) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        UnitOfMeasurement[] units = UnitOfMeasurement.values();
+        List<GroceryItemResponse> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new GroceryItemResponse((long) i + 1, "Item " + i, 1 + i % 100, units[i % units.length], 100, 0));
+        }
+        response = new SuccessResponse<>(true, "Successfully fetched available grocery items", items);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public CatalogPayload serializeAndCompress() {
+        return CatalogPayload.of(objectMapper, 1, "bench-1", response);
+    }
+}
@@ -0,0 +1,71 @@
+package com.store.grocery.benchmark;
+
+import com.store.grocery.entity.CreateOrderRequest;
+import com.store.grocery.service.UserService;
+import com.store.grocery.support.EmbeddedStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code UserServiceImpl.createOrder} end to end (lookups, stock reservation, inserts, commit)
+ * against H2, by number of lines in the basket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CreateOrderBenchmark {
+
+    private static final int CATALOG_SIZE = 200;
+
+    @Param({"1", "10", "50", "200"})
+    public int basketSize;
+
+    private EmbeddedStore store;
+
+    private UserService userService;
+
+    private CreateOrderRequest orderRequest;
+
+    @Setup
+    public void setUp() {
+        store = EmbeddedStore.start("create-order-" + basketSize);
+        userService = store.getBean(UserService.class);
+        // Enough stock that no iteration runs out
+        List<Long> itemIds = store.seedItems(CATALOG_SIZE, i -> 1_000_000_000);
+        Long userId = store.seedUsers(1).get(0);
+
+        Map<Long, Double> basket = new HashMap<>();
+        for (Long itemId : itemIds.subList(0, basketSize)) {
+            basket.put(itemId, 1.0);
+        }
+        orderRequest = new CreateOrderRequest();
+        orderRequest.setUserId(userId);
+        orderRequest.setItemWithQuantity(basket);
+    }
+
+    @Benchmark
+    public Long createOrder() {
+        return userService.createOrder(orderRequest);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.store.grocery.benchmark;
+
+import com.store.grocery.repository.CatalogItemView;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.support.EmbeddedStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GroceryItemRepository.findByQuantityGreaterThan(0)}, the query behind a catalog cache
+ * rebuild, by catalog size. Every tenth item is out of stock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FindAvailableItemsBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private EmbeddedStore store;
+
+    private GroceryItemRepository groceryItemRepository;
+
+    @Setup
+    public void setUp() {
+        store = EmbeddedStore.start("find-available-" + catalogSize);
+        groceryItemRepository = store.getBean(GroceryItemRepository.class);
+        store.seedItems(catalogSize, i -> i % 10 == 0 ? 0 : 100);
+    }
+
+    @Benchmark
+    public List<CatalogItemView> findByQuantityGreaterThan() {
+        return groceryItemRepository.findByQuantityGreaterThan(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+}
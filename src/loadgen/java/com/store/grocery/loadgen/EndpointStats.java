@@ -0,0 +1,59 @@
+package com.store.grocery.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one operation. Latency runs from the request's scheduled arrival,
+ * not from when it was actually sent, so queueing in the generator or the server is included.
+ */
+final class EndpointStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+
+    private final LongAdder clientErrors = new LongAdder();
+
+    private final LongAdder serverErrors = new LongAdder();
+
+    // Connection failures, timeouts and arrivals dropped over maxInFlight
+    private final LongAdder failures = new LongAdder();
+
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(latencyNanos, latencies.getHighestTrackableValue()));
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        }
+    }
+
+    void recordFailure() {
+        failures.increment();
+    }
+
+    Map<String, Object> summary(double seconds) {
+        long responses = latencies.getTotalCount();
+        long requests = responses + failures.sum();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", requests);
+        summary.put("throughput", responses / seconds);
+        summary.put("p50Millis", millis(latencies.getValueAtPercentile(50)));
+        summary.put("p99Millis", millis(latencies.getValueAtPercentile(99)));
+        summary.put("p999Millis", millis(latencies.getValueAtPercentile(99.9)));
+        summary.put("maxMillis", millis(latencies.getMaxValue()));
+        summary.put("clientErrors", clientErrors.sum());
+        summary.put("serverErrors", serverErrors.sum());
+        summary.put("failures", failures.sum());
+        summary.put("errorRate", requests == 0 ? 0.0 : (double) (clientErrors.sum() + serverErrors.sum() + failures.sum()) / requests);
+        return summary;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
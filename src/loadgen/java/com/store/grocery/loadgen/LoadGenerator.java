@@ -0,0 +1,233 @@
+package com.store.grocery.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.store.grocery.entity.UnitOfMeasurement;
+import com.store.grocery.support.EmbeddedStore;
+import org.springframework.boot.WebApplicationType;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a shopper/admin traffic mix against the application and reports throughput, latency
+ * percentiles and error rates per endpoint.
+ * <p>
+ * Arrivals follow an open model: requests are scheduled as a Poisson process at the configured
+ * rate regardless of how fast responses come back, the way independent shoppers arrive. A slow
+ * server therefore builds up outstanding requests instead of quietly lowering the offered load.
+ * <p>
+ * Unless {@code url} is given, the application is started on an embedded H2 database seeded with
+ * {@code items} items and {@code users} users. Run through the {@code loadgen} Maven profile.
+ */
+public final class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadOptions options;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final SplittableRandom random;
+
+    private final String baseUrl;
+
+    private final List<Long> itemIds;
+
+    private final List<Long> userIds;
+
+    private final Operation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    private LoadGenerator(LoadOptions options, String baseUrl, List<Long> itemIds, List<Long> userIds) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.itemIds = itemIds;
+        this.userIds = userIds;
+        this.random = new SplittableRandom(options.seed);
+        this.operations = options.mix.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        if (options.url != null) {
+            // Against a running instance, ids are assumed to be 1..items and 1..users
+            new LoadGenerator(options, options.url, sequence(options.items), sequence(options.users)).run();
+            return;
+        }
+        try (EmbeddedStore store = EmbeddedStore.start("loadgen", WebApplicationType.SERVLET,
+                "spring.jpa.show-sql=false", "grocery.order.intake.mode=sync")) {
+            List<Long> itemIds = store.seedItems(options.items, i -> 1_000_000_000);
+            List<Long> userIds = store.seedUsers(options.users);
+            System.out.printf("Seeded %d items and %d users%n", itemIds.size(), userIds.size());
+            new LoadGenerator(options, "http://localhost:" + store.getPort(), itemIds, userIds).run();
+        }
+    }
+
+    private void run() throws InterruptedException, IOException {
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        System.out.printf("Offering %.0f req/s for %ds after %ds warmup, mix %s%n",
+                options.rate, options.duration.toSeconds(), options.warmup.toSeconds(), options.mix);
+
+        long scheduled = start;
+        while (true) {
+            // Exponential inter-arrival times give a Poisson arrival process
+            scheduled += (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos);
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(pickOperation(), scheduled, scheduled >= measureFrom);
+        }
+
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        report(options.duration.toNanos() / 1e9);
+    }
+
+    private void send(Operation operation, long scheduledNanos, boolean measured) {
+        EndpointStats endpointStats = stats.get(operation);
+        if (inFlight.get() >= options.maxInFlight) {
+            if (measured) {
+                endpointStats.recordFailure();
+            }
+            return;
+        }
+        inFlight.incrementAndGet();
+        client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    inFlight.decrementAndGet();
+                    if (!measured) {
+                        return;
+                    }
+                    if (failure != null) {
+                        endpointStats.recordFailure();
+                    } else {
+                        endpointStats.record(System.nanoTime() - scheduledNanos, response.statusCode());
+                    }
+                });
+    }
+
+    private HttpRequest request(Operation operation) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(REQUEST_TIMEOUT);
+        switch (operation) {
+            case VIEW -> builder.uri(uri("/user/view-available-grocery-items")).GET();
+            case ORDER -> builder.uri(uri("/user/create-order"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(orderBody()));
+            case INVENTORY -> builder.uri(uri("/admin/manage-inventory/" + randomItem() + "/" + 1_000_000_000))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody());
+            case UPDATE -> {
+                long itemId = randomItem();
+                UnitOfMeasurement[] units = UnitOfMeasurement.values();
+                String body = String.format("{\"name\":\"Item %d\",\"price\":%d,\"unitOfMeasure\":\"%s\",\"quantity\":%d}",
+                        itemId, 1 + random.nextInt(100), units[random.nextInt(units.length)], 1_000_000_000);
+                builder.uri(uri("/admin/update-grocery-item/" + itemId))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(body));
+            }
+        }
+        return builder.build();
+    }
+
+    private String orderBody() {
+        // One to five distinct lines, like a typical basket
+        int lines = 1 + random.nextInt(5);
+        StringBuilder basket = new StringBuilder();
+        List<Long> picked = new ArrayList<>(lines);
+        while (picked.size() < Math.min(lines, itemIds.size())) {
+            long itemId = randomItem();
+            if (!picked.contains(itemId)) {
+                picked.add(itemId);
+                basket.append(basket.length() == 0 ? "" : ",").append('"').append(itemId).append("\":1");
+            }
+        }
+        long userId = userIds.get(random.nextInt(userIds.size()));
+        return "{\"userId\":" + userId + ",\"itemWithQuantity\":{" + basket + "}}";
+    }
+
+    private Operation pickOperation() {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private long randomItem() {
+        return itemIds.get(random.nextInt(itemIds.size()));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private void report(double seconds) throws IOException {
+        Map<String, Object> results = new LinkedHashMap<>();
+        System.out.printf("%n%-52s %9s %9s %9s %9s %9s %9s %8s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+            Map<String, Object> summary = entry.getValue().summary(seconds);
+            results.put(entry.getKey().getEndpoint(), summary);
+            System.out.printf("%-52s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%%n",
+                    entry.getKey().getEndpoint(), summary.get("requests"), summary.get("throughput"),
+                    summary.get("p50Millis"), summary.get("p99Millis"), summary.get("p999Millis"),
+                    summary.get("maxMillis"), (double) summary.get("errorRate") * 100);
+        }
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("offeredRate", options.rate);
+        document.put("durationSeconds", options.duration.toSeconds());
+        document.put("mix", options.mix);
+        document.put("endpoints", results);
+        File output = new File(options.output);
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, document);
+        System.out.println("Results written to " + output.getPath());
+    }
+
+    private static List<Long> sequence(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,75 @@
+package com.store.grocery.loadgen;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options given as {@code key=value} arguments; anything not given keeps its default.
+ */
+final class LoadOptions {
+
+    // Items and users seeded into the embedded database
+    int items = 1_000;
+    int users = 100;
+    // Mean arrival rate across all operations, in requests per second
+    double rate = 200;
+    Duration duration = Duration.ofSeconds(60);
+    // Requests arriving during warmup are sent but not measured
+    Duration warmup = Duration.ofSeconds(10);
+    Map<Operation, Integer> mix = parseMix("view:70,order:20,inventory:5,update:5");
+    // Arrivals beyond this many outstanding requests are dropped and counted as errors
+    int maxInFlight = 5_000;
+    // Drive an already running instance instead of starting an embedded one
+    String url;
+    String output = "target/loadgen-result.json";
+    long seed = 42;
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        LoadOptions options = new LoadOptions();
+        for (Map.Entry<String, String> option : values.entrySet()) {
+            String value = option.getValue();
+            switch (option.getKey()) {
+                case "items" -> options.items = Integer.parseInt(value);
+                case "users" -> options.users = Integer.parseInt(value);
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "duration" -> options.duration = Duration.ofSeconds(Long.parseLong(value));
+                case "warmup" -> options.warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "mix" -> options.mix = parseMix(value);
+                case "maxInFlight" -> options.maxInFlight = Integer.parseInt(value);
+                case "url" -> options.url = value;
+                case "output" -> options.output = value;
+                case "seed" -> options.seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown option " + option.getKey());
+            }
+        }
+        if (options.rate <= 0 || options.mix.isEmpty()) {
+            throw new IllegalArgumentException("rate and mix must be positive");
+        }
+        return options;
+    }
+
+    /**
+     * Parses weights such as {@code view:70,order:20}; operations not listed are not sent.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,22 @@
+package com.store.grocery.loadgen;
+
+/**
+ * The calls the load generator can make, named as in the {@code mix} option.
+ */
+enum Operation {
+
+    VIEW("GET /user/view-available-grocery-items"),
+    ORDER("POST /user/create-order"),
+    INVENTORY("PATCH /admin/manage-inventory/{itemId}/{quantity}"),
+    UPDATE("PUT /admin/update-grocery-item/{itemId}");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+}
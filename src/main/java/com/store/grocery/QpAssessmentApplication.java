@@ -1,9 +1,12 @@
 package com.store.grocery;
 
+import com.store.grocery.repository.StoreScopedJpaRepository;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication
+@EnableJpaRepositories(repositoryBaseClass = StoreScopedJpaRepository.class)
 public class QpAssessmentApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,51 @@
+package com.store.grocery.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.grocery.response.PreSerializedResponse;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A catalog response serialized once for a given catalog version, in plain and gzip form.
+ */
+@Getter
+public final class CatalogPayload {
+
+    private final long version;
+
+    private final String versionTag;
+
+    private final PreSerializedResponse identity;
+
+    private final PreSerializedResponse gzip;
+
+    private CatalogPayload(long version, String versionTag, byte[] json) {
+        this.version = version;
+        this.versionTag = versionTag;
+        this.identity = new PreSerializedResponse(json);
+        this.gzip = new PreSerializedResponse(gzip(json));
+    }
+
+    public static CatalogPayload of(ObjectMapper objectMapper, long version, String versionTag, Object body) {
+        try {
+            return new CatalogPayload(version, versionTag, objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,84 @@
+package com.store.grocery.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.grocery.datasource.StoreContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Holds the serialized catalog responses for the latest catalog version of each store, so that
+ * serialization cost follows the catalog write rate rather than the read rate.
+ */
+@Component
+@Slf4j
+public class CatalogPayloadCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, StorePayloads> stores = new ConcurrentHashMap<>();
+
+    private final LongAdder serializations = new LongAdder();
+
+    public CatalogPayloadCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the current store's payload for {@code version}, serializing {@code body} only if this
+     * view has not been serialized at that version yet. Concurrent callers share one serialization.
+     */
+    public CatalogPayload get(CatalogView view, long version, String versionTag, Supplier<?> body) {
+        StorePayloads store = stores.computeIfAbsent(StoreContext.currentStoreId(), storeId -> new StorePayloads());
+        AtomicReference<CatalogPayload> slot = store.payloads.get(view);
+        CatalogPayload current = slot.get();
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+        ReentrantLock lock = store.locks.get(view);
+        lock.lock();
+        try {
+            current = slot.get();
+            if (current != null && current.getVersion() == version) {
+                return current;
+            }
+            CatalogPayload payload = CatalogPayload.of(objectMapper, version, versionTag, body.get());
+            serializations.increment();
+            // A caller still holding an older version must not replace a newer payload
+            if (current == null || current.getVersion() < version) {
+                slot.set(payload);
+            }
+            log.debug("Serialized {} at catalog version {} ({} bytes, {} gzipped)", view, version,
+                    payload.getIdentity().getContentLength(), payload.getGzip().getContentLength());
+            return payload;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSerializations() {
+        return serializations.sum();
+    }
+
+    private static class StorePayloads {
+
+        private final Map<CatalogView, AtomicReference<CatalogPayload>> payloads = new EnumMap<>(CatalogView.class);
+
+        private final Map<CatalogView, ReentrantLock> locks = new EnumMap<>(CatalogView.class);
+
+        StorePayloads() {
+            // Filled up front and never modified afterwards, so lookups need no synchronization
+            for (CatalogView view : CatalogView.values()) {
+                payloads.put(view, new AtomicReference<>());
+                locks.put(view, new ReentrantLock());
+            }
+        }
+    }
+}
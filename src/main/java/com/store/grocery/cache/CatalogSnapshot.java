@@ -0,0 +1,24 @@
+package com.store.grocery.cache;
+
+import com.store.grocery.response.GroceryItemResponse;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Immutable view of the available catalog as it was at a given catalog version.
+ */
+@Getter
+@ToString
+public final class CatalogSnapshot {
+
+    private final long version;
+
+    private final List<GroceryItemResponse> availableItems;
+
+    public CatalogSnapshot(long version, List<GroceryItemResponse> availableItems) {
+        this.version = version;
+        this.availableItems = List.copyOf(availableItems);
+    }
+}
@@ -0,0 +1,167 @@
+package com.store.grocery.cache;
+
+import com.store.grocery.datasource.DataSourceRouting;
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.response.GroceryItemResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the available catalog in memory so that reads do not go to the database
+ * while the catalog is unchanged.
+ * <p>
+ * Every catalog mutation bumps the version through {@link #invalidate()}. A read that finds
+ * the snapshot behind the current version rebuilds it once; concurrent readers wait on the
+ * same rebuild instead of all querying the database.
+ * <p>
+ * Each store has a catalog, version and snapshot of its own; every method works on the
+ * current {@link StoreContext} store.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotCache {
+
+    private final GroceryItemRepository groceryItemRepository;
+
+    // Distinguishes this instance's versions from those of a previous run or another node
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Long, StoreCatalog> catalogs = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder rebuilds = new LongAdder();
+
+    public CatalogSnapshotCache(GroceryItemRepository groceryItemRepository) {
+        this.groceryItemRepository = groceryItemRepository;
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        StoreCatalog catalog = catalog();
+        CatalogSnapshot current = catalog.snapshot.get();
+        if (current != null && current.getVersion() == catalog.version.get()) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        return rebuild(catalog);
+    }
+
+    public List<GroceryItemResponse> getAvailableItems() {
+        return getSnapshot().getAvailableItems();
+    }
+
+    /**
+     * Marks the cached snapshot as stale and returns the new catalog version.
+     */
+    public long invalidate() {
+        return catalog().version.incrementAndGet();
+    }
+
+    /**
+     * Invalidates once the surrounding transaction commits, so a concurrent rebuild cannot
+     * cache rows that are not visible yet. Without a transaction this invalidates right away.
+     */
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate();
+            return;
+        }
+        StoreCatalog catalog = catalog();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                catalog.version.incrementAndGet();
+            }
+        });
+    }
+
+    public long getVersion() {
+        return getVersion(StoreContext.currentStoreId());
+    }
+
+    /**
+     * Catalog version of the given store, whichever store the calling thread works on.
+     */
+    public long getVersion(long storeId) {
+        return catalog(storeId).version.get();
+    }
+
+    /**
+     * Opaque tag for the current catalog version, suitable as an HTTP entity tag.
+     */
+    public String getVersionTag() {
+        return tagFor(getVersion());
+    }
+
+    public String tagFor(long catalogVersion) {
+        // Versions of different stores count up independently, so the store is part of the tag
+        return epoch + "-" + StoreContext.currentStoreId() + "-" + catalogVersion;
+    }
+
+    /**
+     * Hit, miss and rebuild counts across all stores; version and size of the current store's snapshot.
+     */
+    public CatalogCacheStats getStats() {
+        StoreCatalog catalog = catalog();
+        CatalogSnapshot current = catalog.snapshot.get();
+        return new CatalogCacheStats(catalog.version.get(), hits.sum(), misses.sum(), rebuilds.sum(),
+                current != null ? current.getAvailableItems().size() : 0);
+    }
+
+    private StoreCatalog catalog() {
+        return catalog(StoreContext.currentStoreId());
+    }
+
+    private StoreCatalog catalog(long storeId) {
+        return catalogs.computeIfAbsent(storeId, id -> new StoreCatalog());
+    }
+
+    private CatalogSnapshot rebuild(StoreCatalog catalog) {
+        ReentrantLock rebuildLock = catalog.rebuildLock;
+        AtomicReference<CatalogSnapshot> snapshot = catalog.snapshot;
+        rebuildLock.lock();
+        try {
+            long expectedVersion = catalog.version.get();
+            CatalogSnapshot current = snapshot.get();
+            if (current != null && current.getVersion() == expectedVersion) {
+                // Another reader rebuilt it while we were waiting for the lock
+                return current;
+            }
+            // Loaded after the version was read, and from the primary, so the data is at least as fresh as expectedVersion
+            List<GroceryItemResponse> availableItems = DataSourceRouting.onPrimary(() -> groceryItemRepository.findByQuantityGreaterThan(0)).stream()
+                    .map(GroceryItemResponse::from)
+                    .toList();
+            CatalogSnapshot rebuilt = new CatalogSnapshot(expectedVersion, availableItems);
+            snapshot.set(rebuilt);
+            rebuilds.increment();
+            log.debug("Rebuilt catalog snapshot of store {} at version {} with {} items", StoreContext.currentStoreId(),
+                    expectedVersion, rebuilt.getAvailableItems().size());
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private static class StoreCatalog {
+
+        private final AtomicLong version = new AtomicLong(1);
+
+        private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+
+        private final ReentrantLock rebuildLock = new ReentrantLock();
+    }
+}
@@ -0,0 +1,6 @@
+package com.store.grocery.cache;
+
+public enum CatalogView {
+    AVAILABLE_ITEMS,
+    ALL_ITEMS
+}
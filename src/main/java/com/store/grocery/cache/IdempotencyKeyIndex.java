@@ -0,0 +1,109 @@
+package com.store.grocery.cache;
+
+import com.store.grocery.datasource.StoreContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Remembers which order a client idempotency key produced, so that replays are answered
+ * without touching the database. Entries expire after {@code ttl} and the oldest are dropped
+ * beyond {@code maxKeys}; the unique key on the order table stays the source of truth.
+ * Keys are scoped to the current store, whose user ids may repeat on another shard.
+ */
+@Component
+public class IdempotencyKeyIndex {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Keys in insertion order, used to expire and bound the index
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final int maxKeys;
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    @Autowired
+    public IdempotencyKeyIndex(@Value("${grocery.order.idempotency.max-keys:100000}") int maxKeys,
+                               @Value("${grocery.order.idempotency.ttl:24h}") Duration ttl) {
+        this(maxKeys, ttl, Clock.systemUTC());
+    }
+
+    IdempotencyKeyIndex(int maxKeys, Duration ttl, Clock clock) {
+        this.maxKeys = maxKeys;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the order id recorded for this user and key, or {@code null} if unknown or expired.
+     */
+    public Long get(Long userId, String key) {
+        Entry entry = entries.get(indexKey(userId, key));
+        if (entry == null || entry.expiresAt() <= clock.millis()) {
+            return null;
+        }
+        return entry.orderId();
+    }
+
+    public void put(Long userId, String key, Long orderId) {
+        String indexKey = indexKey(userId, key);
+        if (entries.put(indexKey, new Entry(orderId, clock.millis() + ttl.toMillis())) == null) {
+            insertionOrder.add(indexKey);
+        }
+        evict();
+    }
+
+    /**
+     * Records the key once the surrounding transaction commits, so a rolled back order is
+     * never handed out to a replay. Without a transaction this records right away.
+     */
+    public void putAfterCommit(Long userId, String key, Long orderId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(userId, key, orderId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(userId, key, orderId);
+            }
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        long now = clock.millis();
+        String oldest;
+        while ((oldest = insertionOrder.peek()) != null) {
+            Entry entry = entries.get(oldest);
+            if (entries.size() <= maxKeys && entry != null && entry.expiresAt() > now) {
+                return;
+            }
+            if (insertionOrder.remove(oldest)) {
+                entries.remove(oldest);
+            }
+        }
+    }
+
+    private static String indexKey(Long userId, String key) {
+        return StoreContext.currentStoreId() + ":" + userId + ":" + key;
+    }
+
+    private record Entry(Long orderId, long expiresAt) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.store.grocery.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads hit, miss and put counts of the Hibernate second-level cache regions. The counts stay at
+ * zero unless {@code hibernate.generate_statistics} is enabled.
+ */
+@Component
+public class SecondLevelCacheMonitor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SecondLevelCacheMonitor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public List<SecondLevelCacheStats> getStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        List<SecondLevelCacheStats> stats = new ArrayList<>(regionNames.length);
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                stats.add(new SecondLevelCacheStats(regionName, 0, 0, 0, 0));
+            } else {
+                stats.add(new SecondLevelCacheStats(regionName, region.getHitCount(), region.getMissCount(),
+                        region.getPutCount(), Math.max(region.getElementCountInMemory(), 0)));
+            }
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,22 @@
+package com.store.grocery.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SecondLevelCacheStats {
+
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long elementsInMemory;
+
+}
@@ -0,0 +1,125 @@
+package com.store.grocery.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.grocery.datasource.DataSourceRoutingProperties;
+import com.store.grocery.datasource.PrimaryReadsInterceptor;
+import com.store.grocery.datasource.ReplicaRoutingDataSource;
+import com.store.grocery.datasource.ShardRoutingDataSource;
+import com.store.grocery.datasource.ShardingProperties;
+import com.store.grocery.datasource.StoreContextFilter;
+import com.store.grocery.datasource.StoreContextTaskDecorator;
+import com.store.grocery.datasource.StoreTenantResolver;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The primary pool from {@code spring.datasource}, one pool per {@code grocery.datasource.replicas}
+ * entry, and the routing data source over them, which is shard 0. Further shards come from
+ * {@code grocery.sharding.shards}; the store routing over all shards is what JPA and JdbcTemplate
+ * use, and Flyway migrates every shard.
+ */
+@Configuration
+public class DataSourceConfig implements WebMvcConfigurer {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, DataSourceRoutingProperties properties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<DataSourceRoutingProperties.Replica> replicaProperties = properties.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            DataSourceRoutingProperties.Replica replica = replicaProperties.get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (i + 1));
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername());
+            pool.setPassword(replica.getPassword());
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            pool.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            // Started on first use, so a replica that is down does not stop the application from starting
+            pool.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(pool.getPoolName(), pool);
+        }
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getConnectionTimeout());
+        routingDataSource.startHealthChecks(properties.getHealthCheckInterval());
+        return routingDataSource;
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(ReplicaRoutingDataSource replicaRoutingDataSource, ShardingProperties properties,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(replicaRoutingDataSource);
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + shards.size());
+            pool.setJdbcUrl(shard.getUrl());
+            pool.setUsername(shard.getUsername());
+            pool.setPassword(shard.getPassword());
+            pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+            meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            shards.add(pool);
+        }
+        return new ShardRoutingDataSource(shards, properties.getStores());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        // Connections are fetched on first use, once the transaction's read-only flag is known
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> shardRoutingDataSource.getShards().forEach(shard ->
+                Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shard).load().migrate());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer storeTenantCustomizer() {
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new StoreTenantResolver());
+    }
+
+    @Bean
+    public StoreContextFilter storeContextFilter(ShardRoutingDataSource shardRoutingDataSource, ObjectMapper objectMapper) {
+        return new StoreContextFilter(shardRoutingDataSource, objectMapper);
+    }
+
+    @Bean
+    public StoreContextTaskDecorator storeContextTaskDecorator() {
+        return new StoreContextTaskDecorator();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new PrimaryReadsInterceptor()).addPathPatterns("/admin/**");
+    }
+}
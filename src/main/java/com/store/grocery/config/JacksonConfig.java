@@ -0,0 +1,20 @@
+package com.store.grocery.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers Blackbird with the application's ObjectMapper. Spring Boot picks up every
+ * {@link Module} bean, so the HTTP converters, the catalog payload cache and the export all
+ * access properties through generated lambdas instead of reflection.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
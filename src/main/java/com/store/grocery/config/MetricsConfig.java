@@ -0,0 +1,43 @@
+package com.store.grocery.config;
+
+import com.store.grocery.metrics.RequestQueryMetrics;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wiring for the metrics that Spring Boot does not set up on its own: {@code @Timed} service
+ * methods and per-request Hibernate counts.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final RequestQueryMetrics requestQueryMetrics;
+
+    public MetricsConfig(RequestQueryMetrics requestQueryMetrics) {
+        this.requestQueryMetrics = requestQueryMetrics;
+    }
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer requestQueryMetricsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, requestQueryMetrics);
+            properties.put(AvailableSettings.INTERCEPTOR, requestQueryMetrics);
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestQueryMetrics);
+    }
+}
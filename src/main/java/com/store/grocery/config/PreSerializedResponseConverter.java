@@ -0,0 +1,48 @@
+package com.store.grocery.config;
+
+import com.store.grocery.response.PreSerializedResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link PreSerializedResponse} bodies byte for byte. Picked up by Spring Boot ahead of
+ * the Jackson converter, so controllers can keep returning {@code ResponseEntity<APIResponse>}.
+ */
+@Component
+public class PreSerializedResponseConverter extends AbstractHttpMessageConverter<PreSerializedResponse> {
+
+    public PreSerializedResponseConverter() {
+        super(MediaType.APPLICATION_JSON, MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PreSerializedResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected PreSerializedResponse readInternal(Class<? extends PreSerializedResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Pre-serialized responses are write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(PreSerializedResponse response, MediaType contentType) {
+        return (long) response.getContentLength();
+    }
+
+    @Override
+    protected void writeInternal(PreSerializedResponse response, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(response.bytes());
+    }
+}
@@ -1,14 +1,37 @@
 package com.store.grocery.controller;
 
+import com.store.grocery.cache.CatalogCacheStats;
+import com.store.grocery.cache.CatalogPayload;
+import com.store.grocery.cache.SecondLevelCacheStats;
+import com.store.grocery.datasource.DataSourceRoutingStats;
+import com.store.grocery.entity.CatalogFilter;
 import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.ImportFormat;
+import com.store.grocery.entity.InventoryAdjustment;
+import com.store.grocery.entity.ItemSalesTotal;
 import com.store.grocery.exception.ApiException;
+import com.store.grocery.intake.OrderIntakeStats;
+import com.store.grocery.inventory.InventoryWriteBehindService;
+import com.store.grocery.inventory.InventoryWriteBehindStats;
 import com.store.grocery.response.APIResponse;
+import com.store.grocery.response.BulkInventoryReport;
+import com.store.grocery.response.CatalogPage;
 import com.store.grocery.response.ErrorResponse;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.ImportReport;
+import com.store.grocery.response.ItemSales;
+import com.store.grocery.response.StoreReport;
 import com.store.grocery.response.SuccessResponse;
+import com.store.grocery.sales.ItemSalesStats;
 import com.store.grocery.service.AdminService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,15 +40,18 @@ public class AdminController {
 
     private final AdminService adminService;
 
-    public AdminController(AdminService adminService) {
+    private final InventoryWriteBehindService inventoryWriteBehindService;
+
+    public AdminController(AdminService adminService, InventoryWriteBehindService inventoryWriteBehindService) {
         this.adminService = adminService;
+        this.inventoryWriteBehindService = inventoryWriteBehindService;
     }
 
     @PostMapping("/add-grocery-item")
     public ResponseEntity<APIResponse> addGroceryItem(@RequestBody List<GroceryItem> groceryItem) {
         try {
-            List<GroceryItem> addedItems = adminService.addGroceryItem(groceryItem);
-            SuccessResponse<List<GroceryItem>> successResponse = new SuccessResponse<>(true, "Grocery item added successfully", addedItems);
+            List<GroceryItemResponse> addedItems = adminService.addGroceryItem(groceryItem);
+            SuccessResponse<List<GroceryItemResponse>> successResponse = new SuccessResponse<>(true, "Grocery item added successfully", addedItems);
             return ResponseEntity.ok(successResponse);
         } catch (ApiException e) {
             ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
@@ -34,10 +60,48 @@ public class AdminController {
     }
 
     @GetMapping("/view-grocery-items")
-    public ResponseEntity<APIResponse> viewGroceryItems() {
+    public ResponseEntity<APIResponse> viewGroceryItems(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            String versionTag = adminService.getCatalogVersionTag();
+            if (CatalogResponses.matches(ifNoneMatch, versionTag)) {
+                return CatalogResponses.notModified(versionTag, acceptEncoding);
+            }
+            // Serialized once per catalog version, written as-is
+            CatalogPayload payload = adminService.fetchAllGroceryItemsPayload();
+            return CatalogResponses.ok(payload, acceptEncoding);
+        } catch (ApiException e) {
+            ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
+            return ResponseEntity.status(e.getStatus()).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/view-grocery-items/page")
+    public ResponseEntity<APIResponse> viewGroceryItemsPage(CatalogFilter filter) {
+        try {
+            CatalogPage<GroceryItemResponse> page = adminService.fetchGroceryItemsPage(filter);
+            SuccessResponse<CatalogPage<GroceryItemResponse>> successResponse = new SuccessResponse<>(true, "Successfully fetched grocery items", page);
+            return ResponseEntity.ok(successResponse);
+        } catch (ApiException e) {
+            ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
+            return ResponseEntity.status(e.getStatus()).body(errorResponse);
+        }
+    }
+
+    @GetMapping(value = "/export-grocery-items", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportGroceryItems() {
+        // Rows are written as they are read; the status is committed before the first byte
+        StreamingResponseBody body = adminService::exportGroceryItems;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @PostMapping(value = "/import-grocery-items", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<APIResponse> importGroceryItems(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
         try {
-            List<GroceryItem> groceryItems = adminService.fetchAllGroceryItems();
-            SuccessResponse<List<GroceryItem>> successResponse = new SuccessResponse<>(true, "Successfully fetched grocery items", groceryItems);
+            // The body is parsed while it is read, never bound as a whole
+            ImportReport report = adminService.importGroceryItems(body, ImportFormat.fromContentType(contentType));
+            String message = report.getFailed() == 0 ? "Grocery items imported successfully" : "Grocery items imported with errors";
+            SuccessResponse<ImportReport> successResponse = new SuccessResponse<>(true, message, report);
             return ResponseEntity.ok(successResponse);
         } catch (ApiException e) {
             ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
@@ -58,11 +122,13 @@ public class AdminController {
     }
 
     @PutMapping("/update-grocery-item/{itemId}")
-    public ResponseEntity<APIResponse> updateGroceryItem(@PathVariable Long itemId, @RequestBody GroceryItem updatedItem) {
+    public ResponseEntity<APIResponse> updateGroceryItem(@PathVariable Long itemId, @RequestBody GroceryItem updatedItem,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            GroceryItem updatedGroceryItem = adminService.updateGroceryItem(itemId, updatedItem);
-            SuccessResponse<GroceryItem> successResponse = new SuccessResponse<>(true, "Grocery item updated successfully", updatedGroceryItem);
-            return ResponseEntity.ok(successResponse);
+            GroceryItemResponse updatedGroceryItem = adminService.updateGroceryItem(itemId, updatedItem, ETags.ifMatchVersion(ifMatch));
+            SuccessResponse<GroceryItemResponse> successResponse = new SuccessResponse<>(true, "Grocery item updated successfully", updatedGroceryItem);
+            // The new version, for the next conditional update
+            return ResponseEntity.ok().eTag(ETags.quote(String.valueOf(updatedGroceryItem.version()))).body(successResponse);
         } catch (ApiException e) {
             ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
             return ResponseEntity.status(e.getStatus()).body(errorResponse);
@@ -70,9 +136,26 @@ public class AdminController {
     }
 
     @PatchMapping("/manage-inventory/{itemId}/{quantity}")
-    public ResponseEntity<APIResponse> manageInventory(@PathVariable Long itemId, @PathVariable double quantity) {
+    public ResponseEntity<APIResponse> manageInventory(@PathVariable Long itemId, @PathVariable double quantity,
+                                                       @RequestParam(defaultValue = "SET") InventoryAdjustment.Mode mode,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            adminService.manageInventory(itemId, quantity);
+            Long expectedVersion = ETags.ifMatchVersion(ifMatch);
+            if (expectedVersion != null && mode == InventoryAdjustment.Mode.ADD) {
+                throw new ApiException("If-Match only applies to absolute stock levels", HttpStatus.BAD_REQUEST);
+            }
+            // Conditional updates are checked and written right away, never buffered
+            if (inventoryWriteBehindService.isEnabled() && expectedVersion == null) {
+                // Acknowledge once logged, the stock level is written with the next flush
+                inventoryWriteBehindService.submit(new InventoryAdjustment(itemId, mode, quantity));
+                SuccessResponse<String> successResponse = new SuccessResponse<>(true, "Inventory update accepted", "Inventory update buffered");
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(successResponse);
+            }
+            if (mode == InventoryAdjustment.Mode.ADD) {
+                adminService.addInventory(itemId, quantity);
+            } else {
+                adminService.manageInventory(itemId, quantity, expectedVersion);
+            }
             SuccessResponse<String> successResponse = new SuccessResponse<>(true, "Inventory managed successfully", "Inventory managed");
             return ResponseEntity.ok(successResponse);
         } catch (ApiException e) {
@@ -80,4 +163,86 @@ public class AdminController {
             return ResponseEntity.status(e.getStatus()).body(errorResponse);
         }
     }
+
+    @PatchMapping("/manage-inventory")
+    public ResponseEntity<APIResponse> adjustInventory(@RequestBody List<InventoryAdjustment> adjustments) {
+        try {
+            BulkInventoryReport report = adminService.adjustInventory(adjustments);
+            String message = report.rejected() == 0 ? "Inventory managed successfully" : "Inventory managed with rejected adjustments";
+            SuccessResponse<BulkInventoryReport> successResponse = new SuccessResponse<>(true, message, report);
+            return ResponseEntity.ok(successResponse);
+        } catch (ApiException e) {
+            ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
+            return ResponseEntity.status(e.getStatus()).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/catalog-cache-stats")
+    public ResponseEntity<APIResponse> viewCatalogCacheStats() {
+        CatalogCacheStats stats = adminService.fetchCatalogCacheStats();
+        SuccessResponse<CatalogCacheStats> successResponse = new SuccessResponse<>(true, "Successfully fetched catalog cache stats", stats);
+        return ResponseEntity.ok(successResponse);
+    }
+
+    @GetMapping("/order-intake-stats")
+    public ResponseEntity<APIResponse> viewOrderIntakeStats() {
+        OrderIntakeStats stats = adminService.fetchOrderIntakeStats();
+        SuccessResponse<OrderIntakeStats> successResponse = new SuccessResponse<>(true, "Successfully fetched order intake stats", stats);
+        return ResponseEntity.ok(successResponse);
+    }
+
+    @GetMapping("/inventory-write-behind-stats")
+    public ResponseEntity<APIResponse> viewInventoryWriteBehindStats() {
+        InventoryWriteBehindStats stats = adminService.fetchInventoryWriteBehindStats();
+        SuccessResponse<InventoryWriteBehindStats> successResponse = new SuccessResponse<>(true, "Successfully fetched inventory write-behind stats", stats);
+        return ResponseEntity.ok(successResponse);
+    }
+
+    @GetMapping("/second-level-cache-stats")
+    public ResponseEntity<APIResponse> viewSecondLevelCacheStats() {
+        List<SecondLevelCacheStats> stats = adminService.fetchSecondLevelCacheStats();
+        SuccessResponse<List<SecondLevelCacheStats>> successResponse = new SuccessResponse<>(true, "Successfully fetched second-level cache stats", stats);
+        return ResponseEntity.ok(successResponse);
+    }
+
+    @GetMapping("/datasource-routing-stats")
+    public ResponseEntity<APIResponse> viewDataSourceRoutingStats() {
+        DataSourceRoutingStats stats = adminService.fetchDataSourceRoutingStats();
+        SuccessResponse<DataSourceRoutingStats> successResponse = new SuccessResponse<>(true, "Successfully fetched datasource routing stats", stats);
+        return ResponseEntity.ok(successResponse);
+    }
+
+    @GetMapping("/store-reports")
+    public ResponseEntity<APIResponse> viewStoreReports() {
+        try {
+            // Read from every shard in parallel
+            List<StoreReport> reports = adminService.fetchStoreReports();
+            SuccessResponse<List<StoreReport>> successResponse = new SuccessResponse<>(true, "Successfully fetched store reports", reports);
+            return ResponseEntity.ok(successResponse);
+        } catch (ApiException e) {
+            ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
+            return ResponseEntity.status(e.getStatus()).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/top-sellers")
+    public ResponseEntity<APIResponse> viewTopSellers(@RequestParam(defaultValue = "10") int limit,
+                                                      @RequestParam(defaultValue = "QUANTITY") ItemSalesTotal.Ranking rankBy) {
+        try {
+            // Read from the running totals, not from the order lines
+            List<ItemSales> topSellers = adminService.fetchTopSellers(limit, rankBy);
+            SuccessResponse<List<ItemSales>> successResponse = new SuccessResponse<>(true, "Successfully fetched top sellers", topSellers);
+            return ResponseEntity.ok(successResponse);
+        } catch (ApiException e) {
+            ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
+            return ResponseEntity.status(e.getStatus()).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/item-sales-stats")
+    public ResponseEntity<APIResponse> viewItemSalesStats() {
+        ItemSalesStats stats = adminService.fetchItemSalesStats();
+        SuccessResponse<ItemSalesStats> successResponse = new SuccessResponse<>(true, "Successfully fetched item sales stats", stats);
+        return ResponseEntity.ok(successResponse);
+    }
 }
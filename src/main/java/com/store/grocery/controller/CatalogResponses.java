@@ -0,0 +1,72 @@
+package com.store.grocery.controller;
+
+import com.store.grocery.cache.CatalogPayload;
+import com.store.grocery.response.APIResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Builds responses from pre-serialized catalog payloads, picking the gzip variant when the client accepts it.
+ * <p>
+ * The two codings of a version have different bytes, so each gets its own strong tag: the version
+ * tag for the identity body and the version tag with {@code -gzip} appended for the gzip body.
+ */
+final class CatalogResponses {
+
+    private static final String GZIP_TAG_SUFFIX = "-gzip";
+
+    private CatalogResponses() {
+    }
+
+    static ResponseEntity<APIResponse> ok(CatalogPayload payload, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(tagFor(payload.getVersionTag(), gzip))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzip());
+        }
+        return builder.body(payload.getIdentity());
+    }
+
+    /**
+     * Whether {@code If-None-Match} names the current version in either coding. A client that
+     * switches coding still holds the same catalog, so either tag saves it the download.
+     */
+    static boolean matches(String ifNoneMatch, String versionTag) {
+        return ETags.matches(ifNoneMatch, versionTag) || ETags.matches(ifNoneMatch, versionTag + GZIP_TAG_SUFFIX);
+    }
+
+    /**
+     * 304 carrying the tag the client would have been sent for its coding.
+     */
+    static ResponseEntity<APIResponse> notModified(String versionTag, String acceptEncoding) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(tagFor(versionTag, acceptsGzip(acceptEncoding)))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    static String tagFor(String versionTag, boolean gzip) {
+        return gzip ? versionTag + GZIP_TAG_SUFFIX : versionTag;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            return !refused;
+        }
+        return false;
+    }
+}
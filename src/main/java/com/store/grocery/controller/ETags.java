@@ -0,0 +1,61 @@
+package com.store.grocery.controller;
+
+import com.store.grocery.exception.ApiException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Entity tag helpers for conditional requests.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+
+    /**
+     * Weak comparison of an {@code If-None-Match} header against the current tag, as used for GET.
+     */
+    static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null || tag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(quote(tag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Item version required by an {@code If-Match} header, or null when there is no header or it
+     * is {@code *}. Item tags are strong, so a weak or non-numeric tag can never match.
+     */
+    static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.contains(",")) {
+            throw new ApiException("If-Match must name a single version", HttpStatus.BAD_REQUEST);
+        }
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            throw new ApiException("If-Match does not match the current version", HttpStatus.PRECONDITION_FAILED);
+        }
+        try {
+            return Long.parseLong(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new ApiException("If-Match does not match the current version", HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+}
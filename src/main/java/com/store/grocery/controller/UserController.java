@@ -1,34 +1,67 @@
 package com.store.grocery.controller;
 
+import com.store.grocery.cache.CatalogPayload;
+import com.store.grocery.entity.CatalogFilter;
 import com.store.grocery.entity.CreateOrderRequest;
 import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.OrderHistoryFilter;
 import com.store.grocery.exception.ApiException;
+import com.store.grocery.intake.OrderIntakeService;
+import com.store.grocery.intake.OrderIntakeTicket;
 import com.store.grocery.response.APIResponse;
+import com.store.grocery.response.CatalogPage;
 import com.store.grocery.response.ErrorResponse;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.OrderSummary;
 import com.store.grocery.response.SuccessResponse;
 import com.store.grocery.service.UserService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
 @RequestMapping("/user")
 @Slf4j
 public class UserController {
-    
+
+    // Retries carrying the same key return the original order instead of creating another
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final UserService userService;
 
-    public UserController(UserService userService) {
+    private final OrderIntakeService orderIntakeService;
+
+    public UserController(UserService userService, OrderIntakeService orderIntakeService) {
         this.userService = userService;
+        this.orderIntakeService = orderIntakeService;
     }
 
     @GetMapping("/view-available-grocery-items")
-    public ResponseEntity<APIResponse> viewAvailableGroceryItems() {
+    public ResponseEntity<APIResponse> viewAvailableGroceryItems(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            List<GroceryItem> availableItems = userService.viewAvailableGroceryItems();
-            SuccessResponse<List<GroceryItem>> successResponse = new SuccessResponse<>(true, "Successfully fetched available grocery items", availableItems);
+            String versionTag = userService.getCatalogVersionTag();
+            if (CatalogResponses.matches(ifNoneMatch, versionTag)) {
+                return CatalogResponses.notModified(versionTag, acceptEncoding);
+            }
+            // Serialized once per catalog version, written as-is
+            CatalogPayload payload = userService.viewAvailableGroceryItemsPayload();
+            return CatalogResponses.ok(payload, acceptEncoding);
+        } catch (ApiException e) {
+            ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
+            return ResponseEntity.status(e.getStatus()).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/view-available-grocery-items/page")
+    public ResponseEntity<APIResponse> viewAvailableGroceryItemsPage(CatalogFilter filter) {
+        try {
+            CatalogPage<GroceryItemResponse> page = userService.viewAvailableGroceryItemsPage(filter);
+            SuccessResponse<CatalogPage<GroceryItemResponse>> successResponse = new SuccessResponse<>(true, "Successfully fetched available grocery items", page);
             return ResponseEntity.ok(successResponse);
         } catch (ApiException e) {
             ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
@@ -37,9 +70,21 @@ public class UserController {
     }
 
     @PostMapping("/create-order")
-    public ResponseEntity<APIResponse> createOrder(@RequestBody CreateOrderRequest createOrderRequest) {
+    public ResponseEntity<APIResponse> createOrder(@RequestBody CreateOrderRequest createOrderRequest,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         System.out.println("Input createOrderRequest "+ createOrderRequest);
         try {
+            if (idempotencyKey != null) {
+                createOrderRequest.setIdempotencyKey(idempotencyKey);
+            }
+            if (orderIntakeService.isEnabled()) {
+                // Acknowledge now, the order is written by the intake writer in a later batch
+                OrderIntakeTicket ticket = orderIntakeService.submit(createOrderRequest);
+                SuccessResponse<OrderIntakeTicket> successResponse = new SuccessResponse<>(true, "Order accepted", ticket);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/user/order-status/" + ticket.getIntakeId()))
+                        .body(successResponse);
+            }
             userService.createOrder(createOrderRequest);
             SuccessResponse<String> successResponse = new SuccessResponse<>(true, "Order created successfully", "Order created");
             return ResponseEntity.ok(successResponse);
@@ -48,4 +93,28 @@ public class UserController {
             return ResponseEntity.status(e.getStatus()).body(errorResponse);
         }
     }
+
+    @GetMapping("/order-status/{intakeId}")
+    public ResponseEntity<APIResponse> orderStatus(@PathVariable String intakeId) {
+        try {
+            OrderIntakeTicket ticket = orderIntakeService.getTicket(intakeId);
+            SuccessResponse<OrderIntakeTicket> successResponse = new SuccessResponse<>(true, "Successfully fetched order status", ticket);
+            return ResponseEntity.ok(successResponse);
+        } catch (ApiException e) {
+            ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
+            return ResponseEntity.status(e.getStatus()).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/order-history/{userId}")
+    public ResponseEntity<APIResponse> viewOrderHistory(@PathVariable Long userId, OrderHistoryFilter filter) {
+        try {
+            CatalogPage<OrderSummary> page = userService.viewOrderHistory(userId, filter);
+            SuccessResponse<CatalogPage<OrderSummary>> successResponse = new SuccessResponse<>(true, "Successfully fetched order history", page);
+            return ResponseEntity.ok(successResponse);
+        } catch (ApiException e) {
+            ErrorResponse errorResponse = new ErrorResponse(false, e.getMessage());
+            return ResponseEntity.status(e.getStatus()).body(errorResponse);
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package com.store.grocery.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Pins the current thread's reads to the primary database, for reads that must see writes the
+ * replicas may not have applied yet. Only read-only transactions are ever sent to a replica, so
+ * writes are unaffected. The pin is checked when a transaction first uses its connection.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<int[]> PRIMARY_PINS = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> reads) {
+        pinToPrimary();
+        try {
+            return reads.get();
+        } finally {
+            unpin();
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PRIMARY_PINS.get() != null;
+    }
+
+    static void pinToPrimary() {
+        int[] pins = PRIMARY_PINS.get();
+        if (pins == null) {
+            PRIMARY_PINS.set(new int[] {1});
+        } else {
+            pins[0]++;
+        }
+    }
+
+    static void unpin() {
+        int[] pins = PRIMARY_PINS.get();
+        if (pins != null && --pins[0] == 0) {
+            PRIMARY_PINS.remove();
+        }
+    }
+}
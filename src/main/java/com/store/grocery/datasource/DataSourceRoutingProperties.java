@@ -0,0 +1,43 @@
+package com.store.grocery.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "grocery.datasource")
+@Getter
+@Setter
+public class DataSourceRoutingProperties {
+
+    // Without replicas every connection comes from spring.datasource, as before
+    private List<Replica> replicas = new ArrayList<>();
+
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // A replica that cannot hand out a valid connection within this time is taken out of rotation
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+
+    // How long a user's reads stay on the primary after they place an order; should exceed the replication lag
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.store.grocery.datasource;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class DataSourceRoutingStats {
+
+    private int replicas;
+    private int healthyReplicas;
+    private long primaryConnections;
+    private long replicaConnections;
+    private long replicaFallbacks;
+
+}
@@ -0,0 +1,87 @@
+package com.store.grocery.datasource;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers who wrote recently, so that for {@code readYourWritesWindow} their reads go to the
+ * primary instead of a replica that may not have their write yet. Does nothing without replicas.
+ */
+@Component
+public class ReadYourWrites {
+
+    // Above this many remembered writers, expired ones are swept out on the next write
+    static final int SWEEP_THRESHOLD = 10_000;
+
+    private final boolean enabled;
+
+    private final long windowNanos;
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(DataSourceRoutingProperties properties) {
+        this.enabled = !properties.getReplicas().isEmpty();
+        this.windowNanos = properties.getReadYourWritesWindow().toNanos();
+    }
+
+    /**
+     * Records a write by {@code writer} of the current store once the current transaction commits.
+     */
+    public void recordAfterCommit(Object writer) {
+        if (!enabled) {
+            return;
+        }
+        String key = writerKey(writer);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(key);
+            }
+        });
+    }
+
+    /**
+     * Runs {@code reads} on the primary if {@code writer} wrote within the window, on any database otherwise.
+     */
+    public <T> T read(Object writer, Supplier<T> reads) {
+        return wroteRecently(writer) ? DataSourceRouting.onPrimary(reads) : reads.get();
+    }
+
+    boolean wroteRecently(Object writer) {
+        if (!enabled) {
+            return false;
+        }
+        String key = writerKey(writer);
+        Long writtenAt = lastWrites.get(key);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < windowNanos) {
+            return true;
+        }
+        lastWrites.remove(key, writtenAt);
+        return false;
+    }
+
+    private void record(String key) {
+        long now = System.nanoTime();
+        lastWrites.put(key, now);
+        if (lastWrites.size() > SWEEP_THRESHOLD) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+
+    // Writer ids are only unique within a store
+    private static String writerKey(Object writer) {
+        return StoreContext.currentStoreId() + ":" + writer;
+    }
+}
@@ -0,0 +1,170 @@
+package com.store.grocery.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out connections from a read replica to read-only transactions and from the primary to
+ * everything else. Replicas are used round robin; a replica that fails to hand out a connection
+ * is taken out of rotation and the read goes to the primary, until a background health check
+ * finds it valid again. Reads pinned with {@link DataSourceRouting#onPrimary} always use the primary.
+ * <p>
+ * The decision needs the transaction's read-only flag, which is only set once the transaction
+ * has begun, so this must sit behind a {@code LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final int validationTimeoutSeconds;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder replicaFallbacks = new LongAdder();
+
+    private ScheduledExecutorService healthChecker;
+
+    /**
+     * @param replicas replica pools by name, in the order they are used
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration validationTimeout) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+    }
+
+    /**
+     * Starts re-checking the replicas every {@code interval}, so one taken out of rotation comes back once it recovers.
+     */
+    public void startHealthChecks(Duration interval) {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !DataSourceRouting.isPinnedToPrimary()) {
+            // Every healthy replica is tried once before falling back
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection connection = connect(replica.dataSource, username, password);
+                    replicaConnections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    markDown(replica, e);
+                }
+            }
+            if (!replicas.isEmpty()) {
+                replicaFallbacks.increment();
+            }
+        }
+        Connection connection = connect(primary, username, password);
+        primaryConnections.increment();
+        return connection;
+    }
+
+    public DataSourceRoutingStats getStats() {
+        int healthy = (int) replicas.stream().filter(replica -> replica.healthy).count();
+        return new DataSourceRoutingStats(replicas.size(), healthy, primaryConnections.sum(), replicaConnections.sum(), replicaFallbacks.sum());
+    }
+
+    /**
+     * Validates a connection from every replica and puts the ones that pass back into rotation.
+     */
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(validationTimeoutSeconds)) {
+                    throw new SQLException("Connection failed validation");
+                }
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Read replica {} is back in rotation", replica.name);
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private void markDown(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Read replica {} taken out of rotation, reads fall back to the primary: {}", replica.name, cause.getMessage());
+        }
+    }
+
+    private static Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+        return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
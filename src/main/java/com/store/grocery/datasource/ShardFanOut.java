@@ -0,0 +1,83 @@
+package com.store.grocery.datasource;
+
+import com.store.grocery.exception.ApiException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the same read on every shard at once, for reports across all stores. Each shard's read
+ * runs on a thread of its own with the store restriction lifted, so it sees every store on that
+ * shard; the caller merges the per-shard results.
+ */
+@Component
+@Slf4j
+public class ShardFanOut {
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    private final Duration timeout;
+
+    private final ExecutorService executor;
+
+    public ShardFanOut(ShardRoutingDataSource shardRoutingDataSource, ShardingProperties properties) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.timeout = properties.getFanOutTimeout();
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(shardRoutingDataSource.getShards().size(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs {@code reads} on every shard in parallel.
+     *
+     * @return each shard's result, in shard order
+     */
+    public <T> List<T> onEveryShard(Supplier<T> reads) {
+        int shardCount = shardRoutingDataSource.getShards().size();
+        List<Future<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(executor.submit(() -> StoreContext.callOnShard(target, reads)));
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<T> results = new ArrayList<>(shardCount);
+        try {
+            for (int shard = 0; shard < shardCount; shard++) {
+                results.add(futures.get(shard).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (ExecutionException e) {
+            log.error("Cross-shard read failed on shard {}", results.size(), e.getCause());
+            throw new ApiException("Failed to read from shard " + results.size(), HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (TimeoutException e) {
+            throw new ApiException("Timed out reading from shard " + results.size(), HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted reading from the shards", HttpStatus.SERVICE_UNAVAILABLE);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,86 @@
+package com.store.grocery.datasource;
+
+import com.store.grocery.exception.ApiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hands out connections from the shard that holds the current {@link StoreContext} store. Each
+ * store lives on exactly one shard, so a transaction never spans two of them.
+ */
+public class ShardRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final List<DataSource> shards;
+
+    private final Map<Long, Integer> stores;
+
+    /**
+     * @param shards one data source per shard, indexed as in {@code stores}
+     * @param stores shard index of every store this deployment serves
+     */
+    public ShardRoutingDataSource(List<DataSource> shards, Map<Long, Integer> stores) {
+        stores.forEach((storeId, shard) -> {
+            if (storeId <= StoreContext.ALL_STORES || shard == null || shard < 0 || shard >= shards.size()) {
+                throw new IllegalArgumentException("Store " + storeId + " is mapped to shard " + shard + ", but there are " + shards.size() + " shards");
+            }
+        });
+        this.shards = List.copyOf(shards);
+        this.stores = Collections.unmodifiableMap(new TreeMap<>(stores));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return currentShard().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return currentShard().getConnection(username, password);
+    }
+
+    public boolean isKnownStore(long storeId) {
+        return stores.containsKey(storeId);
+    }
+
+    public int shardOf(long storeId) {
+        Integer shard = stores.get(storeId);
+        if (shard == null) {
+            throw new ApiException("Store not found", HttpStatus.NOT_FOUND);
+        }
+        return shard;
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    /**
+     * Shard index of every store, in store id order.
+     */
+    public Map<Long, Integer> getStores() {
+        return stores;
+    }
+
+    @Override
+    public void close() throws Exception {
+        // Shard 0 is the primary's pool, closed with its own bean
+        for (DataSource shard : shards.subList(1, shards.size())) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private DataSource currentShard() {
+        Integer pinned = StoreContext.currentShard();
+        return shards.get(pinned != null ? pinned : shardOf(StoreContext.currentStoreId()));
+    }
+}
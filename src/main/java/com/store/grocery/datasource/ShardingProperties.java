@@ -0,0 +1,43 @@
+package com.store.grocery.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "grocery.sharding")
+@Getter
+@Setter
+public class ShardingProperties {
+
+    // Shards after the first one; shard 0 is spring.datasource with its grocery.datasource replicas
+    private List<Shard> shards = new ArrayList<>();
+
+    // Store id to shard index; requests for any other store are rejected
+    private Map<Long, Integer> stores = new LinkedHashMap<>(Map.of(StoreContext.DEFAULT_STORE_ID, 0));
+
+    // How long an admin report waits for the slowest shard
+    private Duration fanOutTimeout = Duration.ofSeconds(30);
+
+    @Getter
+    @Setter
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.store.grocery.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * The store the current thread works for. It picks the shard every connection comes from and is
+ * the Hibernate tenant identifier, so entities are written with it and queries only see its rows.
+ * Requests set it from the {@code X-Store-Id} header; threads that never set it work for the
+ * default store. Work handed to another thread must carry the store along explicitly.
+ */
+public final class StoreContext {
+
+    public static final long DEFAULT_STORE_ID = 1;
+
+    // Tenant identifier of cross-store reads on one shard; Hibernate drops the store restriction for it
+    public static final long ALL_STORES = 0;
+
+    private static final ThreadLocal<Long> CURRENT_STORE = new ThreadLocal<>();
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private StoreContext() {
+    }
+
+    public static long currentStoreId() {
+        Long storeId = CURRENT_STORE.get();
+        return storeId != null ? storeId : DEFAULT_STORE_ID;
+    }
+
+    /**
+     * Runs {@code work} for {@code storeId}, restoring the previous store afterwards. Must not be
+     * called with an entity manager already open on this thread, which would keep its own store.
+     */
+    public static <T> T callAs(long storeId, Supplier<T> work) {
+        Long previous = enter(storeId);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runAs(long storeId, Runnable work) {
+        callAs(storeId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code reads} against one shard for all the stores on it; see {@link ShardFanOut}.
+     */
+    static <T> T callOnShard(int shard, Supplier<T> reads) {
+        CURRENT_SHARD.set(shard);
+        try {
+            return callAs(ALL_STORES, reads);
+        } finally {
+            CURRENT_SHARD.remove();
+        }
+    }
+
+    static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Switches to {@code storeId}; returns the previous store, to be passed back to {@link #restore}.
+     */
+    static Long enter(long storeId) {
+        Long previous = CURRENT_STORE.get();
+        CURRENT_STORE.set(storeId);
+        return previous;
+    }
+
+    static void restore(Long previous) {
+        if (previous == null) {
+            CURRENT_STORE.remove();
+        } else {
+            CURRENT_STORE.set(previous);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.store.grocery.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.grocery.response.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sets the request's store from the {@code X-Store-Id} header, or the default store without one.
+ * A filter rather than an interceptor, so the store is in place before the request's entity
+ * manager is opened.
+ */
+public class StoreContextFilter extends OncePerRequestFilter {
+
+    public static final String STORE_ID_HEADER = "X-Store-Id";
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    private final ObjectMapper objectMapper;
+
+    public StoreContextFilter(ShardRoutingDataSource shardRoutingDataSource, ObjectMapper objectMapper) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(STORE_ID_HEADER);
+        long storeId;
+        try {
+            storeId = header == null ? StoreContext.DEFAULT_STORE_ID : Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            reject(response, HttpStatus.BAD_REQUEST, "Invalid " + STORE_ID_HEADER + " header");
+            return;
+        }
+        if (!shardRoutingDataSource.isKnownStore(storeId)) {
+            reject(response, HttpStatus.NOT_FOUND, "Store not found");
+            return;
+        }
+        Long previous = StoreContext.enter(storeId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StoreContext.restore(previous);
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(false, message));
+    }
+}
@@ -0,0 +1,16 @@
+package com.store.grocery.datasource;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Runs tasks handed to the application task executor for the store that submitted them, so
+ * that streamed responses written on an MVC async thread read from the request's store.
+ */
+public class StoreContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        long storeId = StoreContext.currentStoreId();
+        return () -> StoreContext.runAs(storeId, runnable);
+    }
+}
@@ -0,0 +1,26 @@
+package com.store.grocery.datasource;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Gives every new Hibernate session the current {@link StoreContext} store as its tenant, which
+ * fills in and filters on the {@code @TenantId} store column of the store-owned entities.
+ */
+public class StoreTenantResolver implements CurrentTenantIdentifierResolver<Long> {
+
+    @Override
+    public Long resolveCurrentTenantIdentifier() {
+        return StoreContext.currentStoreId();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        // Spring manages the sessions; Hibernate's current-session context is not used
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(Long storeId) {
+        return storeId == StoreContext.ALL_STORES;
+    }
+}
@@ -0,0 +1,24 @@
+package com.store.grocery.entity;
+
+import lombok.*;
+
+/**
+ * Keyset cursor and filters for paging through the catalog.
+ * Bound from query parameters, e.g. {@code ?afterId=120&size=50&unitOfMeasure=KILOGRAM}.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class CatalogFilter {
+
+    // Id of the last item on the previous page, null for the first page
+    private Long afterId;
+    private Integer size;
+    private Double minPrice;
+    private Double maxPrice;
+    private UnitOfMeasurement unitOfMeasure;
+    private boolean inStock;
+
+}
@@ -1,5 +1,6 @@
 package com.store.grocery.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import java.util.Map;
@@ -15,5 +16,8 @@ public class CreateOrderRequest {
     private Long userId;
     // Grocery Item id with Quantity
     private Map<Long, Double>  itemWithQuantity;
+    // Taken from the Idempotency-Key header; when absent, orderId is used as the key
+    @JsonIgnore
+    private String idempotencyKey;
 
 }
@@ -1,20 +1,26 @@
 package com.store.grocery.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.TenantId;
 
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "grocery-item")
 @NoArgsConstructor
-@AllArgsConstructor
 @Setter
 @Getter
 @ToString
 @Table(name = "qp_grocery_item")
-public class GroceryItem {
+public class GroceryItem implements StoreOwned {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grocery_item_id_generator")
+    @SequenceGenerator(name = "grocery_item_id_generator", sequenceName = "qp_grocery_item_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -27,4 +33,28 @@ public class GroceryItem {
 
     private double quantity;
 
+    // The store the row belongs to: set from the current store on insert, and every query is restricted to it
+    @TenantId
+    @JsonIgnore
+    @Column(name = "store_id", nullable = false, updatable = false)
+    private Long storeId;
+
+    // Bumped by every write, including the SQL stock updates, so a stale read-modify-write fails its check
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public GroceryItem(Long id, String name, double price, UnitOfMeasurement unitOfMeasure, double quantity) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.unitOfMeasure = unitOfMeasure;
+        this.quantity = quantity;
+    }
+
+    public GroceryItem(Long id, String name, double price, UnitOfMeasurement unitOfMeasure, double quantity, long version) {
+        this(id, name, price, unitOfMeasure, quantity);
+        this.version = version;
+    }
+
 }
@@ -0,0 +1,22 @@
+package com.store.grocery.entity;
+
+import lombok.*;
+
+/**
+ * One line of a catalog import. Lines with an id update that item, lines without one add a
+ * new item. Numbers are boxed so that a missing column can be told apart from zero.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class GroceryItemImportRow {
+
+    private Long id;
+    private String name;
+    private Double price;
+    private UnitOfMeasurement unitOfMeasure;
+    private Double quantity;
+
+}
@@ -0,0 +1,28 @@
+package com.store.grocery.entity;
+
+import com.store.grocery.exception.ApiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    CSV("text/csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE);
+
+    private final MediaType mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType requested = MediaType.parseMediaType(contentType);
+            for (ImportFormat format : values()) {
+                if (format.mediaType.includes(requested)) {
+                    return format;
+                }
+            }
+        }
+        throw new ApiException("Import accepts text/csv or application/x-ndjson", HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+}
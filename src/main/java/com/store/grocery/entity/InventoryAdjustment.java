@@ -0,0 +1,26 @@
+package com.store.grocery.entity;
+
+import lombok.*;
+
+/**
+ * One line of a bulk inventory update: either sets the stock of an item or adds to it.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class InventoryAdjustment {
+
+    public enum Mode {
+        // quantity is the new stock level
+        SET,
+        // quantity is added to the current stock, negative to take stock out
+        ADD
+    }
+
+    private Long itemId;
+    private Mode mode = Mode.SET;
+    private double quantity;
+
+}
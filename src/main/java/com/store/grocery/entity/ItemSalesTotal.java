@@ -0,0 +1,47 @@
+package com.store.grocery.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+
+/**
+ * Units sold and revenue of one item over all of its orders so far. Rows are only ever added to,
+ * by the flushes of the sales counters, never rebuilt from the order lines.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Table(name = "qp_item_sales")
+public class ItemSalesTotal implements StoreOwned {
+
+    public enum Ranking {
+        // most units sold first
+        QUANTITY,
+        // highest revenue first
+        REVENUE
+    }
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    // Written with the item's store by the flush, so each store ranks only its own items
+    @TenantId
+    @JsonIgnore
+    @Column(name = "store_id", nullable = false, updatable = false)
+    private Long storeId;
+
+    // Exact to the ten-thousandth the sales counters count in, so adding to them never rounds
+    @Column(name = "quantity_sold", nullable = false, precision = 19, scale = 4)
+    private BigDecimal quantitySold;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal revenue;
+
+}
@@ -1,7 +1,9 @@
 package com.store.grocery.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,22 +14,34 @@ import java.util.List;
 @Setter
 @ToString
 @Table(name = "qp_order")
-public class Order {
+public class Order implements StoreOwned {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_id_generator")
+    @SequenceGenerator(name = "order_id_generator", sequenceName = "qp_order_seq", allocationSize = 50)
     private Long orderId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    @OneToMany(fetch = FetchType.EAGER)
+    // Inverse side of OrderItem.order: the lines own the order_id column, no join table
+    @OneToMany(mappedBy = "order")
+    @ToString.Exclude
     private List<OrderItem> orderItems;
 
     @Column(name = "total_price")
     private double totalPrice;
 
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    // The store the order was placed in, filled in by Hibernate on insert
+    @TenantId
+    @JsonIgnore
+    @Column(name = "store_id", nullable = false, updatable = false)
+    private Long storeId;
+
     public Order(){
         this.orderItems = new ArrayList<>();
     }
@@ -0,0 +1,20 @@
+package com.store.grocery.entity;
+
+import lombok.*;
+
+/**
+ * Keyset cursor for paging through a user's orders, newest first.
+ * Bound from query parameters, e.g. {@code ?afterId=5120&size=20}.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class OrderHistoryFilter {
+
+    // Id of the last order on the previous page, null for the first page
+    private Long afterId;
+    private Integer size;
+
+}
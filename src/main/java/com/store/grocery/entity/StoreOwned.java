@@ -0,0 +1,10 @@
+package com.store.grocery.entity;
+
+/**
+ * An entity that belongs to one store, held in a {@code @TenantId} store column.
+ */
+public interface StoreOwned {
+
+    Long getStoreId();
+
+}
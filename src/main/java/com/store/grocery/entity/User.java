@@ -1,23 +1,41 @@
 package com.store.grocery.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.TenantId;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @NoArgsConstructor
-@AllArgsConstructor
 @Setter
 @Getter
 @ToString
 @Table(name = "qp_user")
-public class User {
+public class User implements StoreOwned {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_generator")
+    @SequenceGenerator(name = "user_id_generator", sequenceName = "qp_user_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_name")
     private String userName;
 
     private String role;
+
+    // A user shops at one store and is invisible to every other
+    @TenantId
+    @JsonIgnore
+    @Column(name = "store_id", nullable = false, updatable = false)
+    private Long storeId;
+
+    public User(Long id, String userName, String role) {
+        this.id = id;
+        this.userName = userName;
+        this.role = role;
+    }
 }
@@ -0,0 +1,31 @@
+package com.store.grocery.intake;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "grocery.order.intake")
+@Getter
+@Setter
+public class OrderIntakeProperties {
+
+    public enum Mode {
+        // Orders are written on the request thread, as before
+        SYNC,
+        // Orders are queued, acknowledged with 202 and written in batches by a background writer
+        ASYNC
+    }
+
+    private Mode mode = Mode.SYNC;
+
+    private int queueCapacity = 10_000;
+
+    // Maximum number of orders committed in one transaction
+    private int batchSize = 100;
+
+    // How many finished tickets are kept for status lookups before the oldest are dropped
+    private int ticketRetention = 100_000;
+
+}
@@ -0,0 +1,252 @@
+package com.store.grocery.intake;
+
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.entity.CreateOrderRequest;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.service.UserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Async order intake: requests are validated and queued on the request thread, and a single
+ * writer thread drains the queue, committing up to {@code batchSize} orders per transaction.
+ * <p>
+ * If anything in a batch fails, the shared transaction is rolled back and the orders in it are
+ * retried one per transaction, so one bad order only fails itself.
+ * <p>
+ * Orders are written for the store they were submitted to; a batch holding orders of several
+ * stores is committed as one transaction per store.
+ */
+@Service
+@Slf4j
+public class OrderIntakeService {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final UserService userService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final OrderIntakeProperties properties;
+
+    private final BlockingQueue<PendingOrder> queue;
+
+    private final Map<String, OrderIntakeTicket> tickets = new ConcurrentHashMap<>();
+
+    private final Queue<String> finishedTickets = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedOrders = new LongAdder();
+    private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+    private final AtomicLong commitNanos = new AtomicLong();
+    private final LongAccumulator maxCommitNanos = new LongAccumulator(Math::max, 0);
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public OrderIntakeService(UserService userService, TransactionTemplate transactionTemplate, OrderIntakeProperties properties) {
+        this.userService = userService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "order-intake-writer");
+        writer.start();
+        log.info("Async order intake started (queue capacity {}, batch size {})", properties.getQueueCapacity(), properties.getBatchSize());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        // The writer drains whatever is still queued before it exits
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() == OrderIntakeProperties.Mode.ASYNC;
+    }
+
+    public OrderIntakeTicket submit(CreateOrderRequest orderRequest) {
+        validate(orderRequest);
+        OrderIntakeTicket ticket = OrderIntakeTicket.queued(UUID.randomUUID().toString());
+        tickets.put(ticket.getIntakeId(), ticket);
+        if (!queue.offer(new PendingOrder(ticket.getIntakeId(), StoreContext.currentStoreId(), orderRequest))) {
+            tickets.remove(ticket.getIntakeId());
+            rejected.increment();
+            throw new ApiException("Order intake queue is full, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        accepted.increment();
+        return ticket;
+    }
+
+    public OrderIntakeTicket getTicket(String intakeId) {
+        OrderIntakeTicket ticket = tickets.get(intakeId);
+        if (ticket == null) {
+            throw new ApiException("Order intake ticket not found", HttpStatus.NOT_FOUND);
+        }
+        return ticket;
+    }
+
+    public OrderIntakeStats getStats() {
+        long batchCount = batches.sum();
+        return new OrderIntakeStats(properties.getMode().name(), queue.size(),
+                accepted.sum(), rejected.sum(), committed.sum(), failed.sum(), batchCount,
+                batchCount == 0 ? 0 : (double) batchedOrders.sum() / batchCount,
+                (int) maxBatchSize.get(),
+                batchCount == 0 ? 0 : commitNanos.get() / 1e6 / batchCount,
+                maxCommitNanos.get() / 1e6);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Waits up to {@code timeoutMillis} for an order, then writes it together with whatever else is queued.
+     *
+     * @return number of orders processed
+     */
+    int processNextBatch(long timeoutMillis) throws InterruptedException {
+        PendingOrder first = queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<PendingOrder> batch = new ArrayList<>(properties.getBatchSize());
+        batch.add(first);
+        queue.drainTo(batch, properties.getBatchSize() - 1);
+        Map<Long, List<PendingOrder>> byStore = new LinkedHashMap<>();
+        for (PendingOrder pending : batch) {
+            byStore.computeIfAbsent(pending.storeId(), storeId -> new ArrayList<>()).add(pending);
+        }
+        byStore.forEach((storeId, orders) -> StoreContext.runAs(storeId, () -> writeBatch(orders)));
+        return batch.size();
+    }
+
+    private void runWriter() {
+        while (running || !queue.isEmpty()) {
+            try {
+                processNextBatch(POLL_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order intake writer failed on a batch", e);
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingOrder> batch) {
+        long start = System.nanoTime();
+        List<Long> orderIds;
+        try {
+            orderIds = transactionTemplate.execute(status -> {
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (PendingOrder pending : batch) {
+                    ids.add(userService.createOrder(pending.orderRequest()));
+                }
+                return ids;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} orders failed ({}), writing them one by one", batch.size(), e.getMessage());
+            batch.forEach(this::writeSingle);
+            recordBatch(batch.size(), System.nanoTime() - start);
+            return;
+        }
+        recordBatch(batch.size(), System.nanoTime() - start);
+        for (int i = 0; i < batch.size(); i++) {
+            Long orderId = orderIds.get(i);
+            finish(batch.get(i).intakeId(), ticket -> ticket.committed(orderId));
+        }
+    }
+
+    private void writeSingle(PendingOrder pending) {
+        try {
+            Long orderId = transactionTemplate.execute(status -> userService.createOrder(pending.orderRequest()));
+            finish(pending.intakeId(), ticket -> ticket.committed(orderId));
+        } catch (ApiException e) {
+            finish(pending.intakeId(), ticket -> ticket.failed(e.getMessage()));
+        } catch (RuntimeException e) {
+            log.error("Failed to write queued order {}", pending.intakeId(), e);
+            finish(pending.intakeId(), ticket -> ticket.failed("Failed to create order"));
+        }
+    }
+
+    private void finish(String intakeId, UnaryOperator<OrderIntakeTicket> transition) {
+        OrderIntakeTicket ticket = tickets.computeIfPresent(intakeId, (id, current) -> transition.apply(current));
+        if (ticket == null) {
+            return;
+        }
+        if (ticket.getStatus() == OrderIntakeStatus.COMMITTED) {
+            committed.increment();
+        } else {
+            failed.increment();
+        }
+        finishedTickets.add(intakeId);
+        while (finishedTickets.size() > properties.getTicketRetention()) {
+            String oldest = finishedTickets.poll();
+            if (oldest != null) {
+                tickets.remove(oldest);
+            }
+        }
+    }
+
+    private void recordBatch(int size, long nanos) {
+        batches.increment();
+        batchedOrders.add(size);
+        maxBatchSize.accumulate(size);
+        commitNanos.addAndGet(nanos);
+        maxCommitNanos.accumulate(nanos);
+    }
+
+    private static void validate(CreateOrderRequest orderRequest) {
+        if (orderRequest.getUserId() == null) {
+            throw new ApiException("userId is required", HttpStatus.BAD_REQUEST);
+        }
+        if (orderRequest.getItemWithQuantity() == null || orderRequest.getItemWithQuantity().isEmpty()) {
+            throw new ApiException("Order must contain at least one item", HttpStatus.BAD_REQUEST);
+        }
+        for (Map.Entry<Long, Double> line : orderRequest.getItemWithQuantity().entrySet()) {
+            if (line.getKey() == null || line.getValue() == null || line.getValue() <= 0) {
+                throw new ApiException("Quantity must be greater than zero", HttpStatus.BAD_REQUEST);
+            }
+        }
+    }
+
+    private record PendingOrder(String intakeId, long storeId, CreateOrderRequest orderRequest) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.store.grocery.intake;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class OrderIntakeStats {
+
+    private String mode;
+    private int queueDepth;
+    private long ordersAccepted;
+    private long ordersRejected;
+    private long ordersCommitted;
+    private long ordersFailed;
+    private long batches;
+    private double averageBatchSize;
+    private int maxBatchSize;
+    private double averageCommitMillis;
+    private double maxCommitMillis;
+
+}
@@ -0,0 +1,7 @@
+package com.store.grocery.intake;
+
+public enum OrderIntakeStatus {
+    QUEUED,
+    COMMITTED,
+    FAILED
+}
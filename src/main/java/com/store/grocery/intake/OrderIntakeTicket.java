@@ -0,0 +1,35 @@
+package com.store.grocery.intake;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Status of an order accepted in async intake mode, looked up by {@code intakeId}.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@ToString
+public class OrderIntakeTicket {
+
+    private String intakeId;
+    private OrderIntakeStatus status;
+    // Set once the order is committed
+    private Long orderId;
+    // Set when the order could not be written
+    private String errorMessage;
+
+    static OrderIntakeTicket queued(String intakeId) {
+        return new OrderIntakeTicket(intakeId, OrderIntakeStatus.QUEUED, null, null);
+    }
+
+    OrderIntakeTicket committed(Long orderId) {
+        return new OrderIntakeTicket(intakeId, OrderIntakeStatus.COMMITTED, orderId, null);
+    }
+
+    OrderIntakeTicket failed(String errorMessage) {
+        return new OrderIntakeTicket(intakeId, OrderIntakeStatus.FAILED, null, errorMessage);
+    }
+}
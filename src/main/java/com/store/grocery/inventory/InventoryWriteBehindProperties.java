@@ -0,0 +1,39 @@
+package com.store.grocery.inventory;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "grocery.inventory.write-behind")
+@Getter
+@Setter
+public class InventoryWriteBehindProperties {
+
+    public enum Mode {
+        // Every stock update is its own UPDATE and transaction, as before
+        DIRECT,
+        // Stock updates are logged, acknowledged with 202 and written per item in periodic batches
+        WRITE_BEHIND
+    }
+
+    private Mode mode = Mode.DIRECT;
+
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    // Number of buffered items that triggers a flush before the interval is up
+    private int flushThreshold = 500;
+
+    // Updates for items not yet buffered are refused with 503 beyond this many buffered items
+    private int maxPendingItems = 100_000;
+
+    private Path logDirectory = Path.of("inventory-log");
+
+    // Forces every logged update to disk; without it the log survives a process crash but not a power loss
+    private boolean syncWrites = false;
+
+}
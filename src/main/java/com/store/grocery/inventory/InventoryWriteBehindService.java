@@ -0,0 +1,344 @@
+package com.store.grocery.inventory;
+
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.entity.InventoryAdjustment;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.GroceryItemRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind stock updates: each update is appended to the {@link InventoryWriteLog} and folded
+ * into a per-item buffer on the request thread, and a single flusher thread writes the buffer as
+ * one batched UPDATE per flush, every {@code flushInterval} or as soon as {@code flushThreshold}
+ * items are buffered.
+ * <p>
+ * Updates to the same item coalesce: a SET replaces whatever was buffered, an ADD is summed into
+ * a buffered ADD or applied to a buffered SET. Summed deltas are checked against the stock once,
+ * as their total. Updates for unknown items, and deltas that would take the stock below zero,
+ * are dropped when flushed and counted in the stats.
+ * <p>
+ * If a flush fails its updates go back under any newer ones and are retried on the next flush.
+ * The log is only truncated after a flush commits, so a restart replays whatever was not yet
+ * written; a crash between that commit and the truncation replays the flushed deltas once more.
+ * <p>
+ * Every update is buffered under the store it was submitted for and written with that store's
+ * other updates. Each store has a log of its own, in {@code store-<id>} under the log directory,
+ * so a flush that commits some stores and fails for others truncates the committed stores' logs
+ * right away and keeps only the failed ones.
+ */
+@Service
+@Slf4j
+public class InventoryWriteBehindService {
+
+    private static final String STORE_LOG_PREFIX = "store-";
+
+    private final GroceryItemRepository groceryItemRepository;
+
+    private final CatalogSnapshotCache catalogSnapshotCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final InventoryWriteBehindProperties properties;
+
+    private final Map<StoreItem, InventoryAdjustment> pending = new ConcurrentHashMap<>();
+
+    // Held by an update across its log append and buffer merge, so the two see one order per item,
+    // and by a flush to seal the logs and drain the buffer as of the same instant. A ReentrantLock,
+    // unlike a monitor, does not pin a virtual thread that waits on the log write
+    private final ReentrantLock logLock = new ReentrantLock();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder itemsWritten = new LongAdder();
+    private final LongAdder itemsDropped = new LongAdder();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+
+    // Opened under logLock, read without it
+    private final Map<Long, InventoryWriteLog> writeLogs = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    public InventoryWriteBehindService(GroceryItemRepository groceryItemRepository, CatalogSnapshotCache catalogSnapshotCache,
+                                       TransactionTemplate transactionTemplate, InventoryWriteBehindProperties properties) {
+        this.groceryItemRepository = groceryItemRepository;
+        this.catalogSnapshotCache = catalogSnapshotCache;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        recover();
+        running = true;
+        flusher = new Thread(this::runFlusher, "inventory-write-behind");
+        flusher.start();
+        log.info("Inventory write-behind started (flush interval {}, threshold {}, log {})",
+                properties.getFlushInterval(), properties.getFlushThreshold(), properties.getLogDirectory().toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (flusher != null) {
+            // The flusher writes whatever is still buffered before it exits
+            running = false;
+            LockSupport.unpark(flusher);
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        for (InventoryWriteLog writeLog : writeLogs.values()) {
+            writeLog.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() == InventoryWriteBehindProperties.Mode.WRITE_BEHIND;
+    }
+
+    /**
+     * Logs and buffers one stock update. Once this returns the update survives a restart.
+     */
+    public void submit(InventoryAdjustment update) {
+        validate(update);
+        Long itemId = update.getItemId();
+        long storeId = StoreContext.currentStoreId();
+        StoreItem key = new StoreItem(storeId, itemId);
+        if (pending.size() >= properties.getMaxPendingItems() && !pending.containsKey(key)) {
+            rejected.increment();
+            throw new ApiException("Inventory write-behind buffer is full, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        logLock.lock();
+        try {
+            // Not inside pending.compute, whose bin monitor would be held across the file write
+            writeLog(storeId).append(storeId, update);
+            pending.merge(key, update, InventoryWriteBehindService::coalesce);
+        } catch (IOException e) {
+            log.error("Failed to log stock update for item {}", itemId, e);
+            throw new ApiException("Failed to accept inventory update", HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            logLock.unlock();
+        }
+        accepted.increment();
+        if (pending.size() >= properties.getFlushThreshold() && flusher != null) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    public InventoryWriteBehindStats getStats() {
+        long flushCount = flushes.sum();
+        return new InventoryWriteBehindStats(properties.getMode().name(), pending.size(),
+                accepted.sum(), rejected.sum(), recovered.sum(), flushCount, flushFailures.sum(),
+                itemsWritten.sum(), itemsDropped.sum(),
+                flushCount == 0 ? 0 : flushNanos.get() / 1e6 / flushCount,
+                maxFlushNanos.get() / 1e6);
+    }
+
+    public int getPendingItems() {
+        return pending.size();
+    }
+
+    /**
+     * Replays the updates left in the logs by the previous run into the buffer; they are written by the first flush.
+     */
+    void recover() throws IOException {
+        Path directory = properties.getLogDirectory();
+        Files.createDirectories(directory);
+        List<InventoryWriteLog.Entry> updates = new ArrayList<>();
+        // Segments from before the logs were kept per store are older than any store's log
+        InventoryWriteLog sharedLog = new InventoryWriteLog(directory, properties.isSyncWrites());
+        List<InventoryWriteLog.Entry> shared = sharedLog.replay();
+        updates.addAll(shared);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path storeDirectory : files.filter(Files::isDirectory).sorted().toList()) {
+                String name = storeDirectory.getFileName().toString();
+                if (name.startsWith(STORE_LOG_PREFIX)) {
+                    updates.addAll(writeLog(Long.parseLong(name.substring(STORE_LOG_PREFIX.length()))).replay());
+                }
+            }
+        }
+        // Moved into the store logs, then the shared segments go
+        for (InventoryWriteLog.Entry entry : shared) {
+            writeLog(entry.storeId()).append(entry.storeId(), entry.update());
+        }
+        sharedLog.close();
+        sharedLog.truncate(Long.MAX_VALUE);
+        for (InventoryWriteLog.Entry entry : updates) {
+            pending.merge(new StoreItem(entry.storeId(), entry.update().getItemId()), entry.update(), InventoryWriteBehindService::coalesce);
+        }
+        recovered.add(updates.size());
+        if (!updates.isEmpty()) {
+            log.info("Recovered {} buffered stock updates for {} items from the inventory log", updates.size(), pending.size());
+        }
+    }
+
+    /**
+     * Writes everything buffered so far, in one transaction per store. The log of each store that
+     * commits is truncated; if a store's write fails, its updates go back into the buffer and its
+     * log is kept until a later flush of that store succeeds.
+     *
+     * @return number of items written
+     */
+    int flush() throws IOException {
+        if (pending.isEmpty()) {
+            // Nothing was logged since the last seal either
+            return 0;
+        }
+        Map<Long, List<InventoryAdjustment>> batches = new TreeMap<>();
+        Map<Long, Long> sealed = new HashMap<>();
+        logLock.lock();
+        try {
+            pending.forEach((key, update) -> batches.computeIfAbsent(key.storeId(), storeId -> new ArrayList<>()).add(update));
+            // A store without buffered updates has logged nothing since its last seal
+            for (Long storeId : batches.keySet()) {
+                sealed.put(storeId, writeLogs.get(storeId).seal());
+            }
+            pending.clear();
+        } finally {
+            logLock.unlock();
+        }
+        long start = System.nanoTime();
+        int written = 0;
+        List<Long> committed = new ArrayList<>();
+        RuntimeException failure = null;
+        for (Map.Entry<Long, List<InventoryAdjustment>> storeBatch : batches.entrySet()) {
+            long storeId = storeBatch.getKey();
+            List<InventoryAdjustment> batch = storeBatch.getValue();
+            // Same lock order as order reservations and bulk adjustments
+            batch.sort(Comparator.comparing(InventoryAdjustment::getItemId));
+            try {
+                written += StoreContext.callAs(storeId, () -> write(batch));
+                committed.add(storeId);
+            } catch (RuntimeException e) {
+                // Older than anything buffered since the seal, so they go underneath
+                batch.forEach(update -> pending.merge(new StoreItem(storeId, update.getItemId()), update, (newer, older) -> coalesce(older, newer)));
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        // Also when another store failed, so a restart cannot apply the committed updates again
+        for (Long storeId : committed) {
+            writeLogs.get(storeId).truncate(sealed.get(storeId));
+        }
+        if (failure != null) {
+            flushFailures.increment();
+            throw failure;
+        }
+        recordFlush(System.nanoTime() - start);
+        return written;
+    }
+
+    private InventoryWriteLog writeLog(long storeId) throws IOException {
+        InventoryWriteLog writeLog = writeLogs.get(storeId);
+        if (writeLog == null) {
+            writeLog = new InventoryWriteLog(properties.getLogDirectory().resolve(STORE_LOG_PREFIX + storeId), properties.isSyncWrites());
+            writeLogs.put(storeId, writeLog);
+        }
+        return writeLog;
+    }
+
+    private int write(List<InventoryAdjustment> batch) {
+        int[] counts = transactionTemplate.execute(status -> {
+            int[] updated = groceryItemRepository.adjustStock(batch);
+            catalogSnapshotCache.invalidateAfterCommit();
+            return updated;
+        });
+        int written = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                written++;
+            } else {
+                log.warn("Dropped buffered stock update {} of store {}: unknown item or not enough stock", batch.get(i), StoreContext.currentStoreId());
+            }
+        }
+        itemsWritten.add(written);
+        itemsDropped.add(batch.size() - written);
+        return written;
+    }
+
+    private void runFlusher() {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        while (running) {
+            // After a failure the next attempt always waits out the interval
+            if (!flushQuietly() || pending.size() < properties.getFlushThreshold()) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+        }
+        flushQuietly();
+    }
+
+    private boolean flushQuietly() {
+        try {
+            flush();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Inventory write-behind flush failed, {} items stay buffered", pending.size(), e);
+            return false;
+        }
+    }
+
+    private void recordFlush(long nanos) {
+        flushes.increment();
+        flushNanos.addAndGet(nanos);
+        maxFlushNanos.accumulate(nanos);
+    }
+
+    /**
+     * Folds {@code newer} into the update already buffered for the same item.
+     */
+    static InventoryAdjustment coalesce(InventoryAdjustment older, InventoryAdjustment newer) {
+        if (older == null || newer.getMode() == InventoryAdjustment.Mode.SET) {
+            return newer;
+        }
+        if (older.getMode() == InventoryAdjustment.Mode.ADD) {
+            return new InventoryAdjustment(older.getItemId(), InventoryAdjustment.Mode.ADD, older.getQuantity() + newer.getQuantity());
+        }
+        double stock = older.getQuantity() + newer.getQuantity();
+        // A delta that would take a known stock level below zero is dropped, as it would be if written directly
+        return stock < 0 ? older : new InventoryAdjustment(older.getItemId(), InventoryAdjustment.Mode.SET, stock);
+    }
+
+    // Item ids are only unique within a store's shard
+    private record StoreItem(long storeId, Long itemId) {
+    }
+
+    private static void validate(InventoryAdjustment update) {
+        if (update.getItemId() == null || update.getMode() == null || !Double.isFinite(update.getQuantity())) {
+            throw new ApiException("itemId, mode and a finite quantity are required", HttpStatus.BAD_REQUEST);
+        }
+        if (update.getMode() == InventoryAdjustment.Mode.SET && update.getQuantity() < 0) {
+            throw new ApiException("Quantity cannot be negative", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
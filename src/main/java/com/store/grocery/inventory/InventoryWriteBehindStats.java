@@ -0,0 +1,28 @@
+package com.store.grocery.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class InventoryWriteBehindStats {
+
+    private String mode;
+    private int pendingItems;
+    private long updatesAccepted;
+    private long updatesRejected;
+    private long updatesRecovered;
+    private long flushes;
+    private long flushFailures;
+    private long itemsWritten;
+    private long itemsDropped;
+    private double averageFlushMillis;
+    private double maxFlushMillis;
+
+}
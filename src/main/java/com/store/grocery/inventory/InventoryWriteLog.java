@@ -0,0 +1,172 @@
+package com.store.grocery.inventory;
+
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.entity.InventoryAdjustment;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of buffered stock updates, one line per update with the store it is for, in
+ * numbered segments. Lines written before stores existed have no store and replay for the default one.
+ * <p>
+ * A flush seals the current segment and starts the next one; once the sealed updates are
+ * committed, every segment up to the sealed one is deleted. On startup the segments still on
+ * disk are replayed oldest first. A last line cut short by a crash is skipped.
+ * <p>
+ * Writes are serialized with a {@link ReentrantLock} rather than a monitor: they run on request
+ * threads, and a virtual thread waiting on file I/O inside {@code synchronized} pins its carrier.
+ */
+@Slf4j
+class InventoryWriteLog implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+
+    private final boolean syncWrites;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long generation;
+
+    private FileChannel segment;
+
+    InventoryWriteLog(Path directory, boolean syncWrites) throws IOException {
+        this.directory = directory;
+        this.syncWrites = syncWrites;
+        Files.createDirectories(directory);
+        this.generation = segmentGenerations().stream().mapToLong(Long::longValue).max().orElse(0) + 1;
+        this.segment = open(generation);
+    }
+
+    /**
+     * Reads the updates of every segment written before this log was opened, oldest first.
+     */
+    List<Entry> replay() throws IOException {
+        List<Entry> updates = new ArrayList<>();
+        for (long sealed : segmentGenerations()) {
+            if (sealed >= generation) {
+                continue;
+            }
+            String content = Files.readString(segmentPath(sealed), StandardCharsets.UTF_8);
+            // Only newline-terminated lines were written completely
+            String[] lines = content.substring(0, content.lastIndexOf('\n') + 1).split("\n");
+            for (String line : lines) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                Entry update = parse(line);
+                if (update == null) {
+                    log.warn("Skipping unreadable line in inventory log segment {}: {}", sealed, line);
+                } else {
+                    updates.add(update);
+                }
+            }
+        }
+        return updates;
+    }
+
+    void append(long storeId, InventoryAdjustment update) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((update.getMode() + " " + update.getItemId() + " " + update.getQuantity() + " " + storeId + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        lock.lock();
+        try {
+            while (line.hasRemaining()) {
+                segment.write(line);
+            }
+            if (syncWrites) {
+                segment.force(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the current segment and starts the next one.
+     *
+     * @return generation of the sealed segment, to be passed to {@link #truncate} once its updates are written
+     */
+    long seal() throws IOException {
+        lock.lock();
+        try {
+            segment.force(false);
+            segment.close();
+            long sealed = generation;
+            generation++;
+            segment = open(generation);
+            return sealed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes every segment up to and including {@code sealedGeneration}.
+     */
+    void truncate(long sealedGeneration) throws IOException {
+        for (long old : segmentGenerations()) {
+            if (old <= sealedGeneration) {
+                Files.deleteIfExists(segmentPath(old));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            segment.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private FileChannel open(long segmentGeneration) throws IOException {
+        return FileChannel.open(segmentPath(segmentGeneration), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long segmentGeneration) {
+        return directory.resolve(String.format("%020d%s", segmentGeneration, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> segmentGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> name.substring(0, name.length() - SEGMENT_SUFFIX.length()))
+                    .filter(name -> !name.isEmpty() && name.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Entry parse(String line) {
+        String[] fields = line.split(" ");
+        if (fields.length != 3 && fields.length != 4) {
+            return null;
+        }
+        try {
+            long storeId = fields.length == 4 ? Long.parseLong(fields[3]) : StoreContext.DEFAULT_STORE_ID;
+            return new Entry(storeId, new InventoryAdjustment(Long.parseLong(fields[1]), InventoryAdjustment.Mode.valueOf(fields[0]), Double.parseDouble(fields[2])));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    record Entry(long storeId, InventoryAdjustment update) {
+    }
+}
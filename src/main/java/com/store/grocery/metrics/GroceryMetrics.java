@@ -0,0 +1,133 @@
+package com.store.grocery.metrics;
+
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.datasource.ReplicaRoutingDataSource;
+import com.store.grocery.datasource.ShardingProperties;
+import com.store.grocery.intake.OrderIntakeService;
+import com.store.grocery.inventory.InventoryWriteBehindService;
+import com.store.grocery.sales.ItemSalesService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the catalog cache, order intake, inventory write-behind, item sales and replica
+ * routing counters, which these components already keep for their stats endpoints, as meters.
+ */
+@Component
+public class GroceryMetrics implements MeterBinder {
+
+    private final CatalogSnapshotCache catalogSnapshotCache;
+
+    private final OrderIntakeService orderIntakeService;
+
+    private final InventoryWriteBehindService inventoryWriteBehindService;
+
+    private final ItemSalesService itemSalesService;
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    private final ShardingProperties shardingProperties;
+
+    public GroceryMetrics(CatalogSnapshotCache catalogSnapshotCache, OrderIntakeService orderIntakeService, InventoryWriteBehindService inventoryWriteBehindService,
+                          ItemSalesService itemSalesService, ReplicaRoutingDataSource replicaRoutingDataSource, ShardingProperties shardingProperties) {
+        this.catalogSnapshotCache = catalogSnapshotCache;
+        this.orderIntakeService = orderIntakeService;
+        this.inventoryWriteBehindService = inventoryWriteBehindService;
+        this.itemSalesService = itemSalesService;
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+        this.shardingProperties = shardingProperties;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("grocery.catalog.cache.requests", catalogSnapshotCache, cache -> cache.getStats().getHits())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("grocery.catalog.cache.requests", catalogSnapshotCache, cache -> cache.getStats().getMisses())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("grocery.catalog.cache.rebuilds", catalogSnapshotCache, cache -> cache.getStats().getRebuilds())
+                .register(registry);
+        // A scrape runs outside any store, so each configured store's version is read by its id
+        for (Long storeId : shardingProperties.getStores().keySet()) {
+            Gauge.builder("grocery.catalog.version", catalogSnapshotCache, cache -> cache.getVersion(storeId))
+                    .tag("store", String.valueOf(storeId))
+                    .register(registry);
+        }
+
+        Gauge.builder("grocery.order.intake.queue.depth", orderIntakeService, OrderIntakeService::getQueueDepth)
+                .register(registry);
+        FunctionCounter.builder("grocery.order.intake.orders", orderIntakeService, intake -> intake.getStats().getOrdersAccepted())
+                .tag("result", "accepted")
+                .register(registry);
+        FunctionCounter.builder("grocery.order.intake.orders", orderIntakeService, intake -> intake.getStats().getOrdersRejected())
+                .tag("result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("grocery.order.intake.orders", orderIntakeService, intake -> intake.getStats().getOrdersCommitted())
+                .tag("result", "committed")
+                .register(registry);
+        FunctionCounter.builder("grocery.order.intake.orders", orderIntakeService, intake -> intake.getStats().getOrdersFailed())
+                .tag("result", "failed")
+                .register(registry);
+        Gauge.builder("grocery.order.intake.batch.size.max", orderIntakeService, intake -> intake.getStats().getMaxBatchSize())
+                .register(registry);
+        Gauge.builder("grocery.order.intake.batch.size.average", orderIntakeService, intake -> intake.getStats().getAverageBatchSize())
+                .register(registry);
+        FunctionTimer.builder("grocery.order.intake.commit", orderIntakeService,
+                        intake -> intake.getStats().getBatches(),
+                        intake -> intake.getStats().getAverageCommitMillis() * intake.getStats().getBatches(),
+                        TimeUnit.MILLISECONDS)
+                .description("Time to commit one intake batch")
+                .register(registry);
+
+        Gauge.builder("grocery.inventory.writebehind.pending", inventoryWriteBehindService, InventoryWriteBehindService::getPendingItems)
+                .register(registry);
+        FunctionCounter.builder("grocery.inventory.writebehind.updates", inventoryWriteBehindService, writeBehind -> writeBehind.getStats().getUpdatesAccepted())
+                .tag("result", "accepted")
+                .register(registry);
+        FunctionCounter.builder("grocery.inventory.writebehind.updates", inventoryWriteBehindService, writeBehind -> writeBehind.getStats().getUpdatesRejected())
+                .tag("result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("grocery.inventory.writebehind.items", inventoryWriteBehindService, writeBehind -> writeBehind.getStats().getItemsWritten())
+                .tag("result", "written")
+                .register(registry);
+        FunctionCounter.builder("grocery.inventory.writebehind.items", inventoryWriteBehindService, writeBehind -> writeBehind.getStats().getItemsDropped())
+                .tag("result", "dropped")
+                .register(registry);
+        FunctionTimer.builder("grocery.inventory.writebehind.flush", inventoryWriteBehindService,
+                        writeBehind -> writeBehind.getStats().getFlushes(),
+                        writeBehind -> writeBehind.getStats().getAverageFlushMillis() * writeBehind.getStats().getFlushes(),
+                        TimeUnit.MILLISECONDS)
+                .description("Time to write one flush of buffered stock updates")
+                .register(registry);
+
+        Gauge.builder("grocery.sales.counted.items", itemSalesService, ItemSalesService::getCountedItems)
+                .register(registry);
+        FunctionCounter.builder("grocery.sales.lines", itemSalesService, sales -> sales.getStats().getLinesRecorded())
+                .register(registry);
+        FunctionTimer.builder("grocery.sales.flush", itemSalesService,
+                        sales -> sales.getStats().getFlushes(),
+                        sales -> sales.getStats().getAverageFlushMillis() * sales.getStats().getFlushes(),
+                        TimeUnit.MILLISECONDS)
+                .description("Time to add one flush of counted sales to the item totals")
+                .register(registry);
+
+        Gauge.builder("grocery.datasource.replicas.healthy", replicaRoutingDataSource, routing -> routing.getStats().getHealthyReplicas())
+                .register(registry);
+        FunctionCounter.builder("grocery.datasource.connections", replicaRoutingDataSource, routing -> routing.getStats().getPrimaryConnections())
+                .tag("target", "primary")
+                .register(registry);
+        FunctionCounter.builder("grocery.datasource.connections", replicaRoutingDataSource, routing -> routing.getStats().getReplicaConnections())
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("grocery.datasource.replica.fallbacks", replicaRoutingDataSource, routing -> routing.getStats().getReplicaFallbacks())
+                .description("Read-only transactions sent to the primary because no replica was available")
+                .register(registry);
+    }
+}
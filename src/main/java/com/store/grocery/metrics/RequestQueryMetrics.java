@@ -0,0 +1,103 @@
+package com.store.grocery.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Iterator;
+
+/**
+ * Counts the SQL statements, entity loads and flushes Hibernate performs while serving a request
+ * and records them per endpoint, so that the endpoints holding connections longest stand out.
+ * <p>
+ * Registered with Hibernate as statement inspector and interceptor, and with Spring MVC as a
+ * handler interceptor. Work done outside a request (the order intake writer, async streaming)
+ * is not counted here; the global Hibernate statistics still include it.
+ */
+@Component
+public class RequestQueryMetrics implements AsyncHandlerInterceptor, StatementInspector, Interceptor {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestQueryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        CURRENT.set(new Counts());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The rest of the request runs on another thread
+        CURRENT.remove();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        if (counts == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        record("grocery.request.statements", "SQL statements executed per request", uri, request.getMethod(), counts.statements);
+        record("grocery.request.entity.loads", "Entities loaded per request", uri, request.getMethod(), counts.entityLoads);
+        record("grocery.request.flushes", "Session flushes per request", uri, request.getMethod(), counts.flushes);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+        return false;
+    }
+
+    @Override
+    public void preFlush(Iterator<Object> entities) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.flushes++;
+        }
+    }
+
+    private void record(String name, String description, String uri, String method, long amount) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(amount);
+    }
+
+    // Only touched by the request thread
+    private static final class Counts {
+        private long statements;
+        private long entityLoads;
+        private long flushes;
+    }
+}
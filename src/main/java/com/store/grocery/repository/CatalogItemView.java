@@ -0,0 +1,22 @@
+package com.store.grocery.repository;
+
+import com.store.grocery.entity.UnitOfMeasurement;
+
+/**
+ * Closed projection of a catalog row. Queries returning it select only these columns and
+ * never put entities into the persistence context.
+ */
+public interface CatalogItemView {
+
+    Long getId();
+
+    String getName();
+
+    double getPrice();
+
+    UnitOfMeasurement getUnitOfMeasure();
+
+    double getQuantity();
+
+    long getVersion();
+}
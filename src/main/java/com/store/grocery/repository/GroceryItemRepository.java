@@ -1,13 +1,96 @@
 package com.store.grocery.repository;
 
 import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.UnitOfMeasurement;
+import com.store.grocery.response.StoreTotals;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface GroceryItemRepository extends JpaRepository<GroceryItem, Long> {
+public interface GroceryItemRepository extends JpaRepository<GroceryItem, Long>, GroceryItemRepositoryCustom {
 
-    List<GroceryItem> findByQuantityGreaterThan(double quantity);
+    // Query cache region for findByQuantityGreaterThan, evicted whenever stock is reserved
+    String AVAILABLE_ITEMS_QUERY_REGION = "catalog-available-items";
+
+    // Read queries are read-only transactions, so outside a write transaction they may be served by a replica
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = AVAILABLE_ITEMS_QUERY_REGION)
+    })
+    List<CatalogItemView> findByQuantityGreaterThan(double quantity);
+
+    @Transactional(readOnly = true)
+    List<CatalogItemView> findAllByOrderById();
+
+    /**
+     * Keyset page: seeks past {@code afterId} on the primary key instead of skipping an offset,
+     * so every page costs the same. Null filters are ignored. Pass an unsorted
+     * {@code PageRequest.of(0, limit)} as the page; no count query is run for a List result.
+     */
+    @Transactional(readOnly = true)
+    @Query("select g.id as id, g.name as name, g.price as price, g.unitOfMeasure as unitOfMeasure, g.quantity as quantity,"
+            + " g.version as version from GroceryItem g where g.id > :afterId"
+            + " and (:minPrice is null or g.price >= :minPrice)"
+            + " and (:maxPrice is null or g.price <= :maxPrice)"
+            + " and (:unitOfMeasure is null or g.unitOfMeasure = :unitOfMeasure)"
+            + " and (:inStock = false or g.quantity > 0)"
+            + " order by g.id")
+    List<CatalogItemView> findPageAfter(@Param("afterId") long afterId,
+                                       @Param("minPrice") Double minPrice,
+                                       @Param("maxPrice") Double maxPrice,
+                                       @Param("unitOfMeasure") UnitOfMeasurement unitOfMeasure,
+                                       @Param("inStock") boolean inStock,
+                                       Pageable page);
+
+    /**
+     * Forward-only cursor over the whole catalog. Must be consumed and closed inside a transaction;
+     * on MySQL the fetch size is only honoured with {@code useCursorFetch=true} on the JDBC URL.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            // A full export would otherwise churn through the second-level cache
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Transactional(readOnly = true)
+    @Query("select g from GroceryItem g order by g.id")
+    Stream<GroceryItem> streamAllOrderById();
+
+    @Transactional(readOnly = true)
+    @Query("select g.id from GroceryItem g where g.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Item count and stock value per store, over the stores the current session can see.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.store.grocery.response.StoreTotals(g.storeId, count(g), coalesce(sum(g.price * g.quantity), 0))"
+            + " from GroceryItem g group by g.storeId")
+    List<StoreTotals> findStoreTotals();
+
+    @Transactional
+    @Modifying
+    @Query("update GroceryItem g set g.quantity = :quantity, g.version = g.version + 1 where g.id = :id")
+    int updateQuantity(@Param("id") Long id, @Param("quantity") double quantity);
+
+    /**
+     * Sets the stock level only if the item is still at {@code version}; 0 rows means it is gone or was changed since.
+     */
+    @Transactional
+    @Modifying
+    @Query("update GroceryItem g set g.quantity = :quantity, g.version = g.version + 1 where g.id = :id and g.version = :version")
+    int updateQuantityIfVersion(@Param("id") Long id, @Param("quantity") double quantity, @Param("version") long version);
 }
@@ -0,0 +1,34 @@
+package com.store.grocery.repository;
+
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.InventoryAdjustment;
+
+import java.util.List;
+
+/**
+ * Grocery item access that has to cooperate with the second-level cache, implemented in
+ * {@link GroceryItemRepositoryCustomImpl}.
+ */
+public interface GroceryItemRepositoryCustom {
+
+    /**
+     * Loads the items with the given ids, taking those already in the second-level cache from
+     * there. Ids that do not exist are left out.
+     */
+    List<GroceryItem> findAllById(Iterable<Long> ids);
+
+    /**
+     * Takes {@code quantity} off the stock only if enough is left, in a single statement.
+     *
+     * @return 1 if the stock was reserved, 0 if the item is missing or short
+     */
+    int reserveStock(Long id, double quantity);
+
+    /**
+     * Applies the adjustments as batched UPDATE statements, one batch per mode. An ADD that would
+     * take the stock below zero is not applied.
+     *
+     * @return the update count of each adjustment, in the order given: 1 if applied, 0 if not
+     */
+    int[] adjustStock(List<InventoryAdjustment> adjustments);
+}
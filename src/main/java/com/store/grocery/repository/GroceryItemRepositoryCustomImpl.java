@@ -0,0 +1,142 @@
+package com.store.grocery.repository;
+
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.InventoryAdjustment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class GroceryItemRepositoryCustomImpl implements GroceryItemRepositoryCustom {
+
+    // Plain SQL on purpose: a JPQL bulk update makes Hibernate evict the whole grocery-item region.
+    // Every statement bumps the version, like an entity update would, and is restricted to the current store
+    // as Hibernate's own statements are
+    private static final String RESERVE_STOCK_SQL = "update qp_grocery_item set quantity = quantity - ?, version = version + 1 where id = ? and store_id = ? and quantity >= ?";
+
+    private static final String SET_STOCK_SQL = "update qp_grocery_item set quantity = ?, version = version + 1 where id = ? and store_id = ?";
+
+    private static final String ADD_STOCK_SQL = "update qp_grocery_item set quantity = quantity + ?, version = version + 1 where id = ? and store_id = ? and quantity + ? >= 0";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GroceryItemRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GroceryItem> findAllById(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(GroceryItem.class)
+                // Multi-load leaves the second-level cache out unless a cache mode is given
+                .with(CacheMode.NORMAL)
+                .multiLoad(idList)
+                .stream()
+                // Loads by id are not restricted to the store, unlike queries
+                .filter(item -> item != null && StoreScopedJpaRepository.isVisible(entityManager, item))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public int reserveStock(Long id, double quantity) {
+        int updated = jdbcTemplate.update(RESERVE_STOCK_SQL, quantity, id, StoreContext.currentStoreId(), quantity);
+        if (updated > 0) {
+            evictAfterCommit(List.of(id));
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int[] adjustStock(List<InventoryAdjustment> adjustments) {
+        List<Integer> sets = new ArrayList<>();
+        List<Integer> adds = new ArrayList<>();
+        for (int i = 0; i < adjustments.size(); i++) {
+            (adjustments.get(i).getMode() == InventoryAdjustment.Mode.ADD ? adds : sets).add(i);
+        }
+        int[] counts = new int[adjustments.size()];
+        long storeId = StoreContext.currentStoreId();
+        batchUpdate(SET_STOCK_SQL, adjustments, sets, counts, (ps, adjustment) -> {
+            ps.setDouble(1, adjustment.getQuantity());
+            ps.setLong(2, adjustment.getItemId());
+            ps.setLong(3, storeId);
+        });
+        batchUpdate(ADD_STOCK_SQL, adjustments, adds, counts, (ps, adjustment) -> {
+            ps.setDouble(1, adjustment.getQuantity());
+            ps.setLong(2, adjustment.getItemId());
+            ps.setLong(3, storeId);
+            ps.setDouble(4, adjustment.getQuantity());
+        });
+        List<Long> updatedIds = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                updatedIds.add(adjustments.get(i).getItemId());
+            }
+        }
+        if (!updatedIds.isEmpty()) {
+            evictAfterCommit(updatedIds);
+        }
+        return counts;
+    }
+
+    private void batchUpdate(String sql, List<InventoryAdjustment> adjustments, List<Integer> indexes, int[] counts,
+                             ParameterizedPreparedStatementSetter<InventoryAdjustment> setter) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        List<InventoryAdjustment> batch = indexes.stream().map(adjustments::get).toList();
+        int[][] batchCounts = jdbcTemplate.batchUpdate(sql, batch, batch.size(), setter);
+        for (int i = 0; i < indexes.size(); i++) {
+            // SUCCESS_NO_INFO still means the row was updated
+            int count = batchCounts[0][i];
+            counts[indexes.get(i)] = count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+    }
+
+    /**
+     * Drops the cached copies of the items, and the cached in-stock query results, once the new
+     * stock levels are committed and visible to the next reader. Cached items are keyed by store
+     * as well as id; the query region is shared by all stores and dropped as a whole.
+     */
+    private void evictAfterCommit(Collection<Long> ids) {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(GroceryItem.class);
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        String tenantIdentifier = entityManager.unwrap(Session.class).getTenantIdentifier();
+        Runnable evict = () -> {
+            ids.forEach(id -> cacheAccess.evict(cacheAccess.generateCacheKey(id, persister, sessionFactory, tenantIdentifier)));
+            sessionFactory.getCache().evictQueryRegion(GroceryItemRepository.AVAILABLE_ITEMS_QUERY_REGION);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.store.grocery.repository;
+
+import com.store.grocery.entity.ItemSalesTotal;
+import com.store.grocery.response.ItemSales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ItemSalesTotalRepository extends JpaRepository<ItemSalesTotal, Long>, ItemSalesTotalRepositoryCustom {
+
+    /**
+     * The store's best sellers by units sold. Walks the (store_id, quantity_sold desc, item_id desc, revenue)
+     * index from the top, so only the rows of the page are read however many items have sold.
+     * Ordering by the store as well, a no-op with one store visible, lets every database see that
+     * the index order is the requested one.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.store.grocery.response.ItemSales(s.itemId, s.quantitySold, s.revenue) from ItemSalesTotal s"
+            + " order by s.storeId, s.quantitySold desc, s.itemId desc")
+    List<ItemSales> findTopByQuantitySold(Pageable page);
+
+    /**
+     * The store's best sellers by revenue, read in order from the (store_id, revenue desc, ...) index.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.store.grocery.response.ItemSales(s.itemId, s.quantitySold, s.revenue) from ItemSalesTotal s"
+            + " order by s.storeId, s.revenue desc, s.itemId desc")
+    List<ItemSales> findTopByRevenue(Pageable page);
+}
@@ -0,0 +1,17 @@
+package com.store.grocery.repository;
+
+import com.store.grocery.response.ItemSales;
+
+import java.util.List;
+
+/**
+ * Additive writes to the per-item sales totals, implemented in {@link ItemSalesTotalRepositoryCustomImpl}.
+ */
+public interface ItemSalesTotalRepositoryCustom {
+
+    /**
+     * Adds each item's units and revenue to its running total in the current store, creating
+     * the totals of items that have not sold before.
+     */
+    void addSales(List<ItemSales> sales);
+}
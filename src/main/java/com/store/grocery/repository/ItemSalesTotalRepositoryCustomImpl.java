@@ -0,0 +1,66 @@
+package com.store.grocery.repository;
+
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.response.ItemSales;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ItemSalesTotalRepositoryCustomImpl implements ItemSalesTotalRepositoryCustom {
+
+    // Increments in place, so totals flushed by several application instances add up
+    private static final String ADD_SALES_SQL = "update qp_item_sales set quantity_sold = quantity_sold + ?, revenue = revenue + ? where item_id = ? and store_id = ?";
+
+    private static final String INSERT_SALES_SQL = "insert into qp_item_sales (item_id, store_id, quantity_sold, revenue) values (?, ?, ?, ?)";
+
+    // Decimal places of the totals columns, as many as the sales counters keep
+    private static final int SCALE = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemSalesTotalRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void addSales(List<ItemSales> sales) {
+        long storeId = StoreContext.currentStoreId();
+        int[][] counts = jdbcTemplate.batchUpdate(ADD_SALES_SQL, sales, sales.size(), (ps, itemSales) -> {
+            ps.setBigDecimal(1, exact(itemSales.quantitySold()));
+            ps.setBigDecimal(2, exact(itemSales.revenue()));
+            ps.setLong(3, itemSales.itemId());
+            ps.setLong(4, storeId);
+        });
+        List<ItemSales> firstSales = new ArrayList<>();
+        for (int i = 0; i < sales.size(); i++) {
+            // SUCCESS_NO_INFO still means the row was there
+            if (counts[0][i] == 0) {
+                firstSales.add(sales.get(i));
+            }
+        }
+        if (firstSales.isEmpty()) {
+            return;
+        }
+        // Another instance inserting the same item first fails this transaction with a duplicate
+        // key; the caller keeps the sales and the retry finds the row
+        jdbcTemplate.batchUpdate(INSERT_SALES_SQL, firstSales, firstSales.size(), (ps, itemSales) -> {
+            ps.setLong(1, itemSales.itemId());
+            ps.setLong(2, storeId);
+            ps.setBigDecimal(3, exact(itemSales.quantitySold()));
+            ps.setBigDecimal(4, exact(itemSales.revenue()));
+        });
+    }
+
+    /**
+     * The amount as a decimal with the columns' scale. Amounts counted in ten-thousandths come back
+     * unchanged, and the database adds them up without rounding.
+     */
+    private static BigDecimal exact(double amount) {
+        return BigDecimal.valueOf(amount).setScale(SCALE, RoundingMode.HALF_EVEN);
+    }
+}
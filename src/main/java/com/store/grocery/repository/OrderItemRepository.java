@@ -1,9 +1,34 @@
 package com.store.grocery.repository;
 
 import com.store.grocery.entity.OrderItem;
+import com.store.grocery.response.ItemSales;
+import com.store.grocery.response.OrderLine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * Lines of all the given orders in one query, joined to their items for the name and unit.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.store.grocery.response.OrderLine(l.order.orderId, i.id, i.name, i.unitOfMeasure, l.quantity, l.totalPrice)"
+            + " from OrderItem l join l.item i where l.order.orderId in :orderIds order by l.id")
+    List<OrderLine> findLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Units sold and revenue of each of the given items over all orders, read from the
+     * (item_id, quantity, total_price) index without touching the order lines themselves.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.store.grocery.response.ItemSales(l.item.id, sum(l.quantity), sum(l.totalPrice))"
+            + " from OrderItem l where l.item.id in :itemIds group by l.item.id")
+    List<ItemSales> findItemSales(@Param("itemIds") Collection<Long> itemIds);
 }
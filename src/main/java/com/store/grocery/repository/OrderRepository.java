@@ -1,9 +1,39 @@
 package com.store.grocery.repository;
 
 import com.store.grocery.entity.Order;
+import com.store.grocery.response.OrderSummary;
+import com.store.grocery.response.StoreTotals;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    @Transactional(readOnly = true)
+    @Query("select o.orderId from Order o where o.user.id = :userId and o.idempotencyKey = :idempotencyKey")
+    Optional<Long> findOrderIdByIdempotencyKey(@Param("userId") Long userId, @Param("idempotencyKey") String idempotencyKey);
+
+    /**
+     * Keyset page of a user's orders, newest first, seeking below {@code beforeId}. Projects
+     * straight into DTOs, so neither the user nor the order lines are loaded.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.store.grocery.response.OrderSummary(o.orderId, o.totalPrice) from Order o"
+            + " where o.user.id = :userId and o.orderId < :beforeId order by o.orderId desc")
+    List<OrderSummary> findSummariesBefore(@Param("userId") Long userId, @Param("beforeId") long beforeId, Pageable page);
+
+    /**
+     * Order count and revenue per store, over the stores the current session can see.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.store.grocery.response.StoreTotals(o.storeId, count(o), coalesce(sum(o.totalPrice), 0))"
+            + " from Order o group by o.storeId")
+    List<StoreTotals> findStoreTotals();
 }
@@ -0,0 +1,43 @@
+package com.store.grocery.repository;
+
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.entity.StoreOwned;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Base class of every repository. Hibernate restricts each query on a {@link StoreOwned} entity to
+ * the session's store, but not a load by primary key, which could otherwise return the row of
+ * another store on the same shard; such a row is reported as not found instead.
+ */
+public class StoreScopedJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> {
+
+    private final EntityManager entityManager;
+
+    public StoreScopedJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        return super.findById(id).filter(entity -> isVisible(entityManager, entity));
+    }
+
+    /**
+     * Whether {@code entity} belongs to the store of the session behind {@code entityManager}.
+     */
+    static boolean isVisible(EntityManager entityManager, Object entity) {
+        if (!(entity instanceof StoreOwned owned)) {
+            return true;
+        }
+        Object tenant = entityManager.unwrap(Session.class).getTenantIdentifierValue();
+        // Cross-store reads run as the root tenant and see every store
+        return tenant == null || Objects.equals(tenant, StoreContext.ALL_STORES) || Objects.equals(tenant, owned.getStoreId());
+    }
+}
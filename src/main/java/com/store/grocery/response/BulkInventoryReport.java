@@ -0,0 +1,9 @@
+package com.store.grocery.response;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk inventory update, with one result per adjustment in request order.
+ */
+public record BulkInventoryReport(long applied, long rejected, List<InventoryAdjustmentResult> results) {
+}
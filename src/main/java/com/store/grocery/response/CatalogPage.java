@@ -0,0 +1,21 @@
+package com.store.grocery.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CatalogPage<T> implements Serializable {
+
+    private List<T> items;
+    // Pass back as afterId to fetch the next page, null when this is the last page
+    private Long nextCursor;
+
+}
@@ -0,0 +1,19 @@
+package com.store.grocery.response;
+
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.UnitOfMeasurement;
+import com.store.grocery.repository.CatalogItemView;
+
+/**
+ * Grocery item as the API returns it, so responses never serialize a managed entity.
+ */
+public record GroceryItemResponse(Long id, String name, double price, UnitOfMeasurement unitOfMeasure, double quantity, long version) {
+
+    public static GroceryItemResponse from(GroceryItem item) {
+        return new GroceryItemResponse(item.getId(), item.getName(), item.getPrice(), item.getUnitOfMeasure(), item.getQuantity(), item.getVersion());
+    }
+
+    public static GroceryItemResponse from(CatalogItemView item) {
+        return new GroceryItemResponse(item.getId(), item.getName(), item.getPrice(), item.getUnitOfMeasure(), item.getQuantity(), item.getVersion());
+    }
+}
@@ -0,0 +1,4 @@
+package com.store.grocery.response;
+
+public record ImportError(long line, String message) {
+}
@@ -0,0 +1,44 @@
+package com.store.grocery.response;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a catalog import. Only the first {@link #MAX_REPORTED_ERRORS} failures are kept
+ * with their line numbers, so a badly broken file cannot grow the report without bound;
+ * {@code failed} still counts all of them.
+ */
+@Getter
+@ToString
+public class ImportReport {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private long linesRead;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private boolean errorsTruncated;
+    private final List<ImportError> errors = new ArrayList<>();
+
+    public void lineRead() {
+        linesRead++;
+    }
+
+    public void saved(long insertedCount, long updatedCount) {
+        inserted += insertedCount;
+        updated += updatedCount;
+    }
+
+    public void failed(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ImportError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+}
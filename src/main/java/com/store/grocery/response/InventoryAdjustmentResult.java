@@ -0,0 +1,13 @@
+package com.store.grocery.response;
+
+public record InventoryAdjustmentResult(Long itemId, Status status) {
+
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        // An ADD would have taken the stock below zero
+        INSUFFICIENT_STOCK,
+        INVALID,
+        FAILED
+    }
+}
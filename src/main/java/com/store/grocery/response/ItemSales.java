@@ -0,0 +1,11 @@
+package com.store.grocery.response;
+
+import java.math.BigDecimal;
+
+public record ItemSales(Long itemId, double quantitySold, double revenue) {
+
+    // Used by the JPQL constructor expressions over the stored totals
+    public ItemSales(Long itemId, BigDecimal quantitySold, BigDecimal revenue) {
+        this(itemId, quantitySold.doubleValue(), revenue.doubleValue());
+    }
+}
@@ -0,0 +1,11 @@
+package com.store.grocery.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.store.grocery.entity.UnitOfMeasurement;
+
+/**
+ * @param orderId only used to attach the line to its order
+ */
+public record OrderLine(@JsonIgnore Long orderId, Long itemId, String itemName, UnitOfMeasurement unitOfMeasure,
+                        double quantity, double totalPrice) {
+}
@@ -0,0 +1,15 @@
+package com.store.grocery.response;
+
+import java.util.List;
+
+public record OrderSummary(Long orderId, double totalPrice, List<OrderLine> lines) {
+
+    // Used by the JPQL constructor expression, the lines come from a second query
+    public OrderSummary(Long orderId, double totalPrice) {
+        this(orderId, totalPrice, List.of());
+    }
+
+    public OrderSummary withLines(List<OrderLine> lines) {
+        return new OrderSummary(orderId, totalPrice, List.copyOf(lines));
+    }
+}
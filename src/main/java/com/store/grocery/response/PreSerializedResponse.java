@@ -0,0 +1,29 @@
+package com.store.grocery.response;
+
+/**
+ * Response body that has already been serialized to JSON, optionally compressed.
+ * Written to the client as-is, without going through Jackson.
+ */
+public final class PreSerializedResponse implements APIResponse {
+
+    private final byte[] bytes;
+
+    public PreSerializedResponse(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public int getContentLength() {
+        return bytes.length;
+    }
+
+    public byte[] toByteArray() {
+        return bytes.clone();
+    }
+
+    /**
+     * Direct access for writing to the response; callers must not modify the array.
+     */
+    public byte[] bytes() {
+        return bytes;
+    }
+}
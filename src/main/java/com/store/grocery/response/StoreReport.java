@@ -0,0 +1,7 @@
+package com.store.grocery.response;
+
+/**
+ * Catalog and order totals of one store, with the shard that holds it.
+ */
+public record StoreReport(long storeId, int shard, long items, double stockValue, long orders, double revenue) {
+}
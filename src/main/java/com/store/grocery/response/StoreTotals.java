@@ -0,0 +1,4 @@
+package com.store.grocery.response;
+
+public record StoreTotals(Long storeId, long count, double total) {
+}
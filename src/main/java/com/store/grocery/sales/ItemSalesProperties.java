@@ -0,0 +1,22 @@
+package com.store.grocery.sales;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "grocery.sales")
+@Getter
+@Setter
+public class ItemSalesProperties {
+
+    // How often the counted sales are added to qp_item_sales; also how far the top sellers may lag behind
+    private Duration flushInterval = Duration.ofSeconds(5);
+
+    // Largest top-sellers page a single request may ask for
+    private int maxTopSellers = 100;
+
+}
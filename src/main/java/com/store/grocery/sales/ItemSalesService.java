@@ -0,0 +1,235 @@
+package com.store.grocery.sales;
+
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.entity.ItemSalesTotal;
+import com.store.grocery.entity.OrderItem;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.ItemSalesTotalRepository;
+import com.store.grocery.response.ItemSales;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Per-item sales totals, kept without reading order history: every committed order adds its lines
+ * to in-memory counters, and a flusher thread adds what was counted to {@code qp_item_sales}
+ * every {@code flushInterval}. Top sellers are read from that table, so they lag behind the
+ * orders by up to one interval.
+ * <p>
+ * Each item has a pair of {@link LongAdder}s, so orders for the same item count in parallel
+ * without contending. Units and revenue are counted in ten-thousandths, rounding each order line
+ * once, and the stored totals are decimals of the same precision, so neither the counters nor
+ * the totals round again however many orders they add up.
+ * A flush takes off exactly the amounts it wrote, and only once they are committed: sales counted
+ * while it runs, and everything a failed flush read, are written by the next one. Counts not yet
+ * flushed are lost if the process dies.
+ */
+@Service
+@Slf4j
+public class ItemSalesService {
+
+    static final double SCALE = 10_000;
+
+    private final ItemSalesTotalRepository itemSalesTotalRepository;
+
+    private final ItemSalesProperties properties;
+
+    private final Map<StoreItem, SalesCounter> counters = new ConcurrentHashMap<>();
+
+    private final LongAdder linesRecorded = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder itemsWritten = new LongAdder();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    public ItemSalesService(ItemSalesTotalRepository itemSalesTotalRepository, ItemSalesProperties properties) {
+        this.itemSalesTotalRepository = itemSalesTotalRepository;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "item-sales-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        // The flusher writes whatever is still counted before it exits
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Counts the order lines for the current store once the transaction that writes them
+     * commits, or right away outside a transaction.
+     */
+    public void recordAfterCommit(Collection<OrderItem> lines) {
+        long storeId = StoreContext.currentStoreId();
+        List<ItemSales> sales = lines.stream()
+                .map(line -> new ItemSales(line.getItem().getId(), line.getQuantity(), line.getTotalPrice()))
+                .toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(storeId, sales);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(storeId, sales);
+            }
+        });
+    }
+
+    /**
+     * The current store's best sellers, as of the last flush.
+     */
+    public List<ItemSales> getTopSellers(int limit, ItemSalesTotal.Ranking ranking) {
+        if (limit < 1 || limit > properties.getMaxTopSellers()) {
+            throw new ApiException("Limit must be between 1 and " + properties.getMaxTopSellers(), HttpStatus.BAD_REQUEST);
+        }
+        PageRequest page = PageRequest.of(0, limit);
+        return ranking == ItemSalesTotal.Ranking.REVENUE
+                ? itemSalesTotalRepository.findTopByRevenue(page)
+                : itemSalesTotalRepository.findTopByQuantitySold(page);
+    }
+
+    public ItemSalesStats getStats() {
+        long flushCount = flushes.sum();
+        return new ItemSalesStats(counters.size(), linesRecorded.sum(), flushCount, flushFailures.sum(), itemsWritten.sum(),
+                flushCount == 0 ? 0 : flushNanos.get() / 1e6 / flushCount,
+                maxFlushNanos.get() / 1e6);
+    }
+
+    public int getCountedItems() {
+        return counters.size();
+    }
+
+    void record(long storeId, List<ItemSales> sales) {
+        for (ItemSales line : sales) {
+            SalesCounter counter = counters.computeIfAbsent(new StoreItem(storeId, line.itemId()), key -> new SalesCounter());
+            counter.quantity.add(Math.round(line.quantitySold() * SCALE));
+            counter.revenue.add(Math.round(line.revenue() * SCALE));
+        }
+        linesRecorded.add(sales.size());
+    }
+
+    /**
+     * Adds everything counted so far to the stored totals, in one transaction per store. A store
+     * whose write fails keeps its counts for the next flush.
+     *
+     * @return number of items written
+     */
+    int flush() {
+        Map<Long, List<Drain>> drains = new TreeMap<>();
+        counters.forEach((key, counter) -> {
+            long quantity = counter.quantity.sum();
+            long revenue = counter.revenue.sum();
+            if (quantity != 0 || revenue != 0) {
+                drains.computeIfAbsent(key.storeId(), storeId -> new ArrayList<>()).add(new Drain(key.itemId(), counter, quantity, revenue));
+            }
+        });
+        if (drains.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        int written = 0;
+        RuntimeException failure = null;
+        for (Map.Entry<Long, List<Drain>> storeDrains : drains.entrySet()) {
+            List<Drain> batch = storeDrains.getValue();
+            // Rows in ascending item id order, so concurrent flushes of several instances cannot deadlock
+            batch.sort(Comparator.comparing(Drain::itemId));
+            List<ItemSales> sales = batch.stream().map(Drain::toItemSales).toList();
+            try {
+                StoreContext.runAs(storeDrains.getKey(), () -> itemSalesTotalRepository.addSales(sales));
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+                continue;
+            }
+            batch.forEach(Drain::takeOff);
+            written += batch.size();
+        }
+        itemsWritten.add(written);
+        if (failure != null) {
+            flushFailures.increment();
+            throw failure;
+        }
+        recordFlush(System.nanoTime() - start);
+        return written;
+    }
+
+    private void runFlusher() {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Item sales flush failed, {} items keep their counts", counters.size(), e);
+            }
+        }
+    }
+
+    private void recordFlush(long nanos) {
+        flushes.increment();
+        flushNanos.addAndGet(nanos);
+        maxFlushNanos.accumulate(nanos);
+    }
+
+    // Item ids are only unique within a store's shard
+    private record StoreItem(long storeId, Long itemId) {
+    }
+
+    private static final class SalesCounter {
+
+        private final LongAdder quantity = new LongAdder();
+
+        private final LongAdder revenue = new LongAdder();
+    }
+
+    /**
+     * The amounts a flush read from one counter, taken off it once they are written.
+     */
+    private record Drain(Long itemId, SalesCounter counter, long quantity, long revenue) {
+
+        ItemSales toItemSales() {
+            return new ItemSales(itemId, quantity / SCALE, revenue / SCALE);
+        }
+
+        void takeOff() {
+            counter.quantity.add(-quantity);
+            counter.revenue.add(-revenue);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.store.grocery.sales;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class ItemSalesStats {
+
+    private int countedItems;
+    private long linesRecorded;
+    private long flushes;
+    private long flushFailures;
+    private long itemsWritten;
+    private double averageFlushMillis;
+    private double maxFlushMillis;
+
+}
@@ -1,21 +1,71 @@
 package com.store.grocery.service;
 
+import com.store.grocery.cache.CatalogCacheStats;
+import com.store.grocery.cache.CatalogPayload;
+import com.store.grocery.cache.SecondLevelCacheStats;
+import com.store.grocery.datasource.DataSourceRoutingStats;
+import com.store.grocery.entity.CatalogFilter;
 import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.ImportFormat;
+import com.store.grocery.entity.InventoryAdjustment;
+import com.store.grocery.entity.ItemSalesTotal;
+import com.store.grocery.intake.OrderIntakeStats;
+import com.store.grocery.inventory.InventoryWriteBehindStats;
+import com.store.grocery.response.BulkInventoryReport;
+import com.store.grocery.response.CatalogPage;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.ImportReport;
+import com.store.grocery.response.ItemSales;
+import com.store.grocery.response.StoreReport;
+import com.store.grocery.sales.ItemSalesStats;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 @Service
 public interface AdminService {
 
-    List<GroceryItem> addGroceryItem(List<GroceryItem> groceryItems);
+    List<GroceryItemResponse> addGroceryItem(List<GroceryItem> groceryItems);
 
-    List<GroceryItem> fetchAllGroceryItems();
+    List<GroceryItemResponse> fetchAllGroceryItems();
+
+    CatalogPayload fetchAllGroceryItemsPayload();
+
+    String getCatalogVersionTag();
+
+    CatalogPage<GroceryItemResponse> fetchGroceryItemsPage(CatalogFilter filter);
+
+    void exportGroceryItems(OutputStream outputStream) throws IOException;
+
+    ImportReport importGroceryItems(InputStream inputStream, ImportFormat format);
 
     void removeGroceryItem(Long itemId);
 
-    GroceryItem updateGroceryItem(Long itemId, GroceryItem updatedItem);
+    GroceryItemResponse updateGroceryItem(Long itemId, GroceryItem updatedItem, Long expectedVersion);
+
+    void manageInventory(Long id, double quantity, Long expectedVersion);
+
+    void addInventory(Long id, double delta);
+
+    BulkInventoryReport adjustInventory(List<InventoryAdjustment> adjustments);
+
+    CatalogCacheStats fetchCatalogCacheStats();
+
+    OrderIntakeStats fetchOrderIntakeStats();
+
+    InventoryWriteBehindStats fetchInventoryWriteBehindStats();
+
+    List<SecondLevelCacheStats> fetchSecondLevelCacheStats();
+
+    DataSourceRoutingStats fetchDataSourceRoutingStats();
+
+    List<StoreReport> fetchStoreReports();
+
+    List<ItemSales> fetchTopSellers(int limit, ItemSalesTotal.Ranking ranking);
 
-    void manageInventory(Long id, double quantity);
+    ItemSalesStats fetchItemSalesStats();
 
 }
@@ -1,8 +1,40 @@
 package com.store.grocery.service;
 
+import com.store.grocery.cache.CatalogCacheStats;
+import com.store.grocery.cache.CatalogPayload;
+import com.store.grocery.cache.CatalogPayloadCache;
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.cache.CatalogView;
+import com.store.grocery.cache.SecondLevelCacheMonitor;
+import com.store.grocery.cache.SecondLevelCacheStats;
+import com.store.grocery.datasource.DataSourceRouting;
+import com.store.grocery.datasource.DataSourceRoutingStats;
+import com.store.grocery.datasource.ReplicaRoutingDataSource;
+import com.store.grocery.entity.CatalogFilter;
 import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.ImportFormat;
+import com.store.grocery.entity.InventoryAdjustment;
+import com.store.grocery.entity.ItemSalesTotal;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.intake.OrderIntakeService;
+import com.store.grocery.intake.OrderIntakeStats;
+import com.store.grocery.inventory.InventoryWriteBehindService;
+import com.store.grocery.inventory.InventoryWriteBehindStats;
+import com.store.grocery.response.BulkInventoryReport;
+import com.store.grocery.response.CatalogPage;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.ImportReport;
+import com.store.grocery.response.ItemSales;
+import com.store.grocery.response.StoreReport;
+import com.store.grocery.response.SuccessResponse;
+import com.store.grocery.sales.ItemSalesService;
+import com.store.grocery.sales.ItemSalesStats;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 @Service
@@ -10,33 +42,164 @@ public class AdminServiceImpl implements AdminService{
 
     private final GroceryItemService groceryItemService;
 
-    public AdminServiceImpl(GroceryItemService groceryItemService) {
+    private final CatalogSnapshotCache catalogSnapshotCache;
+
+    private final CatalogExportService catalogExportService;
+
+    private final CatalogPayloadCache catalogPayloadCache;
+
+    private final CatalogImportService catalogImportService;
+
+    private final InventoryAdjustmentService inventoryAdjustmentService;
+
+    private final OrderIntakeService orderIntakeService;
+
+    private final InventoryWriteBehindService inventoryWriteBehindService;
+
+    private final SecondLevelCacheMonitor secondLevelCacheMonitor;
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    private final StoreReportService storeReportService;
+
+    private final ItemSalesService itemSalesService;
+
+    public AdminServiceImpl(GroceryItemService groceryItemService, CatalogSnapshotCache catalogSnapshotCache, CatalogExportService catalogExportService, CatalogPayloadCache catalogPayloadCache, CatalogImportService catalogImportService, InventoryAdjustmentService inventoryAdjustmentService, OrderIntakeService orderIntakeService, InventoryWriteBehindService inventoryWriteBehindService, SecondLevelCacheMonitor secondLevelCacheMonitor, ReplicaRoutingDataSource replicaRoutingDataSource, StoreReportService storeReportService, ItemSalesService itemSalesService) {
         this.groceryItemService = groceryItemService;
+        this.catalogSnapshotCache = catalogSnapshotCache;
+        this.catalogExportService = catalogExportService;
+        this.catalogPayloadCache = catalogPayloadCache;
+        this.catalogImportService = catalogImportService;
+        this.inventoryAdjustmentService = inventoryAdjustmentService;
+        this.orderIntakeService = orderIntakeService;
+        this.inventoryWriteBehindService = inventoryWriteBehindService;
+        this.secondLevelCacheMonitor = secondLevelCacheMonitor;
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+        this.storeReportService = storeReportService;
+        this.itemSalesService = itemSalesService;
     }
 
     @Override
-    public List<GroceryItem> addGroceryItem(List<GroceryItem> groceryItems) {
-        return groceryItemService.addGroceryItem(groceryItems);
+    public List<GroceryItemResponse> addGroceryItem(List<GroceryItem> groceryItems) {
+        return groceryItemService.addGroceryItem(groceryItems).stream()
+                .map(GroceryItemResponse::from)
+                .toList();
     }
 
     @Override
-    public List<GroceryItem> fetchAllGroceryItems() {
+    public List<GroceryItemResponse> fetchAllGroceryItems() {
         return groceryItemService.fetchAllGroceryItems();
     }
 
+    @Override
+    public CatalogPayload fetchAllGroceryItemsPayload() {
+        // Read before loading from the primary, so the payload is never labelled with a version newer than its data
+        long version = catalogSnapshotCache.getVersion();
+        try {
+            return catalogPayloadCache.get(CatalogView.ALL_ITEMS, version, catalogSnapshotCache.tagFor(version),
+                    () -> new SuccessResponse<>(true, "Successfully fetched grocery items", DataSourceRouting.onPrimary(groceryItemService::fetchAllGroceryItems)));
+        } catch (ApiException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ApiException("Failed to retrieve grocery items", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public String getCatalogVersionTag() {
+        return catalogSnapshotCache.getVersionTag();
+    }
+
+    @Override
+    public CatalogPage<GroceryItemResponse> fetchGroceryItemsPage(CatalogFilter filter) {
+        return groceryItemService.fetchGroceryItemsPage(filter);
+    }
+
+    @Override
+    public void exportGroceryItems(OutputStream outputStream) throws IOException {
+        catalogExportService.exportGroceryItems(outputStream);
+    }
+
+    @Override
+    public ImportReport importGroceryItems(InputStream inputStream, ImportFormat format) {
+        return catalogImportService.importGroceryItems(inputStream, format);
+    }
+
     @Override
     public void removeGroceryItem(Long itemId) {
         groceryItemService.removeGroceryItem(itemId);
     }
 
     @Override
-    public GroceryItem updateGroceryItem(Long itemId, GroceryItem updatedItem) {
-        return groceryItemService.updateGroceryItem(itemId, updatedItem);
+    public GroceryItemResponse updateGroceryItem(Long itemId, GroceryItem updatedItem, Long expectedVersion) {
+        return GroceryItemResponse.from(groceryItemService.updateGroceryItem(itemId, updatedItem, expectedVersion));
+    }
+
+    @Override
+    public void manageInventory(Long itemId, double quantity, Long expectedVersion) {
+        groceryItemService.manageInventory(itemId, quantity, expectedVersion);
+
+    }
+
+    @Override
+    public void addInventory(Long itemId, double delta) {
+        groceryItemService.addInventory(itemId, delta);
+    }
+
+    @Override
+    public BulkInventoryReport adjustInventory(List<InventoryAdjustment> adjustments) {
+        return inventoryAdjustmentService.adjustInventory(adjustments);
+    }
+
+    @Override
+    public CatalogCacheStats fetchCatalogCacheStats() {
+        return catalogSnapshotCache.getStats();
+    }
+
+    @Override
+    public OrderIntakeStats fetchOrderIntakeStats() {
+        return orderIntakeService.getStats();
     }
 
     @Override
-    public void manageInventory(Long itemId, double quantity) {
-        groceryItemService.manageInventory(itemId, quantity);
+    public InventoryWriteBehindStats fetchInventoryWriteBehindStats() {
+        return inventoryWriteBehindService.getStats();
+    }
+
+    @Override
+    public List<SecondLevelCacheStats> fetchSecondLevelCacheStats() {
+        return secondLevelCacheMonitor.getStats();
+    }
+
+    @Override
+    public DataSourceRoutingStats fetchDataSourceRoutingStats() {
+        return replicaRoutingDataSource.getStats();
+    }
 
+    @Override
+    public List<StoreReport> fetchStoreReports() {
+        try {
+            return storeReportService.fetchStoreReports();
+        } catch (ApiException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ApiException("Failed to fetch store reports", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public List<ItemSales> fetchTopSellers(int limit, ItemSalesTotal.Ranking ranking) {
+        try {
+            return itemSalesService.getTopSellers(limit, ranking);
+        } catch (ApiException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ApiException("Failed to fetch top sellers", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public ItemSalesStats fetchItemSalesStats() {
+        return itemSalesService.getStats();
     }
 }
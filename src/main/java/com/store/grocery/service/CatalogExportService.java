@@ -0,0 +1,63 @@
+package com.store.grocery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.response.GroceryItemResponse;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the full catalog as newline-delimited JSON while reading it, so memory use
+ * does not grow with the size of the catalog.
+ */
+@Service
+@Slf4j
+public class CatalogExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final GroceryItemRepository groceryItemRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectWriter itemWriter;
+
+    public CatalogExportService(GroceryItemRepository groceryItemRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.groceryItemRepository = groceryItemRepository;
+        this.entityManager = entityManager;
+        this.itemWriter = objectMapper.writerFor(GroceryItemResponse.class);
+    }
+
+    /**
+     * @return number of items written
+     */
+    @Transactional(readOnly = true)
+    public long exportGroceryItems(OutputStream outputStream) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+        long written = 0;
+        try (Stream<GroceryItem> items = groceryItemRepository.streamAllOrderById()) {
+            Iterator<GroceryItem> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                GroceryItem item = iterator.next();
+                out.write(itemWriter.writeValueAsBytes(GroceryItemResponse.from(item)));
+                out.write('\n');
+                // Keep the persistence context from accumulating every row read so far
+                entityManager.detach(item);
+                written++;
+            }
+        }
+        out.flush();
+        log.info("Exported {} grocery items", written);
+        return written;
+    }
+}
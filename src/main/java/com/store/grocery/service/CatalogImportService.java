@@ -0,0 +1,211 @@
+package com.store.grocery.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.GroceryItemImportRow;
+import com.store.grocery.entity.ImportFormat;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.response.ImportError;
+import com.store.grocery.response.ImportReport;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a supplier catalog from CSV or NDJSON while reading it. Lines are parsed one at a
+ * time and written in chunks of {@code grocery.catalog.import.chunk-size}, each chunk in its
+ * own transaction with the persistence context cleared afterwards, so memory use and
+ * transaction length depend on the chunk size rather than on the size of the file.
+ * <p>
+ * Both formats are read line by line, so a quoted CSV field cannot span lines. A line that
+ * cannot be parsed or validated is reported with its line number and skipped.
+ * A chunk that fails to commit reports every line in it; earlier chunks stay committed.
+ */
+@Service
+@Slf4j
+public class CatalogImportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Set<String> CSV_COLUMNS = Set.of("id", "name", "price", "unitOfMeasure", "quantity");
+
+    private static final Set<String> REQUIRED_CSV_COLUMNS = Set.of("name", "price", "unitOfMeasure", "quantity");
+
+    private final GroceryItemRepository groceryItemRepository;
+
+    private final EntityManager entityManager;
+
+    private final CatalogSnapshotCache catalogSnapshotCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectReader jsonRowReader;
+
+    private final CsvMapper csvMapper = CsvMapper.builder().enable(CsvParser.Feature.EMPTY_STRING_AS_NULL).build();
+
+    private final ConflictRetry conflictRetry;
+
+    private final int chunkSize;
+
+    public CatalogImportService(GroceryItemRepository groceryItemRepository, EntityManager entityManager, CatalogSnapshotCache catalogSnapshotCache,
+                                TransactionTemplate transactionTemplate, ObjectMapper objectMapper, ConflictRetry conflictRetry,
+                                @Value("${grocery.catalog.import.chunk-size:500}") int chunkSize) {
+        this.groceryItemRepository = groceryItemRepository;
+        this.entityManager = entityManager;
+        this.catalogSnapshotCache = catalogSnapshotCache;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonRowReader = objectMapper.readerFor(GroceryItemImportRow.class);
+        this.conflictRetry = conflictRetry;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReport importGroceryItems(InputStream inputStream, ImportFormat format) {
+        ImportReport report = new ImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            long lineNumber = 0;
+            ObjectReader rowReader = jsonRowReader;
+            if (format == ImportFormat.CSV) {
+                rowReader = csvRowReader(reader.readLine());
+                lineNumber++;
+            }
+            List<ImportLine> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.lineRead();
+                try {
+                    GroceryItemImportRow row = rowReader.readValue(line);
+                    validate(row);
+                    chunk.add(new ImportLine(lineNumber, row));
+                } catch (JsonProcessingException e) {
+                    report.failed(lineNumber, e.getOriginalMessage());
+                } catch (ApiException e) {
+                    report.failed(lineNumber, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, report);
+            }
+        } catch (IOException e) {
+            throw new ApiException("Failed to read the import", HttpStatus.BAD_REQUEST);
+        }
+        log.info("Imported grocery items: {} read, {} inserted, {} updated, {} failed",
+                report.getLinesRead(), report.getInserted(), report.getUpdated(), report.getFailed());
+        return report;
+    }
+
+    private ObjectReader csvRowReader(String headerLine) throws IOException {
+        if (headerLine == null || headerLine.isBlank()) {
+            throw new ApiException("CSV import needs a header line", HttpStatus.BAD_REQUEST);
+        }
+        String[] columns = csvMapper.readerFor(String[].class).readValue(headerLine);
+        List<String> header = Arrays.stream(columns).map(String::trim).toList();
+        if (!CSV_COLUMNS.containsAll(header) || !header.containsAll(REQUIRED_CSV_COLUMNS)) {
+            throw new ApiException("CSV header must name the columns name, price, unitOfMeasure, quantity and optionally id", HttpStatus.BAD_REQUEST);
+        }
+        CsvSchema.Builder schema = CsvSchema.builder();
+        header.forEach(schema::addColumn);
+        return csvMapper.readerFor(GroceryItemImportRow.class).with(schema.build());
+    }
+
+    private static void validate(GroceryItemImportRow row) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            throw new ApiException("name is required", HttpStatus.BAD_REQUEST);
+        }
+        if (row.getPrice() == null || row.getPrice() < 0) {
+            throw new ApiException("price must be zero or more", HttpStatus.BAD_REQUEST);
+        }
+        if (row.getUnitOfMeasure() == null) {
+            throw new ApiException("unitOfMeasure is required", HttpStatus.BAD_REQUEST);
+        }
+        if (row.getQuantity() == null || row.getQuantity() < 0) {
+            throw new ApiException("quantity must be zero or more", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private void writeChunk(List<ImportLine> chunk, ImportReport report) {
+        ChunkResult result;
+        try {
+            // A chunk that raced another write to one of its items is re-read and written again
+            result = conflictRetry.run(() -> transactionTemplate.execute(status -> upsert(chunk)));
+        } catch (RuntimeException e) {
+            log.warn("Failed to import lines {} to {}", chunk.get(0).number(), chunk.get(chunk.size() - 1).number(), e);
+            chunk.forEach(line -> report.failed(line.number(), "Failed to save grocery item"));
+            return;
+        }
+        report.saved(result.inserted(), result.updated());
+        result.errors().forEach(error -> report.failed(error.line(), error.message()));
+    }
+
+    private ChunkResult upsert(List<ImportLine> chunk) {
+        List<Long> ids = chunk.stream().map(line -> line.row().getId()).filter(Objects::nonNull).toList();
+        // One query for every item the chunk updates
+        Map<Long, GroceryItem> existingItems = ids.isEmpty() ? Map.of() : groceryItemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(GroceryItem::getId, Function.identity()));
+        int inserted = 0;
+        int updated = 0;
+        List<ImportError> errors = new ArrayList<>();
+        for (ImportLine line : chunk) {
+            GroceryItemImportRow row = line.row();
+            if (row.getId() == null) {
+                entityManager.persist(new GroceryItem(null, row.getName(), row.getPrice(), row.getUnitOfMeasure(), row.getQuantity()));
+                inserted++;
+                continue;
+            }
+            GroceryItem item = existingItems.get(row.getId());
+            if (item == null) {
+                errors.add(new ImportError(line.number(), "Grocery item not found"));
+                continue;
+            }
+            item.setName(row.getName());
+            item.setPrice(row.getPrice());
+            item.setUnitOfMeasure(row.getUnitOfMeasure());
+            item.setQuantity(row.getQuantity());
+            updated++;
+        }
+        // Inserts and updates go out as JDBC batches; clearing keeps the next chunk from
+        // dirty-checking this one
+        entityManager.flush();
+        entityManager.clear();
+        catalogSnapshotCache.invalidateAfterCommit();
+        return new ChunkResult(inserted, updated, errors);
+    }
+
+    private record ImportLine(long number, GroceryItemImportRow row) {
+    }
+
+    private record ChunkResult(int inserted, int updated, List<ImportError> errors) {
+    }
+}
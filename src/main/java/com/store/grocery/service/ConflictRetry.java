@@ -0,0 +1,69 @@
+package com.store.grocery.service;
+
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a read-modify-write that lost an optimistic version check, up to {@code maxAttempts}
+ * times. Attempts are spaced by a random pause of up to {@code initialBackoff * 2^(attempt - 1)},
+ * capped at {@code maxBackoff}, so writers that collided do not collide again in lockstep.
+ * <p>
+ * The action must re-read whatever it modifies on every attempt.
+ */
+@Component
+@Slf4j
+public class ConflictRetry {
+
+    private final int maxAttempts;
+
+    private final long initialBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    public ConflictRetry(@Value("${grocery.catalog.retry.max-attempts:5}") int maxAttempts,
+                         @Value("${grocery.catalog.retry.initial-backoff:10ms}") Duration initialBackoff,
+                         @Value("${grocery.catalog.retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    /**
+     * Runs {@code action}, retrying it on an optimistic lock failure, whether translated by a
+     * repository or thrown by a flush; the last failure is rethrown once the attempts are used up.
+     */
+    public <T> T run(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Optimistic lock conflict on attempt {} of {}, retrying", attempt, maxAttempts);
+                pause(attempt);
+            }
+        }
+    }
+
+    private void pause(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off from an optimistic lock conflict", e);
+        }
+    }
+}
@@ -1,30 +1,53 @@
 package com.store.grocery.service;
 
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.entity.CatalogFilter;
 import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.InventoryAdjustment;
 import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.CatalogItemView;
 import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.response.CatalogPage;
+import com.store.grocery.response.GroceryItemResponse;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
+@Timed(value = "grocery.service", histogram = true)
 @Service
 @Slf4j
 public class GroceryItemService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    static final int MAX_PAGE_SIZE = 500;
+
     private final GroceryItemRepository groceryItemRepository;
 
-    public GroceryItemService(GroceryItemRepository groceryItemRepository) {
+    private final CatalogSnapshotCache catalogSnapshotCache;
+
+    private final ConflictRetry conflictRetry;
+
+    public GroceryItemService(GroceryItemRepository groceryItemRepository, CatalogSnapshotCache catalogSnapshotCache, ConflictRetry conflictRetry) {
         this.groceryItemRepository = groceryItemRepository;
+        this.catalogSnapshotCache = catalogSnapshotCache;
+        this.conflictRetry = conflictRetry;
     }
 
     public List<GroceryItem> addGroceryItem(List<GroceryItem> groceryItem) {
         try {
             log.info("Adding new new grocery item..!");
-            return groceryItemRepository.saveAll(groceryItem);
+            List<GroceryItem> savedItems = groceryItemRepository.saveAll(groceryItem);
+            catalogSnapshotCache.invalidate();
+            return savedItems;
 
         } catch (Exception e) {
             throw new ApiException("Failed to add grocery item", HttpStatus.INTERNAL_SERVER_ERROR);
@@ -32,10 +55,37 @@ public class GroceryItemService {
     }
 
 
-    public List<GroceryItem> fetchAllGroceryItems() {
+    public List<GroceryItemResponse> fetchAllGroceryItems() {
+        try {
+            // Projected rows, so listing the catalog does not load every item as an entity
+            return groceryItemRepository.findAllByOrderById().stream()
+                    .map(GroceryItemResponse::from)
+                    .toList();
+        } catch (Exception e) {
+            throw new ApiException("Failed to retrieve grocery items", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+
+    public CatalogPage<GroceryItemResponse> fetchGroceryItemsPage(CatalogFilter filter) {
+        int size = filter.getSize() != null ? filter.getSize() : DEFAULT_PAGE_SIZE;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ApiException("Page size must be between 1 and " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null && filter.getMinPrice() > filter.getMaxPrice()) {
+            throw new ApiException("minPrice cannot be greater than maxPrice", HttpStatus.BAD_REQUEST);
+        }
         try {
-            // Implement logic to view all grocery items
-            return groceryItemRepository.findAll();
+            long afterId = filter.getAfterId() != null ? filter.getAfterId() : 0L;
+            // One extra row tells us whether there is a next page without a count query
+            List<CatalogItemView> items = groceryItemRepository.findPageAfter(afterId, filter.getMinPrice(), filter.getMaxPrice(),
+                    filter.getUnitOfMeasure(), filter.isInStock(), PageRequest.of(0, size + 1));
+            Long nextCursor = null;
+            if (items.size() > size) {
+                items = items.subList(0, size);
+                nextCursor = items.get(size - 1).getId();
+            }
+            return new CatalogPage<>(items.stream().map(GroceryItemResponse::from).toList(), nextCursor);
         } catch (Exception e) {
             throw new ApiException("Failed to retrieve grocery items", HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -49,6 +99,7 @@ public class GroceryItemService {
             GroceryItem existingItem = groceryItemRepository.findById(itemId)
                     .orElseThrow(() -> new EntityNotFoundException("Grocery item not found"));
             groceryItemRepository.deleteAllById(Collections.singleton(existingItem.getId()));
+            catalogSnapshotCache.invalidate();
         } catch (EntityNotFoundException e) {
             throw new ApiException("Grocery item not found", HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -57,33 +108,96 @@ public class GroceryItemService {
     }
 
     public GroceryItem updateGroceryItem(Long itemId, GroceryItem updatedItem) {
-        try {
-            // Implement logic to update a grocery item
-            GroceryItem existingItem = groceryItemRepository.findById(itemId)
-                    .orElseThrow(() -> new EntityNotFoundException("Grocery item not found"));
-
-            existingItem.setName(updatedItem.getName());
-            existingItem.setPrice(updatedItem.getPrice());
-            existingItem.setUnitOfMeasure(updatedItem.getUnitOfMeasure());
-            existingItem.setQuantity(updatedItem.getQuantity());
+        return updateGroceryItem(itemId, updatedItem, null);
+    }
 
-            return groceryItemRepository.save(existingItem);
+    /**
+     * Replaces the item's fields. With an {@code expectedVersion} (from If-Match) the update fails
+     * with 412 if the item has changed since that version; without one, an update that races
+     * another write is retried on a fresh copy.
+     */
+    public GroceryItem updateGroceryItem(Long itemId, GroceryItem updatedItem, Long expectedVersion) {
+        try {
+            Supplier<GroceryItem> update = () -> {
+                GroceryItem existingItem = groceryItemRepository.findById(itemId)
+                        .orElseThrow(() -> new EntityNotFoundException("Grocery item not found"));
+                if (expectedVersion != null && existingItem.getVersion() != expectedVersion) {
+                    throw new ApiException("Grocery item has been modified since version " + expectedVersion, HttpStatus.PRECONDITION_FAILED);
+                }
+
+                existingItem.setName(updatedItem.getName());
+                existingItem.setPrice(updatedItem.getPrice());
+                existingItem.setUnitOfMeasure(updatedItem.getUnitOfMeasure());
+                existingItem.setQuantity(updatedItem.getQuantity());
+
+                // The UPDATE is guarded by the version read above
+                return groceryItemRepository.save(existingItem);
+            };
+            GroceryItem savedItem = expectedVersion != null ? update.get() : conflictRetry.run(update);
+            catalogSnapshotCache.invalidate();
+            return savedItem;
+        } catch (ApiException e) {
+            throw e;
         } catch (EntityNotFoundException e) {
             throw new ApiException("Grocery item not found", HttpStatus.NOT_FOUND);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion != null) {
+                throw new ApiException("Grocery item has been modified since version " + expectedVersion, HttpStatus.PRECONDITION_FAILED);
+            }
+            throw new ApiException("Grocery item is being modified concurrently, retry later", HttpStatus.CONFLICT);
         } catch (Exception e) {
             throw new ApiException("Failed to update grocery item", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     public void manageInventory(Long itemId, double quantity) {
-        try {
-            // Implement logic to manage inventory
-            GroceryItem groceryItem = groceryItemRepository.findById(itemId)
-                    .orElseThrow(() -> new EntityNotFoundException("Grocery item not found"));
+        manageInventory(itemId, quantity, null);
+    }
 
-            groceryItem.setQuantity(quantity);
+    /**
+     * Sets the stock level, only if the item is still at {@code expectedVersion} when one is given.
+     */
+    public void manageInventory(Long itemId, double quantity, Long expectedVersion) {
+        if (quantity < 0) {
+            throw new ApiException("Quantity cannot be negative", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            // Single UPDATE rather than find-then-save, so a concurrent order's decrement is not overwritten
+            int updated = expectedVersion == null
+                    ? groceryItemRepository.updateQuantity(itemId, quantity)
+                    : groceryItemRepository.updateQuantityIfVersion(itemId, quantity, expectedVersion);
+            if (updated == 0) {
+                if (expectedVersion != null && groceryItemRepository.existsById(itemId)) {
+                    throw new ApiException("Grocery item has been modified since version " + expectedVersion, HttpStatus.PRECONDITION_FAILED);
+                }
+                throw new EntityNotFoundException("Grocery item not found");
+            }
+            catalogSnapshotCache.invalidate();
+        } catch (ApiException e) {
+            throw e;
+        } catch (EntityNotFoundException e) {
+            throw new ApiException("Grocery item not found", HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            throw new ApiException("Failed to manage inventory", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-            groceryItemRepository.save(groceryItem);
+    public void addInventory(Long itemId, double delta) {
+        if (!Double.isFinite(delta)) {
+            throw new ApiException("Quantity must be a number", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            // Conditional UPDATE: the stock moves by delta only if it stays at or above zero
+            int[] counts = groceryItemRepository.adjustStock(List.of(new InventoryAdjustment(itemId, InventoryAdjustment.Mode.ADD, delta)));
+            if (counts[0] == 0) {
+                if (!groceryItemRepository.existsById(itemId)) {
+                    throw new EntityNotFoundException("Grocery item not found");
+                }
+                throw new ApiException("Insufficient stock for item " + itemId, HttpStatus.CONFLICT);
+            }
+            catalogSnapshotCache.invalidate();
+        } catch (ApiException e) {
+            throw e;
         } catch (EntityNotFoundException e) {
             throw new ApiException("Grocery item not found", HttpStatus.NOT_FOUND);
         } catch (Exception e) {
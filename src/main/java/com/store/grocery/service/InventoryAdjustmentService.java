@@ -0,0 +1,120 @@
+package com.store.grocery.service;
+
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.entity.InventoryAdjustment;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.response.BulkInventoryReport;
+import com.store.grocery.response.InventoryAdjustmentResult;
+import com.store.grocery.response.InventoryAdjustmentResult.Status;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies stock adjustments for many items at once, as batched UPDATE statements in chunks of
+ * {@code grocery.inventory.bulk.chunk-size}, each chunk in its own transaction. A failed chunk
+ * marks its own adjustments FAILED and leaves the other chunks applied.
+ */
+@Timed(value = "grocery.service", histogram = true)
+@Service
+@Slf4j
+public class InventoryAdjustmentService {
+
+    private final GroceryItemRepository groceryItemRepository;
+
+    private final CatalogSnapshotCache catalogSnapshotCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final int maxAdjustments;
+
+    public InventoryAdjustmentService(GroceryItemRepository groceryItemRepository, CatalogSnapshotCache catalogSnapshotCache, TransactionTemplate transactionTemplate,
+                                      @Value("${grocery.inventory.bulk.chunk-size:1000}") int chunkSize,
+                                      @Value("${grocery.inventory.bulk.max-adjustments:100000}") int maxAdjustments) {
+        this.groceryItemRepository = groceryItemRepository;
+        this.catalogSnapshotCache = catalogSnapshotCache;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxAdjustments = maxAdjustments;
+    }
+
+    public BulkInventoryReport adjustInventory(List<InventoryAdjustment> adjustments) {
+        if (adjustments == null || adjustments.isEmpty()) {
+            throw new ApiException("No inventory adjustments given", HttpStatus.BAD_REQUEST);
+        }
+        if (adjustments.size() > maxAdjustments) {
+            throw new ApiException("At most " + maxAdjustments + " inventory adjustments per request", HttpStatus.BAD_REQUEST);
+        }
+        Status[] statuses = new Status[adjustments.size()];
+        List<Integer> valid = new ArrayList<>(adjustments.size());
+        for (int i = 0; i < adjustments.size(); i++) {
+            if (isValid(adjustments.get(i))) {
+                valid.add(i);
+            } else {
+                statuses[i] = Status.INVALID;
+            }
+        }
+        // Rows are updated in ascending id order, like order reservations, so that a bulk update
+        // and concurrent orders always lock items in the same order and cannot deadlock
+        valid.sort(Comparator.comparing(i -> adjustments.get(i).getItemId()));
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            applyChunk(adjustments, valid.subList(from, Math.min(from + chunkSize, valid.size())), statuses);
+        }
+
+        List<InventoryAdjustmentResult> results = new ArrayList<>(adjustments.size());
+        long applied = 0;
+        for (int i = 0; i < adjustments.size(); i++) {
+            results.add(new InventoryAdjustmentResult(adjustments.get(i).getItemId(), statuses[i]));
+            if (statuses[i] == Status.APPLIED) {
+                applied++;
+            }
+        }
+        return new BulkInventoryReport(applied, adjustments.size() - applied, results);
+    }
+
+    private static boolean isValid(InventoryAdjustment adjustment) {
+        if (adjustment == null || adjustment.getItemId() == null || adjustment.getMode() == null
+                || !Double.isFinite(adjustment.getQuantity())) {
+            return false;
+        }
+        return adjustment.getMode() != InventoryAdjustment.Mode.SET || adjustment.getQuantity() >= 0;
+    }
+
+    private void applyChunk(List<InventoryAdjustment> adjustments, List<Integer> chunk, Status[] statuses) {
+        List<InventoryAdjustment> batch = chunk.stream().map(adjustments::get).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] counts = groceryItemRepository.adjustStock(batch);
+                Set<Long> missedIds = new HashSet<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        missedIds.add(batch.get(i).getItemId());
+                    }
+                }
+                // One lookup tells a missing item apart from an ADD that would have gone negative
+                Set<Long> existingIds = missedIds.isEmpty() ? Set.of() : new HashSet<>(groceryItemRepository.findExistingIds(missedIds));
+                for (int i = 0; i < counts.length; i++) {
+                    Long itemId = batch.get(i).getItemId();
+                    statuses[chunk.get(i)] = counts[i] > 0 ? Status.APPLIED
+                            : existingIds.contains(itemId) ? Status.INSUFFICIENT_STOCK : Status.NOT_FOUND;
+                }
+                catalogSnapshotCache.invalidateAfterCommit();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply {} inventory adjustments", chunk.size(), e);
+            chunk.forEach(index -> statuses[index] = Status.FAILED);
+        }
+    }
+}
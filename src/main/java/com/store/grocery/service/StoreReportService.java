@@ -0,0 +1,64 @@
+package com.store.grocery.service;
+
+import com.store.grocery.datasource.ShardFanOut;
+import com.store.grocery.datasource.ShardRoutingDataSource;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.repository.OrderRepository;
+import com.store.grocery.response.StoreReport;
+import com.store.grocery.response.StoreTotals;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Totals of every store this deployment serves. Each shard sums its own stores in two grouped
+ * queries, all shards at once, and the per-shard rows are merged here.
+ */
+@Service
+public class StoreReportService {
+
+    private static final StoreTotals NONE = new StoreTotals(null, 0, 0);
+
+    private final GroceryItemRepository groceryItemRepository;
+
+    private final OrderRepository orderRepository;
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    private final ShardFanOut shardFanOut;
+
+    public StoreReportService(GroceryItemRepository groceryItemRepository, OrderRepository orderRepository,
+                              ShardRoutingDataSource shardRoutingDataSource, ShardFanOut shardFanOut) {
+        this.groceryItemRepository = groceryItemRepository;
+        this.orderRepository = orderRepository;
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.shardFanOut = shardFanOut;
+    }
+
+    /**
+     * @return one report per configured store, in store id order; stores without rows report zeros
+     */
+    public List<StoreReport> fetchStoreReports() {
+        List<ShardTotals> shards = shardFanOut.onEveryShard(() ->
+                new ShardTotals(byStore(groceryItemRepository.findStoreTotals()), byStore(orderRepository.findStoreTotals())));
+        List<StoreReport> reports = new ArrayList<>();
+        shardRoutingDataSource.getStores().forEach((storeId, shard) -> {
+            // Only the store's own shard is read: rows left on another shard by a remapping are not counted twice
+            StoreTotals items = shards.get(shard).items().getOrDefault(storeId, NONE);
+            StoreTotals orders = shards.get(shard).orders().getOrDefault(storeId, NONE);
+            reports.add(new StoreReport(storeId, shard, items.count(), items.total(), orders.count(), orders.total()));
+        });
+        return reports;
+    }
+
+    private static Map<Long, StoreTotals> byStore(List<StoreTotals> totals) {
+        return totals.stream().collect(Collectors.toMap(StoreTotals::storeId, Function.identity()));
+    }
+
+    private record ShardTotals(Map<Long, StoreTotals> items, Map<Long, StoreTotals> orders) {
+    }
+}
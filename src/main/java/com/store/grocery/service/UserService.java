@@ -1,7 +1,13 @@
 package com.store.grocery.service;
 
+import com.store.grocery.cache.CatalogPayload;
+import com.store.grocery.entity.CatalogFilter;
 import com.store.grocery.entity.CreateOrderRequest;
 import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.OrderHistoryFilter;
+import com.store.grocery.response.CatalogPage;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.OrderSummary;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -9,7 +15,22 @@ import java.util.List;
 @Service
 public interface UserService {
 
-    List<GroceryItem> viewAvailableGroceryItems();
+    List<GroceryItemResponse> viewAvailableGroceryItems();
 
-    void createOrder(CreateOrderRequest createOrderRequest);
+    CatalogPayload viewAvailableGroceryItemsPayload();
+
+    String getCatalogVersionTag();
+
+    CatalogPage<GroceryItemResponse> viewAvailableGroceryItemsPage(CatalogFilter filter);
+
+    /**
+     * Writes the order and reserves its stock, returning the id of the new order.
+     * Joins the caller's transaction when there is one.
+     */
+    Long createOrder(CreateOrderRequest createOrderRequest);
+
+    /**
+     * Returns a page of the user's orders with their lines, newest first.
+     */
+    CatalogPage<OrderSummary> viewOrderHistory(Long userId, OrderHistoryFilter filter);
 }
@@ -1,22 +1,51 @@
 package com.store.grocery.service;
 
+import com.store.grocery.cache.CatalogPayload;
+import com.store.grocery.cache.CatalogPayloadCache;
+import com.store.grocery.cache.CatalogSnapshot;
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.cache.CatalogView;
+import com.store.grocery.cache.IdempotencyKeyIndex;
+import com.store.grocery.datasource.DataSourceRouting;
+import com.store.grocery.datasource.ReadYourWrites;
 import com.store.grocery.entity.*;
 import com.store.grocery.exception.ApiException;
 import com.store.grocery.repository.GroceryItemRepository;
 import com.store.grocery.repository.OrderItemRepository;
 import com.store.grocery.repository.OrderRepository;
 import com.store.grocery.repository.UserRepository;
+import com.store.grocery.response.CatalogPage;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.OrderLine;
+import com.store.grocery.response.OrderSummary;
+import com.store.grocery.response.SuccessResponse;
+import com.store.grocery.sales.ItemSalesService;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Timed(value = "grocery.service", histogram = true)
 @Service
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    static final int DEFAULT_ORDER_PAGE_SIZE = 20;
+
+    static final int MAX_ORDER_PAGE_SIZE = 100;
+
     private final GroceryItemRepository groceryItemRepository;
 
     private final UserRepository userRepository;
@@ -25,25 +54,134 @@ public class UserServiceImpl implements UserService {
 
     private final OrderItemRepository orderItemRepository;
 
-    public UserServiceImpl(GroceryItemRepository groceryItemRepository, UserRepository userRepository, OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
+    private final CatalogSnapshotCache catalogSnapshotCache;
+
+    private final GroceryItemService groceryItemService;
+
+    private final CatalogPayloadCache catalogPayloadCache;
+
+    private final IdempotencyKeyIndex idempotencyKeyIndex;
+
+    private final ReadYourWrites readYourWrites;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ItemSalesService itemSalesService;
+
+    public UserServiceImpl(GroceryItemRepository groceryItemRepository, UserRepository userRepository, OrderRepository orderRepository, OrderItemRepository orderItemRepository, CatalogSnapshotCache catalogSnapshotCache, GroceryItemService groceryItemService, CatalogPayloadCache catalogPayloadCache, IdempotencyKeyIndex idempotencyKeyIndex, ReadYourWrites readYourWrites, TransactionTemplate transactionTemplate, ItemSalesService itemSalesService) {
         this.groceryItemRepository = groceryItemRepository;
         this.userRepository = userRepository;
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
+        this.catalogSnapshotCache = catalogSnapshotCache;
+        this.groceryItemService = groceryItemService;
+        this.catalogPayloadCache = catalogPayloadCache;
+        this.idempotencyKeyIndex = idempotencyKeyIndex;
+        this.readYourWrites = readYourWrites;
+        this.transactionTemplate = transactionTemplate;
+        this.itemSalesService = itemSalesService;
     }
 
     @Override
-    public List<GroceryItem> viewAvailableGroceryItems() {
+    public List<GroceryItemResponse> viewAvailableGroceryItems() {
         try {
+            // Served from the in-memory snapshot, rebuilt only after a catalog change
+            return catalogSnapshotCache.getAvailableItems();
+        } catch (Exception e) {
+            throw new ApiException("Failed to retrieve grocery items", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-            return groceryItemRepository.findByQuantityGreaterThan(0);
+    @Override
+    public CatalogPayload viewAvailableGroceryItemsPayload() {
+        try {
+            CatalogSnapshot snapshot = catalogSnapshotCache.getSnapshot();
+            return catalogPayloadCache.get(CatalogView.AVAILABLE_ITEMS, snapshot.getVersion(), catalogSnapshotCache.tagFor(snapshot.getVersion()),
+                    () -> new SuccessResponse<>(true, "Successfully fetched available grocery items", snapshot.getAvailableItems()));
         } catch (Exception e) {
             throw new ApiException("Failed to retrieve grocery items", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @Override
-    public void createOrder(CreateOrderRequest OrderRequest) {
+    public String getCatalogVersionTag() {
+        return catalogSnapshotCache.getVersionTag();
+    }
+
+    @Override
+    public CatalogPage<GroceryItemResponse> viewAvailableGroceryItemsPage(CatalogFilter filter) {
+        // Shoppers only ever page through items that are in stock
+        filter.setInStock(true);
+        return groceryItemService.fetchGroceryItemsPage(filter);
+    }
+
+    @Override
+    // One read-only transaction, so the whole page comes from the same database
+    @Transactional(readOnly = true)
+    public CatalogPage<OrderSummary> viewOrderHistory(Long userId, OrderHistoryFilter filter) {
+        int size = filter.getSize() != null ? filter.getSize() : DEFAULT_ORDER_PAGE_SIZE;
+        if (size < 1 || size > MAX_ORDER_PAGE_SIZE) {
+            throw new ApiException("Page size must be between 1 and " + MAX_ORDER_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+        // A user who has just ordered reads from the primary, where the order is sure to be
+        return readYourWrites.read(userId, () -> loadOrderHistory(userId, filter, size));
+    }
+
+    private CatalogPage<OrderSummary> loadOrderHistory(Long userId, OrderHistoryFilter filter, int size) {
+        try {
+            if (!userRepository.existsById(userId)) {
+                throw new ApiException("User not found", HttpStatus.NOT_FOUND);
+            }
+            long beforeId = filter.getAfterId() != null ? filter.getAfterId() : Long.MAX_VALUE;
+            // One extra row tells us whether there is a next page without a count query
+            List<OrderSummary> orders = orderRepository.findSummariesBefore(userId, beforeId, PageRequest.of(0, size + 1));
+            Long nextCursor = null;
+            if (orders.size() > size) {
+                orders = orders.subList(0, size);
+                nextCursor = orders.get(size - 1).orderId();
+            }
+            if (orders.isEmpty()) {
+                return new CatalogPage<>(orders, null);
+            }
+            // A single query for the lines of the whole page, however many orders it holds
+            List<Long> orderIds = orders.stream().map(OrderSummary::orderId).toList();
+            Map<Long, List<OrderLine>> linesByOrder = orderItemRepository.findLinesByOrderIds(orderIds).stream()
+                    .collect(Collectors.groupingBy(OrderLine::orderId));
+            List<OrderSummary> page = orders.stream()
+                    .map(order -> order.withLines(linesByOrder.getOrDefault(order.orderId(), List.of())))
+                    .toList();
+            return new CatalogPage<>(page, nextCursor);
+        } catch (ApiException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ApiException("Failed to retrieve order history", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public Long createOrder(CreateOrderRequest OrderRequest) {
+        String idempotencyKey = idempotencyKey(OrderRequest);
+        if (idempotencyKey != null) {
+            // A replay is answered with the original order, nothing is written again
+            Long existingOrderId = findOrderId(OrderRequest.getUserId(), idempotencyKey);
+            if (existingOrderId != null) {
+                return existingOrderId;
+            }
+        }
+        try {
+            // Programmatic so that a duplicate key failing at commit can still be caught here
+            return transactionTemplate.execute(status -> writeOrder(OrderRequest, idempotencyKey));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key committed first
+            Long existingOrderId = idempotencyKey != null ? findOrderId(OrderRequest.getUserId(), idempotencyKey) : null;
+            if (existingOrderId == null) {
+                throw new ApiException("Failed to create order", HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            return existingOrderId;
+        }
+    }
+
+    private Long writeOrder(CreateOrderRequest OrderRequest, String idempotencyKey) {
         try {
 
             User user = userRepository.findById(OrderRequest.getUserId())
@@ -51,21 +189,30 @@ public class UserServiceImpl implements UserService {
 
             Order order = new Order();
             order.setUser(user);
+            order.setIdempotencyKey(idempotencyKey);
 
             double totalPrice = 0;
 
             Map<Long, Double> itemWithQty = (OrderRequest.getItemWithQuantity() != null)
                     ? OrderRequest.getItemWithQuantity()
                     : new HashMap<>();
-            orderRepository.save(order);
+
+            // One query for the whole basket instead of a findById per line
+            Map<Long, GroceryItem> groceryItems = groceryItemRepository.findAllById(itemWithQty.keySet()).stream()
+                    .collect(Collectors.toMap(GroceryItem::getId, Function.identity()));
 
             for (Map.Entry<Long, Double> map : itemWithQty.entrySet()) {
 
                 Long itemId = map.getKey();
                 double qty = map.getValue();
 
-                GroceryItem groceryItem = groceryItemRepository.findById(itemId)
-                        .orElseThrow(() -> new EntityNotFoundException("Grocery item not found"));
+                GroceryItem groceryItem = groceryItems.get(itemId);
+                if (groceryItem == null) {
+                    throw new EntityNotFoundException("Grocery item not found");
+                }
+                if (qty <= 0) {
+                    throw new ApiException("Quantity must be greater than zero", HttpStatus.BAD_REQUEST);
+                }
 
                 OrderItem orderItem = new OrderItem();
                 orderItem.setOrder(order);
@@ -78,14 +225,69 @@ public class UserServiceImpl implements UserService {
                 order.getOrderItems().add(orderItem);
             }
 
+            reserveStock(itemWithQty);
+
             order.setTotalPrice(totalPrice);
-            orderItemRepository.saveAll(order.getOrderItems());
+            // Ids come from the pooled generators, so nothing is inserted until the flush at commit,
+            // where the order and all of its lines go out as ordered JDBC batches
             orderRepository.save(order);
+            orderItemRepository.saveAll(order.getOrderItems());
+            catalogSnapshotCache.invalidateAfterCommit();
+            if (idempotencyKey != null) {
+                idempotencyKeyIndex.putAfterCommit(user.getId(), idempotencyKey, order.getOrderId());
+            }
+            readYourWrites.recordAfterCommit(user.getId());
+            // Counted for the top sellers only if the order commits
+            itemSalesService.recordAfterCommit(order.getOrderItems());
+            return order.getOrderId();
 
+        } catch (ApiException | DataIntegrityViolationException e) {
+            throw e;
         } catch (EntityNotFoundException e) {
             throw new ApiException(e.getMessage(), HttpStatus.NOT_FOUND);
         } catch (Exception e) {
             throw new ApiException("Failed to create order", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    private Long findOrderId(Long userId, String idempotencyKey) {
+        Long orderId = idempotencyKeyIndex.get(userId, idempotencyKey);
+        if (orderId != null) {
+            return orderId;
+        }
+        // A replica may not have the original order yet
+        orderId = DataSourceRouting.onPrimary(() -> orderRepository.findOrderIdByIdempotencyKey(userId, idempotencyKey)).orElse(null);
+        if (orderId != null) {
+            idempotencyKeyIndex.put(userId, idempotencyKey, orderId);
+        }
+        return orderId;
+    }
+
+    /**
+     * The Idempotency-Key header wins over the orderId in the body; without either the
+     * request is not idempotent.
+     */
+    private static String idempotencyKey(CreateOrderRequest orderRequest) {
+        String key = orderRequest.getIdempotencyKey();
+        if (key == null || key.isBlank()) {
+            key = orderRequest.getOrderId() != null ? orderRequest.getOrderId().toString() : null;
+        }
+        if (key != null && key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new ApiException("Idempotency key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters", HttpStatus.BAD_REQUEST);
+        }
+        return key;
+    }
+
+    /**
+     * Reserves every line with a conditional decrement, in ascending item id order so that
+     * concurrent orders over the same items always lock rows in the same sequence. A line that
+     * cannot be reserved fails the order and rolls back the lines reserved before it.
+     */
+    private void reserveStock(Map<Long, Double> itemWithQty) {
+        for (Map.Entry<Long, Double> line : new TreeMap<>(itemWithQty).entrySet()) {
+            if (groceryItemRepository.reserveStock(line.getKey(), line.getValue()) == 0) {
+                throw new ApiException("Insufficient stock for grocery item " + line.getKey(), HttpStatus.CONFLICT);
+            }
+        }
+    }
 }
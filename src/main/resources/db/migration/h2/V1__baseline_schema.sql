@@ -0,0 +1,49 @@
+-- Same schema as db/migration/mysql, for the embedded H2 database used by tests and benchmarks
+
+create sequence qp_grocery_item_seq start with 1 increment by 50;
+create sequence qp_order_seq start with 1 increment by 50;
+create sequence qp_order_item_seq start with 1 increment by 50;
+create sequence qp_user_seq start with 1 increment by 50;
+
+create table qp_grocery_item (
+    price float(53) not null,
+    quantity float(53) not null,
+    id bigint not null,
+    name varchar(255),
+    unit_of_measure varchar(255) check (unit_of_measure in ('PIECE','KILOGRAM','LITER','MILLILITER')),
+    primary key (id)
+);
+
+create table qp_order (
+    total_price float(53),
+    order_id bigint not null,
+    user_id bigint,
+    primary key (order_id)
+);
+
+create table qp_order_item (
+    quantity float(53) not null,
+    total_price float(53),
+    id bigint not null,
+    item_id bigint,
+    order_id bigint,
+    primary key (id)
+);
+
+create table qp_order_order_items (
+    order_items_id bigint not null unique,
+    order_order_id bigint not null
+);
+
+create table qp_user (
+    id bigint not null,
+    role varchar(255),
+    user_name varchar(255),
+    primary key (id)
+);
+
+alter table qp_order add constraint FKp43kminkv7sgddx55g9lj2cf4 foreign key (user_id) references qp_user;
+alter table qp_order_item add constraint FK2r0q18l0fovb44i1i147pp2ma foreign key (item_id) references qp_grocery_item;
+alter table qp_order_item add constraint FKe718duqr4cuyh7875f7wt9wbu foreign key (order_id) references qp_order;
+alter table qp_order_order_items add constraint FKoqw14rxfqfoi9wy5bj0l9oqwn foreign key (order_items_id) references qp_order_item;
+alter table qp_order_order_items add constraint FK4d2qu9um7iwdd3ba1pa5dmji3 foreign key (order_order_id) references qp_order;
@@ -0,0 +1,16 @@
+-- Same changes as db/migration/mysql/V2__item_versions_order_keys_and_indexes.sql
+
+alter table qp_grocery_item add column version bigint default 0 not null;
+
+alter table qp_order add column idempotency_key varchar(64);
+alter table qp_order add constraint uk_order_user_idempotency_key unique (user_id, idempotency_key);
+
+create index idx_grocery_item_unit_id on qp_grocery_item (unit_of_measure, id);
+
+create index idx_grocery_item_available on qp_grocery_item (quantity, id, name, price, unit_of_measure, version);
+
+create index idx_order_user_history on qp_order (user_id, order_id, total_price);
+
+create index idx_order_item_item_sales on qp_order_item (item_id, quantity, total_price);
+
+drop table if exists qp_order_order_items;
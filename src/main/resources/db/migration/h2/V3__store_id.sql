@@ -0,0 +1,14 @@
+-- Same changes as db/migration/mysql/V3__store_id.sql
+
+alter table qp_user add column store_id bigint default 1 not null;
+alter table qp_grocery_item add column store_id bigint default 1 not null;
+alter table qp_order add column store_id bigint default 1 not null;
+
+create index idx_grocery_item_store_available on qp_grocery_item (store_id, quantity, id, name, price, unit_of_measure, version);
+drop index idx_grocery_item_available;
+
+create index idx_grocery_item_store_unit_id on qp_grocery_item (store_id, unit_of_measure, id);
+drop index idx_grocery_item_unit_id;
+
+create index idx_order_user_store_history on qp_order (user_id, store_id, order_id, total_price);
+drop index idx_order_user_history;
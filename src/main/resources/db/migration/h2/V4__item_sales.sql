@@ -0,0 +1,17 @@
+-- Same changes as db/migration/mysql/V4__item_sales.sql
+
+create table qp_item_sales (
+    item_id bigint not null,
+    store_id bigint not null,
+    quantity_sold numeric(19,4) not null,
+    revenue numeric(19,4) not null,
+    primary key (item_id)
+);
+
+create index idx_item_sales_store_quantity on qp_item_sales (store_id, quantity_sold desc, item_id desc, revenue);
+create index idx_item_sales_store_revenue on qp_item_sales (store_id, revenue desc, item_id desc, quantity_sold);
+
+insert into qp_item_sales (item_id, store_id, quantity_sold, revenue)
+select l.item_id, i.store_id, sum(l.quantity), coalesce(sum(l.total_price), 0)
+from qp_order_item l join qp_grocery_item i on i.id = l.item_id
+group by l.item_id, i.store_id;
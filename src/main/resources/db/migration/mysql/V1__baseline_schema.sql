@@ -0,0 +1,59 @@
+-- Schema as Hibernate generated it with ddl-auto=update, before the migrations existed (constraint
+-- names included). Databases created that way are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and start from V2.
+
+-- Pooled id generators of the AUTO ids, emulated with tables since MySQL has no sequences
+create table qp_grocery_item_seq (next_val bigint) engine=InnoDB;
+insert into qp_grocery_item_seq values (1);
+create table qp_order_seq (next_val bigint) engine=InnoDB;
+insert into qp_order_seq values (1);
+create table qp_order_item_seq (next_val bigint) engine=InnoDB;
+insert into qp_order_item_seq values (1);
+create table qp_user_seq (next_val bigint) engine=InnoDB;
+insert into qp_user_seq values (1);
+
+create table qp_grocery_item (
+    price float(53) not null,
+    quantity float(53) not null,
+    id bigint not null,
+    name varchar(255),
+    unit_of_measure enum ('PIECE','KILOGRAM','LITER','MILLILITER'),
+    primary key (id)
+) engine=InnoDB;
+
+create table qp_order (
+    total_price float(53),
+    order_id bigint not null,
+    user_id bigint,
+    primary key (order_id)
+) engine=InnoDB;
+
+create table qp_order_item (
+    quantity float(53) not null,
+    total_price float(53),
+    id bigint not null,
+    item_id bigint,
+    order_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+-- Join table of the unidirectional Order.orderItems mapping, next to qp_order_item.order_id
+create table qp_order_order_items (
+    order_items_id bigint not null,
+    order_order_id bigint not null
+) engine=InnoDB;
+
+create table qp_user (
+    id bigint not null,
+    role varchar(255),
+    user_name varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+alter table qp_order_order_items add constraint UK_229yvy5fkyc4k0kvtshht5a1c unique (order_items_id);
+
+alter table qp_order add constraint FKp43kminkv7sgddx55g9lj2cf4 foreign key (user_id) references qp_user (id);
+alter table qp_order_item add constraint FK2r0q18l0fovb44i1i147pp2ma foreign key (item_id) references qp_grocery_item (id);
+alter table qp_order_item add constraint FKe718duqr4cuyh7875f7wt9wbu foreign key (order_id) references qp_order (order_id);
+alter table qp_order_order_items add constraint FKoqw14rxfqfoi9wy5bj0l9oqwn foreign key (order_items_id) references qp_order_item (id);
+alter table qp_order_order_items add constraint FK4d2qu9um7iwdd3ba1pa5dmji3 foreign key (order_order_id) references qp_order (order_id);
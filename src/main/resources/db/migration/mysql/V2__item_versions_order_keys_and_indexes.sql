@@ -0,0 +1,28 @@
+-- Columns and indexes the entities rely on beyond the baseline schema
+
+-- Optimistic locking version of each item (GroceryItem.version); existing items start at 0
+alter table qp_grocery_item add column version bigint not null default 0;
+
+-- Client-supplied key of an idempotent create-order: a key can produce at most one order per user.
+-- Orders placed before keys existed have none
+alter table qp_order add column idempotency_key varchar(64);
+alter table qp_order add constraint uk_order_user_idempotency_key unique (user_id, idempotency_key);
+
+-- Unit-of-measure filter plus keyset seek on id for the paged catalog
+create index idx_grocery_item_unit_id on qp_grocery_item (unit_of_measure, id);
+
+-- Available catalog (findByQuantityGreaterThan): range scan on quantity that carries every
+-- selected column, so the snapshot rebuild never reads the clustered rows
+create index idx_grocery_item_available on qp_grocery_item (quantity, id, name, price, unit_of_measure, version);
+
+-- Order history (findSummariesBefore): seek by user, walk order_id downwards, read the total
+-- from the index
+create index idx_order_user_history on qp_order (user_id, order_id, total_price);
+
+-- Per-item sales (findItemSales): sums quantity and total_price per item from the index alone.
+-- Also backs the item_id foreign key, in place of the index MySQL created for it
+create index idx_order_item_item_sales on qp_order_item (item_id, quantity, total_price);
+
+-- Join table of the unidirectional Order.orderItems mapping, no longer written to. Every line
+-- also has its order in qp_order_item.order_id, which the mapping now uses
+drop table if exists qp_order_order_items;
@@ -0,0 +1,18 @@
+-- Store id on the store-owned tables. Rows from before stores existed belong to the default store, 1.
+-- Every query on these tables is now restricted to one store, so the store leads the indexes
+alter table qp_user add column store_id bigint not null default 1;
+alter table qp_grocery_item add column store_id bigint not null default 1;
+alter table qp_order add column store_id bigint not null default 1;
+
+-- Available catalog of one store, still covering every selected column
+create index idx_grocery_item_store_available on qp_grocery_item (store_id, quantity, id, name, price, unit_of_measure, version);
+drop index idx_grocery_item_available on qp_grocery_item;
+
+-- Unit-of-measure filter plus keyset seek on id, within one store
+create index idx_grocery_item_store_unit_id on qp_grocery_item (store_id, unit_of_measure, id);
+drop index idx_grocery_item_unit_id on qp_grocery_item;
+
+-- Order history: the store check is answered from the index, which stays covering.
+-- Created before the old index goes, which backs the user_id foreign key
+create index idx_order_user_store_history on qp_order (user_id, store_id, order_id, total_price);
+drop index idx_order_user_history on qp_order;
@@ -0,0 +1,22 @@
+-- Running units sold and revenue per item, added to by the in-memory sales counters on every
+-- flush, so best-seller reads never sum qp_order_item. Item ids are unique per database even
+-- across stores, the store column is there for the per-store rankings. The totals are decimals
+-- with the counters' four places, so adding a flush to them is exact however many there are
+create table qp_item_sales (
+    item_id bigint not null,
+    store_id bigint not null,
+    quantity_sold decimal(19,4) not null,
+    revenue decimal(19,4) not null,
+    primary key (item_id)
+) engine=InnoDB;
+
+-- Top sellers (findTopByQuantitySold, findTopByRevenue): read in index order from the store's highest
+-- total, stopping after the requested number of rows, with every selected column in the index
+create index idx_item_sales_store_quantity on qp_item_sales (store_id, quantity_sold desc, item_id desc, revenue);
+create index idx_item_sales_store_revenue on qp_item_sales (store_id, revenue desc, item_id desc, quantity_sold);
+
+-- Totals of the orders placed before the counters existed
+insert into qp_item_sales (item_id, store_id, quantity_sold, revenue)
+select l.item_id, i.store_id, sum(l.quantity), coalesce(sum(l.total_price), 0)
+from qp_order_item l join qp_grocery_item i on i.id = l.item_id
+group by l.item_id, i.store_id;
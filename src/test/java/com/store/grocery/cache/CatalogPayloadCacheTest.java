@@ -0,0 +1,64 @@
+package com.store.grocery.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogPayloadCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CatalogPayloadCache catalogPayloadCache = new CatalogPayloadCache(objectMapper);
+
+    @Test
+    void testGet_SerializesOncePerVersion() {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<List<String>> body = () -> {
+            calls.incrementAndGet();
+            return List.of("Sugar", "Rice");
+        };
+
+        CatalogPayload first = catalogPayloadCache.get(CatalogView.ALL_ITEMS, 4, "x-4", body);
+        CatalogPayload second = catalogPayloadCache.get(CatalogView.ALL_ITEMS, 4, "x-4", body);
+        CatalogPayload next = catalogPayloadCache.get(CatalogView.ALL_ITEMS, 5, "x-5", body);
+
+        assertSame(first, second);
+        assertNotSame(first, next);
+        assertEquals("x-5", next.getVersionTag());
+        assertEquals(2, calls.get());
+        assertEquals(2, catalogPayloadCache.getSerializations());
+    }
+
+    @Test
+    void testGet_ViewsAreCachedSeparately() {
+        CatalogPayload all = catalogPayloadCache.get(CatalogView.ALL_ITEMS, 1, "x-1", () -> List.of("Sugar", "Rice"));
+        CatalogPayload available = catalogPayloadCache.get(CatalogView.AVAILABLE_ITEMS, 1, "x-1", () -> List.of("Sugar"));
+
+        assertEquals("[\"Sugar\",\"Rice\"]", new String(all.getIdentity().toByteArray()));
+        assertEquals("[\"Sugar\"]", new String(available.getIdentity().toByteArray()));
+    }
+
+    @Test
+    void testGet_OlderVersionDoesNotReplaceNewer() {
+        CatalogPayload newer = catalogPayloadCache.get(CatalogView.ALL_ITEMS, 9, "x-9", () -> List.of("new"));
+        catalogPayloadCache.get(CatalogView.ALL_ITEMS, 8, "x-8", () -> List.of("old"));
+
+        assertSame(newer, catalogPayloadCache.get(CatalogView.ALL_ITEMS, 9, "x-9", () -> fail("should be cached")));
+    }
+
+    @Test
+    void testGzipVariantMatchesIdentity() throws Exception {
+        CatalogPayload payload = catalogPayloadCache.get(CatalogView.ALL_ITEMS, 1, "x-1", () -> List.of("Sugar", "Rice"));
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(payload.getGzip().toByteArray()))) {
+            assertArrayEquals(payload.getIdentity().toByteArray(), in.readAllBytes());
+        }
+    }
+}
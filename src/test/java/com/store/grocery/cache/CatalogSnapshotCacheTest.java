@@ -0,0 +1,85 @@
+package com.store.grocery.cache;
+
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.UnitOfMeasurement;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.support.CatalogItemViews;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogSnapshotCacheTest {
+
+    @Mock
+    private GroceryItemRepository groceryItemRepository;
+
+    @InjectMocks
+    private CatalogSnapshotCache catalogSnapshotCache;
+
+    @Test
+    void testGetSnapshot_CountsHitsMissesAndRebuilds() {
+        List<GroceryItem> availableItems = List.of(
+                new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00),
+                new GroceryItem(2L, "Rin Soap", 12, UnitOfMeasurement.PIECE, 200));
+        when(groceryItemRepository.findByQuantityGreaterThan(0)).thenReturn(CatalogItemViews.of(availableItems));
+
+        CatalogSnapshot first = catalogSnapshotCache.getSnapshot();
+        CatalogSnapshot second = catalogSnapshotCache.getSnapshot();
+
+        assertSame(first, second, "Unchanged catalog should be served from the same snapshot");
+        assertEquals(availableItems.stream().map(GroceryItemResponse::from).toList(), first.getAvailableItems());
+
+        CatalogCacheStats stats = catalogSnapshotCache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getRebuilds());
+        assertEquals(2, stats.getCachedItems());
+        verify(groceryItemRepository, times(1)).findByQuantityGreaterThan(0);
+    }
+
+    @Test
+    void testInvalidate_BumpsVersionAndForcesRebuild() {
+        when(groceryItemRepository.findByQuantityGreaterThan(0)).thenReturn(List.of());
+
+        long initialVersion = catalogSnapshotCache.getSnapshot().getVersion();
+        long newVersion = catalogSnapshotCache.invalidate();
+        CatalogSnapshot rebuilt = catalogSnapshotCache.getSnapshot();
+
+        assertEquals(initialVersion + 1, newVersion);
+        assertEquals(newVersion, rebuilt.getVersion());
+        assertEquals(2, catalogSnapshotCache.getStats().getRebuilds());
+        verify(groceryItemRepository, times(2)).findByQuantityGreaterThan(0);
+    }
+
+    @Test
+    void testGetSnapshot_ItemsAreImmutable() {
+        when(groceryItemRepository.findByQuantityGreaterThan(0)).thenReturn(List.of());
+
+        List<GroceryItemResponse> items = catalogSnapshotCache.getAvailableItems();
+
+        assertThrows(UnsupportedOperationException.class, () -> items.add(GroceryItemResponse.from(new GroceryItem())));
+    }
+
+    @Test
+    void testGetVersion_ReadsTheGivenStoreWhateverTheCurrentOne() {
+        StoreContext.runAs(2, () -> {
+            catalogSnapshotCache.invalidate();
+            catalogSnapshotCache.invalidate();
+        });
+
+        // Read from the default store's thread
+        assertEquals(1, catalogSnapshotCache.getVersion());
+        assertEquals(1, catalogSnapshotCache.getVersion(StoreContext.DEFAULT_STORE_ID));
+        assertEquals(3, catalogSnapshotCache.getVersion(2));
+    }
+}
@@ -0,0 +1,74 @@
+package com.store.grocery.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyKeyIndexTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void testGet_ExpiresAfterTtl() {
+        IdempotencyKeyIndex index = new IdempotencyKeyIndex(10, Duration.ofMinutes(5), clock);
+        index.put(1L, "c0ffee", 51L);
+
+        clock.advance(Duration.ofMinutes(4));
+        assertEquals(51L, index.get(1L, "c0ffee"));
+
+        clock.advance(Duration.ofMinutes(1));
+        assertNull(index.get(1L, "c0ffee"));
+    }
+
+    @Test
+    void testPut_DropsOldestBeyondMaxKeys() {
+        IdempotencyKeyIndex index = new IdempotencyKeyIndex(2, Duration.ofHours(1), clock);
+        index.put(1L, "a", 1L);
+        index.put(1L, "b", 2L);
+        index.put(1L, "c", 3L);
+
+        assertEquals(2, index.size());
+        assertNull(index.get(1L, "a"));
+        assertEquals(3L, index.get(1L, "c"));
+    }
+
+    @Test
+    void testPut_EvictsExpiredEntries() {
+        IdempotencyKeyIndex index = new IdempotencyKeyIndex(10, Duration.ofMinutes(5), clock);
+        index.put(1L, "a", 1L);
+        clock.advance(Duration.ofMinutes(10));
+        index.put(1L, "b", 2L);
+
+        assertEquals(1, index.size());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -2,11 +2,28 @@ package com.store.grocery.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.grocery.cache.CatalogPayload;
+import com.store.grocery.cache.SecondLevelCacheStats;
+import com.store.grocery.datasource.DataSourceRoutingStats;
+import com.store.grocery.entity.CatalogFilter;
 import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.ImportFormat;
+import com.store.grocery.entity.InventoryAdjustment;
+import com.store.grocery.entity.ItemSalesTotal;
 import com.store.grocery.entity.UnitOfMeasurement;
 import com.store.grocery.exception.ApiException;
+import com.store.grocery.inventory.InventoryWriteBehindService;
+import com.store.grocery.inventory.InventoryWriteBehindStats;
 import com.store.grocery.response.APIResponse;
+import com.store.grocery.response.BulkInventoryReport;
+import com.store.grocery.response.CatalogPage;
 import com.store.grocery.response.ErrorResponse;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.ImportReport;
+import com.store.grocery.response.StoreReport;
+import com.store.grocery.response.InventoryAdjustmentResult;
+import com.store.grocery.response.ItemSales;
+import com.store.grocery.response.PreSerializedResponse;
 import com.store.grocery.response.SuccessResponse;
 import com.store.grocery.service.AdminService;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,8 +33,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 
@@ -30,6 +54,9 @@ class AdminControllerTest {
     @Mock
     private AdminService adminService;
 
+    @Mock
+    private InventoryWriteBehindService inventoryWriteBehindService;
+
     @InjectMocks
     private AdminController adminController;
 
@@ -37,18 +64,19 @@ class AdminControllerTest {
 
     @BeforeEach
     public void setUp() {
-        adminController = new AdminController(adminService);
+        adminController = new AdminController(adminService, inventoryWriteBehindService);
     }
 
     //To Test Controller method addGroceryItem
     @Test
     void testAddGroceryItem_Success() throws JsonProcessingException {
         List<GroceryItem> inputItems = Collections.singletonList(new GroceryItem());
-        when(adminService.addGroceryItem(inputItems)).thenReturn(inputItems);
+        List<GroceryItemResponse> addedItems = List.of(GroceryItemResponse.from(new GroceryItem()));
+        when(adminService.addGroceryItem(inputItems)).thenReturn(addedItems);
 
         ResponseEntity<APIResponse> response = adminController.addGroceryItem(inputItems);
 
-        SuccessResponse<List<GroceryItem>> expectedResponse = new SuccessResponse<>(true, "Grocery item added successfully", inputItems);
+        SuccessResponse<List<GroceryItemResponse>> expectedResponse = new SuccessResponse<>(true, "Grocery item added successfully", addedItems);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(objectMapper.writeValueAsString(expectedResponse), objectMapper.writeValueAsString(response.getBody()));
     }
@@ -68,28 +96,31 @@ class AdminControllerTest {
 
     // View Grocery Items
     @Test
-    public void testViewGroceryItems_Success() throws ApiException {
+    public void testViewGroceryItems_Success() throws Exception {
         // Mock data
         List<GroceryItem> mockGroceryItems = List.of(
                 new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00),
                 new GroceryItem(2L, "Rin Soap", 12, UnitOfMeasurement.PIECE, 200));
+        SuccessResponse<List<GroceryItem>> expectedResponse = new SuccessResponse<>(true, "Successfully fetched grocery items", mockGroceryItems);
+        CatalogPayload payload = CatalogPayload.of(objectMapper, 3, "lq2x1-3", expectedResponse);
 
         // Mock adminService behavior
-        when(adminService.fetchAllGroceryItems()).thenReturn(mockGroceryItems);
+        when(adminService.getCatalogVersionTag()).thenReturn("lq2x1-3");
+        when(adminService.fetchAllGroceryItemsPayload()).thenReturn(payload);
 
         // Call the method under test
-        ResponseEntity<APIResponse> responseEntity = adminController.viewGroceryItems();
+        ResponseEntity<APIResponse> responseEntity = adminController.viewGroceryItems(null, null);
 
         // Verify the response
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-        assertInstanceOf(SuccessResponse.class, responseEntity.getBody());
-        SuccessResponse<?> successResponse = (SuccessResponse<?>) responseEntity.getBody();
-        assertTrue(successResponse.isSuccess());
-        assertEquals("Successfully fetched grocery items", successResponse.getMessage());
-        assertEquals(mockGroceryItems, successResponse.getData());
+        assertEquals("\"lq2x1-3\"", responseEntity.getHeaders().getETag());
+        assertEquals(MediaType.APPLICATION_JSON, responseEntity.getHeaders().getContentType());
+        assertInstanceOf(PreSerializedResponse.class, responseEntity.getBody());
+        PreSerializedResponse body = (PreSerializedResponse) responseEntity.getBody();
+        assertEquals(objectMapper.writeValueAsString(expectedResponse), new String(body.toByteArray(), StandardCharsets.UTF_8));
 
         // Verify that adminService method was called
-        verify(adminService, times(1)).fetchAllGroceryItems();
+        verify(adminService, times(1)).fetchAllGroceryItemsPayload();
     }
 
     @Test
@@ -98,10 +129,10 @@ class AdminControllerTest {
         ApiException mockApiException = new ApiException("Internal Server Error", HttpStatus.INTERNAL_SERVER_ERROR);
 
         // Mock adminService behavior to throw ApiException
-        when(adminService.fetchAllGroceryItems()).thenThrow(mockApiException);
+        when(adminService.fetchAllGroceryItemsPayload()).thenThrow(mockApiException);
 
         // Call the method under test
-        ResponseEntity<APIResponse> responseEntity = adminController.viewGroceryItems();
+        ResponseEntity<APIResponse> responseEntity = adminController.viewGroceryItems(null, null);
 
         // Verify the response
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
@@ -111,7 +142,72 @@ class AdminControllerTest {
         assertEquals("Internal Server Error", errorResponse.getErrorMessage());
 
         // Verify that adminService method was called
-        verify(adminService, times(1)).fetchAllGroceryItems();
+        verify(adminService, times(1)).fetchAllGroceryItemsPayload();
+    }
+
+    @Test
+    public void testViewGroceryItems_NotModified() throws ApiException {
+        // Mock adminService behavior
+        when(adminService.getCatalogVersionTag()).thenReturn("lq2x1-3");
+
+        // Call the method under test with the current tag of the identity body
+        ResponseEntity<APIResponse> responseEntity = adminController.viewGroceryItems("\"lq2x1-3\"", "gzip");
+
+        // Verify nothing was fetched or serialized, and the tag is the one of the coding asked for
+        assertEquals(HttpStatus.NOT_MODIFIED, responseEntity.getStatusCode());
+        assertNull(responseEntity.getBody());
+        assertEquals("\"lq2x1-3-gzip\"", responseEntity.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, adminController.viewGroceryItems("\"lq2x1-3-gzip\"", null).getStatusCode());
+        verify(adminService, never()).fetchAllGroceryItemsPayload();
+    }
+
+    @Test
+    public void testViewGroceryItemsPage_Success() throws ApiException {
+        // Mock data
+        CatalogFilter filter = new CatalogFilter();
+        CatalogPage<GroceryItemResponse> page = new CatalogPage<>(List.of(
+                new GroceryItemResponse(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00, 0)), 1L);
+        when(adminService.fetchGroceryItemsPage(filter)).thenReturn(page);
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.viewGroceryItemsPage(filter);
+
+        // Verify the response
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) responseEntity.getBody();
+        assertTrue(successResponse.isSuccess());
+        assertSame(page, successResponse.getData());
+    }
+
+    @Test
+    public void testViewGroceryItemsPage_ApiException() throws ApiException {
+        // Mock adminService behavior to throw ApiException
+        CatalogFilter filter = new CatalogFilter();
+        filter.setSize(0);
+        when(adminService.fetchGroceryItemsPage(filter)).thenThrow(new ApiException("Page size must be between 1 and 500", HttpStatus.BAD_REQUEST));
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.viewGroceryItemsPage(filter);
+
+        // Verify the response
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        ErrorResponse errorResponse = (ErrorResponse) responseEntity.getBody();
+        assertFalse(errorResponse.isSuccess());
+        assertEquals("Page size must be between 1 and 500", errorResponse.getErrorMessage());
+    }
+
+    @Test
+    public void testExportGroceryItems_StreamsThroughService() throws Exception {
+        ResponseEntity<StreamingResponseBody> responseEntity = adminController.exportGroceryItems();
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, responseEntity.getHeaders().getContentType());
+        // Nothing is read until the body is written
+        verify(adminService, never()).exportGroceryItems(any());
+
+        OutputStream out = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(out);
+        verify(adminService, times(1)).exportGroceryItems(out);
     }
 
     // To remove Grocery items
@@ -164,10 +260,10 @@ class AdminControllerTest {
         GroceryItem updatedItem = new GroceryItem(123L, "Washing Powder pack of 1kg", 2.0, UnitOfMeasurement.PIECE, 100);
 
         // Mock adminService behavior
-        when(adminService.updateGroceryItem(itemId, updatedItem)).thenReturn(updatedItem);
+        when(adminService.updateGroceryItem(itemId, updatedItem, null)).thenReturn(GroceryItemResponse.from(updatedItem));
 
         // Call the method under test
-        ResponseEntity<APIResponse> responseEntity = adminController.updateGroceryItem(itemId, updatedItem);
+        ResponseEntity<APIResponse> responseEntity = adminController.updateGroceryItem(itemId, updatedItem, null);
 
         // Verify the response
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
@@ -175,10 +271,39 @@ class AdminControllerTest {
         SuccessResponse<?> successResponse = (SuccessResponse<?>) responseEntity.getBody();
         assertTrue(successResponse.isSuccess());
         assertEquals("Grocery item updated successfully", successResponse.getMessage());
-        assertEquals(updatedItem, successResponse.getData());
+        assertEquals(GroceryItemResponse.from(updatedItem), successResponse.getData());
 
         // Verify that adminService method was called
-        verify(adminService, times(1)).updateGroceryItem(itemId, updatedItem);
+        verify(adminService, times(1)).updateGroceryItem(itemId, updatedItem, null);
+    }
+
+    @Test
+    public void testUpdateGroceryItem_IfMatch() {
+        Long itemId = 123L;
+        GroceryItem updatedItem = new GroceryItem(123L, "Washing Powder pack of 1kg", 2.0, UnitOfMeasurement.PIECE, 100);
+        updatedItem.setVersion(5);
+        when(adminService.updateGroceryItem(itemId, updatedItem, 4L)).thenReturn(GroceryItemResponse.from(updatedItem));
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.updateGroceryItem(itemId, updatedItem, "\"4\"");
+
+        // Verify the response carries the new version for the next conditional update
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("\"5\"", responseEntity.getHeaders().getETag());
+    }
+
+    @Test
+    public void testUpdateGroceryItem_PreconditionFailed() {
+        Long itemId = 123L;
+        GroceryItem updatedItem = new GroceryItem(123L, "Washing Powder pack of 1kg", 2.0, UnitOfMeasurement.PIECE, 100);
+        when(adminService.updateGroceryItem(itemId, updatedItem, 4L))
+                .thenThrow(new ApiException("Grocery item has been modified since version 4", HttpStatus.PRECONDITION_FAILED));
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.updateGroceryItem(itemId, updatedItem, "\"4\"");
+
+        // Verify the response
+        assertEquals(HttpStatus.PRECONDITION_FAILED, responseEntity.getStatusCode());
     }
 
     @Test
@@ -189,10 +314,10 @@ class AdminControllerTest {
         ApiException mockApiException = new ApiException("Item not found", HttpStatus.NOT_FOUND);
 
         // Mock adminService behavior to throw ApiException
-        doThrow(mockApiException).when(adminService).updateGroceryItem(itemId, updatedItem);
+        doThrow(mockApiException).when(adminService).updateGroceryItem(itemId, updatedItem, null);
 
         // Call the method under test
-        ResponseEntity<APIResponse> responseEntity = adminController.updateGroceryItem(itemId, updatedItem);
+        ResponseEntity<APIResponse> responseEntity = adminController.updateGroceryItem(itemId, updatedItem, null);
 
         // Verify the response
         assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
@@ -202,7 +327,7 @@ class AdminControllerTest {
         assertEquals("Item not found", errorResponse.getErrorMessage());
 
         // Verify that adminService method was called
-        verify(adminService, times(1)).updateGroceryItem(itemId, updatedItem);
+        verify(adminService, times(1)).updateGroceryItem(itemId, updatedItem, null);
     }
 
     // To test patch request to update the inventory
@@ -212,7 +337,7 @@ class AdminControllerTest {
         double quantity = 50.0;
 
         // Call the method under test
-        ResponseEntity<APIResponse> responseEntity = adminController.manageInventory(itemId, quantity);
+        ResponseEntity<APIResponse> responseEntity = adminController.manageInventory(itemId, quantity, InventoryAdjustment.Mode.SET, null);
 
         // Verify the response
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
@@ -223,7 +348,7 @@ class AdminControllerTest {
         assertEquals("Inventory managed", successResponse.getData());
 
         // Verify that adminService method was called
-        verify(adminService, times(1)).manageInventory(itemId, quantity);
+        verify(adminService, times(1)).manageInventory(itemId, quantity, null);
     }
 
     @Test
@@ -234,10 +359,10 @@ class AdminControllerTest {
         ApiException mockApiException = new ApiException("Invalid quantity", HttpStatus.BAD_REQUEST);
 
         // Mock adminService behavior to throw ApiException
-        doThrow(mockApiException).when(adminService).manageInventory(itemId, quantity);
+        doThrow(mockApiException).when(adminService).manageInventory(itemId, quantity, null);
 
         // Call the method under test
-        ResponseEntity<APIResponse> responseEntity = adminController.manageInventory(itemId, quantity);
+        ResponseEntity<APIResponse> responseEntity = adminController.manageInventory(itemId, quantity, InventoryAdjustment.Mode.SET, null);
 
         // Verify the response
         assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
@@ -247,6 +372,223 @@ class AdminControllerTest {
         assertEquals("Invalid quantity", errorResponse.getErrorMessage());
 
         // Verify that adminService method was called
-        verify(adminService, times(1)).manageInventory(itemId, quantity);
+        verify(adminService, times(1)).manageInventory(itemId, quantity, null);
+    }
+
+    @Test
+    public void testManageInventory_AddDelta() {
+        Long itemId = 123L;
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.manageInventory(itemId, -5.0, InventoryAdjustment.Mode.ADD, null);
+
+        // Verify the response
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        verify(adminService, times(1)).addInventory(itemId, -5.0);
+        verify(adminService, never()).manageInventory(anyLong(), anyDouble(), any());
+    }
+
+    @Test
+    public void testManageInventory_IfMatchIsWrittenDirectly() {
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.manageInventory(123L, 8.0, InventoryAdjustment.Mode.SET, "\"2\"");
+
+        // Verify the response
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        verify(adminService, times(1)).manageInventory(123L, 8.0, 2L);
+        verify(inventoryWriteBehindService, never()).submit(any());
+    }
+
+    @Test
+    public void testManageInventory_IfMatchWithDelta() {
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.manageInventory(123L, 8.0, InventoryAdjustment.Mode.ADD, "\"2\"");
+
+        // Verify the response
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        verifyNoInteractions(adminService);
+    }
+
+    @Test
+    public void testManageInventory_WriteBehindAccepted() {
+        Long itemId = 123L;
+        when(inventoryWriteBehindService.isEnabled()).thenReturn(true);
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.manageInventory(itemId, 3.0, InventoryAdjustment.Mode.ADD, null);
+
+        // Verify the response
+        assertEquals(HttpStatus.ACCEPTED, responseEntity.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) responseEntity.getBody();
+        assertEquals("Inventory update accepted", successResponse.getMessage());
+        verify(inventoryWriteBehindService).submit(argThat(update -> update.getItemId().equals(itemId)
+                && update.getMode() == InventoryAdjustment.Mode.ADD && update.getQuantity() == 3.0));
+        verifyNoInteractions(adminService);
+    }
+
+    @Test
+    public void testManageInventory_WriteBehindBufferFull() {
+        when(inventoryWriteBehindService.isEnabled()).thenReturn(true);
+        doThrow(new ApiException("Inventory write-behind buffer is full, retry later", HttpStatus.SERVICE_UNAVAILABLE))
+                .when(inventoryWriteBehindService).submit(any());
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.manageInventory(123L, 3.0, InventoryAdjustment.Mode.SET, null);
+
+        // Verify the response
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+        assertEquals("Inventory write-behind buffer is full, retry later", ((ErrorResponse) responseEntity.getBody()).getErrorMessage());
+    }
+
+    @Test
+    public void testViewInventoryWriteBehindStats() {
+        InventoryWriteBehindStats stats = new InventoryWriteBehindStats("WRITE_BEHIND", 2, 10, 0, 0, 3, 0, 8, 0, 1.5, 4.0);
+        when(adminService.fetchInventoryWriteBehindStats()).thenReturn(stats);
+
+        ResponseEntity<APIResponse> responseEntity = adminController.viewInventoryWriteBehindStats();
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertSame(stats, ((SuccessResponse<?>) responseEntity.getBody()).getData());
+    }
+
+    @Test
+    public void testViewSecondLevelCacheStats() {
+        // Mock data
+        List<SecondLevelCacheStats> stats = List.of(new SecondLevelCacheStats("grocery-item", 40, 2, 12, 10));
+        when(adminService.fetchSecondLevelCacheStats()).thenReturn(stats);
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.viewSecondLevelCacheStats();
+
+        // Verify the response
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) responseEntity.getBody();
+        assertTrue(successResponse.isSuccess());
+        assertEquals("Successfully fetched second-level cache stats", successResponse.getMessage());
+        assertEquals(stats, successResponse.getData());
+    }
+
+    @Test
+    public void testViewDataSourceRoutingStats() {
+        // Mock data
+        DataSourceRoutingStats stats = new DataSourceRoutingStats(2, 1, 40, 120, 3);
+        when(adminService.fetchDataSourceRoutingStats()).thenReturn(stats);
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.viewDataSourceRoutingStats();
+
+        // Verify the response
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) responseEntity.getBody();
+        assertEquals("Successfully fetched datasource routing stats", successResponse.getMessage());
+        assertSame(stats, successResponse.getData());
+    }
+
+    @Test
+    public void testViewStoreReports() {
+        // Mock data
+        List<StoreReport> reports = List.of(new StoreReport(1, 0, 120, 5400.0, 30, 910.5), new StoreReport(2, 1, 80, 2100.0, 0, 0));
+        when(adminService.fetchStoreReports()).thenReturn(reports);
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.viewStoreReports();
+
+        // Verify the response
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) responseEntity.getBody();
+        assertEquals("Successfully fetched store reports", successResponse.getMessage());
+        assertSame(reports, successResponse.getData());
+    }
+
+    @Test
+    public void testViewStoreReports_ShardUnavailable() {
+        // Mock adminService behavior
+        when(adminService.fetchStoreReports()).thenThrow(new ApiException("Timed out reading from shard 1", HttpStatus.SERVICE_UNAVAILABLE));
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.viewStoreReports();
+
+        // Verify the response
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+        ErrorResponse errorResponse = (ErrorResponse) responseEntity.getBody();
+        assertEquals("Timed out reading from shard 1", errorResponse.getErrorMessage());
+    }
+
+    @Test
+    public void testViewTopSellers() {
+        // Mock data
+        List<ItemSales> topSellers = List.of(new ItemSales(7L, 420.0, 1050.0), new ItemSales(3L, 96.5, 2316.0));
+        when(adminService.fetchTopSellers(2, ItemSalesTotal.Ranking.QUANTITY)).thenReturn(topSellers);
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.viewTopSellers(2, ItemSalesTotal.Ranking.QUANTITY);
+
+        // Verify the response
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) responseEntity.getBody();
+        assertEquals("Successfully fetched top sellers", successResponse.getMessage());
+        assertSame(topSellers, successResponse.getData());
+    }
+
+    @Test
+    public void testViewTopSellers_LimitOutOfRange() {
+        // Mock adminService behavior
+        when(adminService.fetchTopSellers(500, ItemSalesTotal.Ranking.REVENUE)).thenThrow(new ApiException("Limit must be between 1 and 100", HttpStatus.BAD_REQUEST));
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.viewTopSellers(500, ItemSalesTotal.Ranking.REVENUE);
+
+        // Verify the response
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        ErrorResponse errorResponse = (ErrorResponse) responseEntity.getBody();
+        assertEquals("Limit must be between 1 and 100", errorResponse.getErrorMessage());
+    }
+
+    @Test
+    public void testImportGroceryItems_PassesFormatFromContentType() {
+        // Mock data
+        InputStream body = new ByteArrayInputStream("name,price,unitOfMeasure,quantity\n".getBytes(StandardCharsets.UTF_8));
+        ImportReport report = new ImportReport();
+        when(adminService.importGroceryItems(body, ImportFormat.CSV)).thenReturn(report);
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.importGroceryItems("text/csv; charset=UTF-8", body);
+
+        // Verify the response
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) responseEntity.getBody();
+        assertEquals("Grocery items imported successfully", successResponse.getMessage());
+        assertSame(report, successResponse.getData());
+    }
+
+    @Test
+    public void testImportGroceryItems_UnsupportedContentType() {
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.importGroceryItems(MediaType.APPLICATION_JSON_VALUE, InputStream.nullInputStream());
+
+        // Verify the response
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, responseEntity.getStatusCode());
+        verifyNoInteractions(adminService);
+    }
+
+    @Test
+    public void testAdjustInventory_PartiallyRejected() {
+        // Mock data
+        List<InventoryAdjustment> adjustments = List.of(
+                new InventoryAdjustment(1L, InventoryAdjustment.Mode.SET, 10),
+                new InventoryAdjustment(2L, InventoryAdjustment.Mode.ADD, -5));
+        BulkInventoryReport report = new BulkInventoryReport(1, 1, List.of(
+                new InventoryAdjustmentResult(1L, InventoryAdjustmentResult.Status.APPLIED),
+                new InventoryAdjustmentResult(2L, InventoryAdjustmentResult.Status.INSUFFICIENT_STOCK)));
+        when(adminService.adjustInventory(adjustments)).thenReturn(report);
+
+        // Call the method under test
+        ResponseEntity<APIResponse> responseEntity = adminController.adjustInventory(adjustments);
+
+        // Verify the response
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) responseEntity.getBody();
+        assertEquals("Inventory managed with rejected adjustments", successResponse.getMessage());
+        assertSame(report, successResponse.getData());
     }
 }
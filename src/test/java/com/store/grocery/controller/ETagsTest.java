@@ -0,0 +1,53 @@
+package com.store.grocery.controller;
+
+import com.store.grocery.exception.ApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    @Test
+    void testMatches() {
+        assertTrue(ETags.matches("\"abc-1\"", "abc-1"));
+        assertTrue(ETags.matches("W/\"abc-1\"", "abc-1"), "If-None-Match uses weak comparison");
+        assertTrue(ETags.matches("\"abc-0\", \"abc-1\"", "abc-1"));
+        assertTrue(ETags.matches("*", "abc-1"));
+        assertFalse(ETags.matches("\"abc-0\"", "abc-1"));
+        assertFalse(ETags.matches("abc-1", "abc-1"), "Unquoted tags are not valid entity tags");
+        assertFalse(ETags.matches(null, "abc-1"));
+    }
+
+    @Test
+    void testIfMatchVersion() {
+        assertEquals(7L, ETags.ifMatchVersion("\"7\""));
+        assertNull(ETags.ifMatchVersion(null));
+        assertNull(ETags.ifMatchVersion("*"), "Any version matches");
+        assertEquals(HttpStatus.PRECONDITION_FAILED,
+                assertThrows(ApiException.class, () -> ETags.ifMatchVersion("W/\"7\"")).getStatus(), "If-Match uses strong comparison");
+        assertEquals(HttpStatus.PRECONDITION_FAILED,
+                assertThrows(ApiException.class, () -> ETags.ifMatchVersion("\"abc-1\"")).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                assertThrows(ApiException.class, () -> ETags.ifMatchVersion("\"6\", \"7\"")).getStatus());
+    }
+
+    @Test
+    void testCatalogTagsPerCoding() {
+        assertEquals("abc-1", CatalogResponses.tagFor("abc-1", false));
+        assertEquals("abc-1-gzip", CatalogResponses.tagFor("abc-1", true));
+        assertTrue(CatalogResponses.matches("\"abc-1\"", "abc-1"));
+        assertTrue(CatalogResponses.matches("\"abc-1-gzip\"", "abc-1"), "Either coding of the current version matches");
+        assertFalse(CatalogResponses.matches("\"abc-0-gzip\"", "abc-1"));
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        assertTrue(CatalogResponses.acceptsGzip("gzip, deflate, br"));
+        assertTrue(CatalogResponses.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(CatalogResponses.acceptsGzip("*"));
+        assertFalse(CatalogResponses.acceptsGzip("gzip;q=0"));
+        assertFalse(CatalogResponses.acceptsGzip("identity"));
+        assertFalse(CatalogResponses.acceptsGzip(null));
+    }
+}
@@ -1,11 +1,22 @@
 package com.store.grocery.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.grocery.cache.CatalogPayload;
+import com.store.grocery.entity.CatalogFilter;
 import com.store.grocery.entity.CreateOrderRequest;
 import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.OrderHistoryFilter;
 import com.store.grocery.entity.UnitOfMeasurement;
 import com.store.grocery.exception.ApiException;
+import com.store.grocery.intake.OrderIntakeService;
+import com.store.grocery.intake.OrderIntakeStatus;
+import com.store.grocery.intake.OrderIntakeTicket;
 import com.store.grocery.response.APIResponse;
+import com.store.grocery.response.CatalogPage;
 import com.store.grocery.response.ErrorResponse;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.OrderSummary;
+import com.store.grocery.response.PreSerializedResponse;
 import com.store.grocery.response.SuccessResponse;
 import com.store.grocery.service.UserService;
 import org.junit.jupiter.api.Test;
@@ -14,45 +25,129 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private OrderIntakeService orderIntakeService;
+
     @InjectMocks
     private UserController userController;
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     @Test
-    void testViewAvailableGroceryItems() throws ApiException {
+    void testViewAvailableGroceryItems() throws Exception {
         // Mock data
         List<GroceryItem> mockGroceryAvailableItems = List.of(
                 new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00),
                 new GroceryItem(2L, "Rin Soap", 12, UnitOfMeasurement.PIECE, 200)
         );
+        SuccessResponse<List<GroceryItem>> expectedResponse = new SuccessResponse<>(true, "Successfully fetched available grocery items", mockGroceryAvailableItems);
+        CatalogPayload payload = CatalogPayload.of(objectMapper, 7, "lq2x1-7", expectedResponse);
+
+        // Mock service method
+        Mockito.when(userService.getCatalogVersionTag()).thenReturn("lq2x1-7");
+        Mockito.when(userService.viewAvailableGroceryItemsPayload()).thenReturn(payload);
+
+        // Call controller method
+        ResponseEntity<APIResponse> response = userController.viewAvailableGroceryItems(null, null);
+
+        // Verify the pre-serialized bytes are returned as-is
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"lq2x1-7\"", response.getHeaders().getETag());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        PreSerializedResponse body = (PreSerializedResponse) response.getBody();
+        assert body != null;
+        assertSame(payload.getIdentity(), body);
+        assertEquals(objectMapper.writeValueAsString(expectedResponse), new String(body.toByteArray(), StandardCharsets.UTF_8));
+        verify(userService, never()).viewAvailableGroceryItems();
+    }
 
+    @Test
+    void testViewAvailableGroceryItems_Gzip() throws Exception {
+        // Mock data
+        SuccessResponse<List<GroceryItem>> expectedResponse = new SuccessResponse<>(true, "Successfully fetched available grocery items",
+                List.of(new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00)));
+        CatalogPayload payload = CatalogPayload.of(objectMapper, 7, "lq2x1-7", expectedResponse);
+        when(userService.getCatalogVersionTag()).thenReturn("lq2x1-7");
+        when(userService.viewAvailableGroceryItemsPayload()).thenReturn(payload);
 
+        // Call controller method
+        ResponseEntity<APIResponse> response = userController.viewAvailableGroceryItems(null, "gzip, deflate, br");
+
+        // Verify
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        // Different bytes than the identity body, so a different strong tag
+        assertEquals("\"lq2x1-7-gzip\"", response.getHeaders().getETag());
+        PreSerializedResponse body = (PreSerializedResponse) response.getBody();
+        assert body != null;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            assertEquals(objectMapper.writeValueAsString(expectedResponse), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testViewAvailableGroceryItems_NotModified() throws ApiException {
         // Mock service method
-        Mockito.when(userService.viewAvailableGroceryItems()).thenReturn(mockGroceryAvailableItems);
+        when(userService.getCatalogVersionTag()).thenReturn("lq2x1-7");
+
+        // Call controller method with the tag from a previous response
+        ResponseEntity<APIResponse> response = userController.viewAvailableGroceryItems("W/\"lq2x1-6\", \"lq2x1-7\"", null);
+
+        // Verify nothing was fetched or serialized
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"lq2x1-7\"", response.getHeaders().getETag());
+        verify(userService, never()).viewAvailableGroceryItemsPayload();
+    }
+
+    @Test
+    void testViewAvailableGroceryItems_StaleTag() throws ApiException {
+        // Mock service method
+        when(userService.getCatalogVersionTag()).thenReturn("lq2x1-8");
+        when(userService.viewAvailableGroceryItemsPayload())
+                .thenReturn(CatalogPayload.of(objectMapper, 8, "lq2x1-8", new SuccessResponse<>(true, "Successfully fetched available grocery items", List.of())));
 
         // Call controller method
-        ResponseEntity<APIResponse> response = userController.viewAvailableGroceryItems();
+        ResponseEntity<APIResponse> response = userController.viewAvailableGroceryItems("\"lq2x1-7\"", null);
 
         // Verify
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        SuccessResponse<List<GroceryItem>> successResponse = (SuccessResponse<List<GroceryItem>>) response.getBody();
+        assertEquals("\"lq2x1-8\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testViewAvailableGroceryItemsPage() throws ApiException {
+        // Mock service method
+        CatalogFilter filter = new CatalogFilter();
+        CatalogPage<GroceryItemResponse> page = new CatalogPage<>(List.of(), null);
+        when(userService.viewAvailableGroceryItemsPage(filter)).thenReturn(page);
+
+        // Call controller method
+        ResponseEntity<APIResponse> response = userController.viewAvailableGroceryItemsPage(filter);
+
+        // Verify
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) response.getBody();
         assert successResponse != null;
         assertTrue(successResponse.isSuccess());
-        assertEquals("Successfully fetched available grocery items", successResponse.getMessage());
-        assertEquals(mockGroceryAvailableItems, successResponse.getData());
+        assertSame(page, successResponse.getData());
     }
 
     @Test
@@ -61,7 +156,7 @@ public class UserControllerTest {
         CreateOrderRequest request = new CreateOrderRequest();
 
         // Call controller method
-        ResponseEntity<APIResponse> response = userController.createOrder(request);
+        ResponseEntity<APIResponse> response = userController.createOrder(request, null);
 
         // Verify
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -72,13 +167,77 @@ public class UserControllerTest {
         assertEquals("Order created", successResponse.getData());
     }
 
+    @Test
+    void testCreateOrder_IdempotencyKeyHeader() throws ApiException {
+        // Mock request
+        CreateOrderRequest request = new CreateOrderRequest();
+        when(userService.createOrder(request)).thenReturn(51L);
+
+        // Call controller method
+        ResponseEntity<APIResponse> response = userController.createOrder(request, "c0ffee");
+
+        // Verify the header is handed to the service as the idempotency key
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("c0ffee", request.getIdempotencyKey());
+    }
+
+    @Test
+    void testCreateOrder_AsyncIntake() throws ApiException {
+        // Mock request
+        CreateOrderRequest request = new CreateOrderRequest();
+        OrderIntakeTicket ticket = new OrderIntakeTicket("6f1c", OrderIntakeStatus.QUEUED, null, null);
+        when(orderIntakeService.isEnabled()).thenReturn(true);
+        when(orderIntakeService.submit(request)).thenReturn(ticket);
+
+        // Call controller method
+        ResponseEntity<APIResponse> response = userController.createOrder(request, null);
+
+        // Verify the order is acknowledged, not written on the request thread
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/user/order-status/6f1c", String.valueOf(response.getHeaders().getLocation()));
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) response.getBody();
+        assert successResponse != null;
+        assertSame(ticket, successResponse.getData());
+        verify(userService, never()).createOrder(any());
+    }
+
+    @Test
+    void testCreateOrder_AsyncIntakeQueueFull() throws ApiException {
+        // Mock request
+        CreateOrderRequest request = new CreateOrderRequest();
+        when(orderIntakeService.isEnabled()).thenReturn(true);
+        when(orderIntakeService.submit(request)).thenThrow(new ApiException("Order intake queue is full, retry later", HttpStatus.SERVICE_UNAVAILABLE));
+
+        // Call controller method
+        ResponseEntity<APIResponse> response = userController.createOrder(request, null);
+
+        // Verify
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void testOrderStatus() throws ApiException {
+        // Mock service method
+        OrderIntakeTicket ticket = new OrderIntakeTicket("6f1c", OrderIntakeStatus.COMMITTED, 51L, null);
+        when(orderIntakeService.getTicket("6f1c")).thenReturn(ticket);
+
+        // Call controller method
+        ResponseEntity<APIResponse> response = userController.orderStatus("6f1c");
+
+        // Verify
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) response.getBody();
+        assert successResponse != null;
+        assertSame(ticket, successResponse.getData());
+    }
+
     @Test
     void testViewAvailableGroceryItemsException() throws ApiException {
         // Mock service method to throw an exception
-        when(userService.viewAvailableGroceryItems()).thenThrow(new ApiException("Internal Server Error", HttpStatus.INTERNAL_SERVER_ERROR));
+        when(userService.viewAvailableGroceryItemsPayload()).thenThrow(new ApiException("Internal Server Error", HttpStatus.INTERNAL_SERVER_ERROR));
 
         // Call controller method
-        ResponseEntity<APIResponse> response = userController.viewAvailableGroceryItems();
+        ResponseEntity<APIResponse> response = userController.viewAvailableGroceryItems(null, null);
 
         // Verify
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -97,7 +256,7 @@ public class UserControllerTest {
         doThrow(new ApiException("Bad Request", HttpStatus.BAD_REQUEST)).when(userService).createOrder(request);
 
         // Call controller method
-        ResponseEntity<APIResponse> response = userController.createOrder(request);
+        ResponseEntity<APIResponse> response = userController.createOrder(request, null);
 
         // Verify
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -106,4 +265,38 @@ public class UserControllerTest {
         assertFalse(errorResponse.isSuccess());
         assertEquals("Bad Request", errorResponse.getErrorMessage());
     }
+
+    @Test
+    void testViewOrderHistory() throws ApiException {
+        // Mock service method
+        OrderHistoryFilter filter = new OrderHistoryFilter();
+        CatalogPage<OrderSummary> page = new CatalogPage<>(List.of(new OrderSummary(7L, 42.5)), null);
+        when(userService.viewOrderHistory(1L, filter)).thenReturn(page);
+
+        // Call controller method
+        ResponseEntity<APIResponse> response = userController.viewOrderHistory(1L, filter);
+
+        // Verify
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SuccessResponse<?> successResponse = (SuccessResponse<?>) response.getBody();
+        assert successResponse != null;
+        assertTrue(successResponse.isSuccess());
+        assertSame(page, successResponse.getData());
+    }
+
+    @Test
+    void testViewOrderHistory_UserNotFound() throws ApiException {
+        // Mock service method to throw ApiException
+        OrderHistoryFilter filter = new OrderHistoryFilter();
+        when(userService.viewOrderHistory(99L, filter)).thenThrow(new ApiException("User not found", HttpStatus.NOT_FOUND));
+
+        // Call controller method
+        ResponseEntity<APIResponse> response = userController.viewOrderHistory(99L, filter);
+
+        // Verify
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        ErrorResponse errorResponse = (ErrorResponse) response.getBody();
+        assert errorResponse != null;
+        assertEquals("User not found", errorResponse.getErrorMessage());
+    }
 }
@@ -0,0 +1,48 @@
+package com.store.grocery.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadYourWritesTest {
+
+    @Test
+    void testRead_RecentWriterReadsFromThePrimary() {
+        ReadYourWrites readYourWrites = new ReadYourWrites(withReplica(Duration.ofMinutes(1)));
+
+        readYourWrites.recordAfterCommit(1L);
+
+        assertTrue(readYourWrites.read(1L, DataSourceRouting::isPinnedToPrimary));
+        assertFalse(readYourWrites.read(2L, DataSourceRouting::isPinnedToPrimary));
+        assertFalse(DataSourceRouting.isPinnedToPrimary());
+    }
+
+    @Test
+    void testRead_WriteOutsideTheWindowReadsFromAnyDatabase() {
+        ReadYourWrites readYourWrites = new ReadYourWrites(withReplica(Duration.ZERO));
+
+        readYourWrites.recordAfterCommit(1L);
+
+        assertFalse(readYourWrites.read(1L, DataSourceRouting::isPinnedToPrimary));
+    }
+
+    @Test
+    void testRead_NothingIsPinnedWithoutReplicas() {
+        DataSourceRoutingProperties properties = new DataSourceRoutingProperties();
+        ReadYourWrites readYourWrites = new ReadYourWrites(properties);
+
+        readYourWrites.recordAfterCommit(1L);
+
+        assertFalse(readYourWrites.read(1L, DataSourceRouting::isPinnedToPrimary));
+    }
+
+    private static DataSourceRoutingProperties withReplica(Duration window) {
+        DataSourceRoutingProperties properties = new DataSourceRoutingProperties();
+        properties.setReplicas(List.of(new DataSourceRoutingProperties.Replica()));
+        properties.setReadYourWritesWindow(window);
+        return properties;
+    }
+}
@@ -0,0 +1,145 @@
+package com.store.grocery.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica1;
+
+    @Mock
+    private DataSource replica2;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replica1Connection;
+
+    @Mock
+    private Connection replica2Connection;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(replica1.getConnection()).thenReturn(replica1Connection);
+        lenient().when(replica2.getConnection()).thenReturn(replica2Connection);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testGetConnection_WritesGoToThePrimary() throws SQLException {
+        assertSame(primaryConnection, routingDataSource.getConnection());
+
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void testGetConnection_ReadOnlyTransactionsAreSpreadOverTheReplicas() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replica1Connection, routingDataSource.getConnection());
+        assertSame(replica2Connection, routingDataSource.getConnection());
+        assertSame(replica1Connection, routingDataSource.getConnection());
+
+        DataSourceRoutingStats stats = routingDataSource.getStats();
+        assertEquals(3, stats.getReplicaConnections());
+        assertEquals(0, stats.getPrimaryConnections());
+    }
+
+    @Test
+    void testGetConnection_PinnedReadsGoToThePrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Connection connection = DataSourceRouting.onPrimary(() -> {
+            try {
+                return routingDataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertSame(primaryConnection, connection);
+        assertFalse(DataSourceRouting.isPinnedToPrimary());
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void testGetConnection_FailedReplicaIsSkippedUntilItPassesAHealthCheck() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica1.getConnection()).thenThrow(new SQLTransientConnectionException("Connection is not available"));
+
+        // The read goes on to the next replica, and later reads stay away from the failed one
+        assertSame(replica2Connection, routingDataSource.getConnection());
+        assertSame(replica2Connection, routingDataSource.getConnection());
+        assertEquals(1, routingDataSource.getStats().getHealthyReplicas());
+        verify(replica1, times(1)).getConnection();
+
+        doReturn(replica1Connection).when(replica1).getConnection();
+        when(replica1Connection.isValid(1)).thenReturn(true);
+        when(replica2Connection.isValid(1)).thenReturn(true);
+        routingDataSource.checkHealth();
+
+        assertEquals(2, routingDataSource.getStats().getHealthyReplicas());
+        assertSame(replica1Connection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void testGetConnection_FallsBackToThePrimaryWhenNoReplicaIsAvailable() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica1.getConnection()).thenThrow(new SQLTransientConnectionException("Connection is not available"));
+        when(replica2.getConnection()).thenThrow(new SQLTransientConnectionException("Connection is not available"));
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertSame(primaryConnection, routingDataSource.getConnection());
+
+        DataSourceRoutingStats stats = routingDataSource.getStats();
+        assertEquals(0, stats.getHealthyReplicas());
+        assertEquals(2, stats.getReplicaFallbacks());
+        assertEquals(2, stats.getPrimaryConnections());
+    }
+
+    @Test
+    void testCheckHealth_TakesInvalidReplicaOutOfRotation() throws SQLException {
+        when(replica1Connection.isValid(1)).thenReturn(false);
+        when(replica2Connection.isValid(1)).thenReturn(true);
+
+        routingDataSource.checkHealth();
+
+        assertEquals(1, routingDataSource.getStats().getHealthyReplicas());
+        verify(replica1Connection).close();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(replica2Connection, routingDataSource.getConnection());
+    }
+}
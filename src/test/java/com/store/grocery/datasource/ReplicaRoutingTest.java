@@ -0,0 +1,94 @@
+package com.store.grocery.datasource;
+
+import com.store.grocery.entity.CatalogFilter;
+import com.store.grocery.entity.CreateOrderRequest;
+import com.store.grocery.entity.OrderHistoryFilter;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.OrderSummary;
+import com.store.grocery.service.UserService;
+import com.store.grocery.support.EmbeddedStore;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two embedded databases standing in for a primary and a replica that has not caught up: the
+ * replica has the schema but none of the primary's rows, so every read shows where it was routed.
+ */
+public class ReplicaRoutingTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static EmbeddedStore store;
+
+    private static UserService userService;
+
+    private static JdbcTemplate replica;
+
+    @BeforeAll
+    static void startStore() {
+        JdbcDataSource replicaDataSource = new JdbcDataSource();
+        replicaDataSource.setURL(REPLICA_URL);
+        replicaDataSource.setUser("sa");
+        Flyway.configure().dataSource(replicaDataSource).locations("classpath:db/migration/h2").load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+
+        store = EmbeddedStore.start("routing-primary",
+                "grocery.datasource.replicas[0].url=" + REPLICA_URL,
+                "grocery.datasource.replicas[0].username=sa",
+                "grocery.datasource.replicas[0].password=");
+        userService = store.getBean(UserService.class);
+    }
+
+    @AfterAll
+    static void stopStore() {
+        store.close();
+    }
+
+    @Test
+    void testCatalogPagesAreReadFromTheReplica() {
+        store.seedItems(3, i -> 10);
+        replica.update("insert into qp_grocery_item (id, name, price, unit_of_measure, quantity, version)"
+                + " values (100000, 'Replica item', 1, 'PIECE', 5, 0)");
+
+        List<String> fromReplica = names(userService.viewAvailableGroceryItemsPage(new CatalogFilter()).getItems());
+        List<String> fromPrimary = names(DataSourceRouting.onPrimary(() -> userService.viewAvailableGroceryItemsPage(new CatalogFilter()).getItems()));
+
+        assertEquals(List.of("Replica item"), fromReplica);
+        assertFalse(fromPrimary.contains("Replica item"));
+        assertTrue(fromPrimary.containsAll(List.of("Item 0", "Item 1", "Item 2")));
+        // The in-memory snapshot is labelled with the catalog version, so it is always rebuilt from the primary
+        assertFalse(names(userService.viewAvailableGroceryItems()).contains("Replica item"));
+        assertTrue(store.getBean(ReplicaRoutingDataSource.class).getStats().getReplicaConnections() > 0);
+    }
+
+    @Test
+    void testOrderHistoryReadsTheUsersOwnOrder() {
+        long itemId = store.seedItems(1, i -> 10).get(0);
+        List<Long> userIds = store.seedUsers(2);
+
+        Long orderId = userService.createOrder(new CreateOrderRequest(null, userIds.get(0), Map.of(itemId, 1.0), null));
+        List<OrderSummary> orders = userService.viewOrderHistory(userIds.get(0), new OrderHistoryFilter()).getItems();
+
+        // Right after ordering, the user's history comes from the primary
+        assertEquals(List.of(orderId), orders.stream().map(OrderSummary::orderId).toList());
+        // Another user's history comes from the replica, which has not seen either user yet
+        ApiException exception = assertThrows(ApiException.class,
+                () -> userService.viewOrderHistory(userIds.get(1), new OrderHistoryFilter()));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    private static List<String> names(List<GroceryItemResponse> items) {
+        return items.stream().map(GroceryItemResponse::name).toList();
+    }
+}
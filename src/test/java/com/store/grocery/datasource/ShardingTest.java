@@ -0,0 +1,169 @@
+package com.store.grocery.datasource;
+
+import com.store.grocery.entity.CreateOrderRequest;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.repository.ItemSalesTotalRepository;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.ItemSales;
+import com.store.grocery.response.StoreReport;
+import com.store.grocery.service.AdminService;
+import com.store.grocery.service.UserService;
+import com.store.grocery.support.EmbeddedStore;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two embedded databases as two shards: stores 1 and 3 share shard 0, store 2 has shard 1 to itself.
+ */
+public class ShardingTest {
+
+    private static final String SHARD_1_URL = "jdbc:h2:mem:sharding-shard-1;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static EmbeddedStore store;
+
+    private static UserService userService;
+
+    private static GroceryItemRepository groceryItemRepository;
+
+    private static JdbcTemplate shard1;
+
+    private static List<Long> store1Items;
+
+    private static List<Long> store2Items;
+
+    private static List<Long> store3Items;
+
+    private static List<Long> store2Users;
+
+    @BeforeAll
+    static void startStore() {
+        store = EmbeddedStore.start("sharding-shard-0",
+                "grocery.sharding.shards[0].url=" + SHARD_1_URL,
+                "grocery.sharding.shards[0].username=sa",
+                "grocery.sharding.shards[0].password=",
+                "grocery.sharding.stores.2=1",
+                "grocery.sharding.stores.3=0");
+        userService = store.getBean(UserService.class);
+        groceryItemRepository = store.getBean(GroceryItemRepository.class);
+        JdbcDataSource shard1DataSource = new JdbcDataSource();
+        shard1DataSource.setURL(SHARD_1_URL);
+        shard1DataSource.setUser("sa");
+        shard1 = new JdbcTemplate(shard1DataSource);
+
+        store1Items = store.seedItems(3, i -> 10);
+        store2Items = StoreContext.callAs(2, () -> store.seedItems(2, i -> 10));
+        store3Items = StoreContext.callAs(3, () -> store.seedItems(1, i -> 10));
+        store2Users = StoreContext.callAs(2, () -> store.seedUsers(1));
+    }
+
+    @AfterAll
+    static void stopStore() {
+        store.close();
+    }
+
+    @Test
+    void testEachStoreSeesOnlyItsOwnCatalog() {
+        assertEquals(store1Items, ids(userService.viewAvailableGroceryItems()));
+        assertEquals(store2Items, ids(StoreContext.callAs(2, userService::viewAvailableGroceryItems)));
+        assertEquals(store3Items, ids(StoreContext.callAs(3, userService::viewAvailableGroceryItems)));
+        // Store 2's rows were written to its own database, which holds nothing else
+        assertEquals(List.of(2L), shard1.queryForList("select distinct store_id from qp_grocery_item", Long.class));
+    }
+
+    @Test
+    void testItemsOfAnotherStoreOnTheSameShardAreNotFound() {
+        Long store3Item = store3Items.get(0);
+
+        assertFalse(groceryItemRepository.findById(store3Item).isPresent());
+        assertEquals(List.of(), groceryItemRepository.findAllById(List.of(store3Item)));
+        assertFalse(groceryItemRepository.existsById(store3Item));
+        assertTrue(StoreContext.callAs(3, () -> groceryItemRepository.findById(store3Item)).isPresent());
+        // The stock SQL is restricted to the store as well
+        assertEquals(0, groceryItemRepository.reserveStock(store3Item, 1));
+    }
+
+    @Test
+    void testOrdersReserveStockOnTheStoresShard() {
+        Long itemId = store2Items.get(1);
+        Long userId = store2Users.get(0);
+        // Cached first, so the order has to evict the store's cached copy
+        assertEquals(10, StoreContext.callAs(2, () -> groceryItemRepository.findById(itemId)).orElseThrow().getQuantity());
+
+        Long orderId = StoreContext.callAs(2, () -> userService.createOrder(new CreateOrderRequest(null, userId, Map.of(itemId, 4.0), null)));
+
+        assertEquals(6, StoreContext.callAs(2, () -> groceryItemRepository.findById(itemId)).orElseThrow().getQuantity());
+        assertEquals(List.of(orderId), shard1.queryForList("select order_id from qp_order where store_id = 2", Long.class));
+        // The user belongs to store 2 and is unknown everywhere else
+        ApiException exception = assertThrows(ApiException.class,
+                () -> userService.createOrder(new CreateOrderRequest(null, userId, Map.of(store1Items.get(0), 1.0), null)));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void testStoreReportsAreMergedFromEveryShard() {
+        List<StoreReport> reports = store.getBean(AdminService.class).fetchStoreReports();
+
+        assertEquals(List.of(1L, 2L, 3L), reports.stream().map(StoreReport::storeId).toList());
+        assertEquals(List.of(0, 1, 0), reports.stream().map(StoreReport::shard).toList());
+        assertEquals(List.of(3L, 2L, 1L), reports.stream().map(StoreReport::items).toList());
+        assertEquals(0, reports.get(0).orders());
+        assertEquals(0, reports.get(2).orders());
+    }
+
+    @Test
+    void testTopSellersAreRankedPerStore() {
+        ItemSalesTotalRepository totals = store.getBean(ItemSalesTotalRepository.class);
+        ItemSales store2Sales = new ItemSales(store2Items.get(0), 900, 900);
+        ItemSales store3Sales = new ItemSales(store3Items.get(0), 700, 700);
+        StoreContext.runAs(2, () -> totals.addSales(List.of(store2Sales)));
+        StoreContext.runAs(3, () -> totals.addSales(List.of(store3Sales)));
+
+        assertEquals(List.of(store2Sales), StoreContext.callAs(2, () -> totals.findTopByQuantitySold(PageRequest.of(0, 1))));
+        assertEquals(List.of(store3Sales), StoreContext.callAs(3, () -> totals.findTopByQuantitySold(PageRequest.of(0, 1))));
+        // Store 3 shares shard 0 with store 1, which sees none of its totals
+        assertFalse(totals.findTopByRevenue(PageRequest.of(0, 100)).contains(store3Sales));
+        assertEquals(List.of(2L), shard1.queryForList("select store_id from qp_item_sales where item_id = " + store2Items.get(0), Long.class));
+    }
+
+    @Test
+    void testRequestsAreRoutedByTheStoreHeader() throws Exception {
+        StoreContextFilter filter = store.getBean(StoreContextFilter.class);
+        AtomicLong seenStore = new AtomicLong();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/view-grocery-items");
+        request.addHeader(StoreContextFilter.STORE_ID_HEADER, "2");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seenStore.set(StoreContext.currentStoreId()));
+
+        assertEquals(2, seenStore.get());
+        assertEquals(StoreContext.DEFAULT_STORE_ID, StoreContext.currentStoreId());
+
+        MockHttpServletRequest unknown = new MockHttpServletRequest("GET", "/view-grocery-items");
+        unknown.addHeader(StoreContextFilter.STORE_ID_HEADER, "9");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(unknown, response, chain);
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+        assertTrue(response.getContentAsString().contains("Store not found"));
+        assertNull(chain.getRequest());
+    }
+
+    private static List<Long> ids(List<GroceryItemResponse> items) {
+        return items.stream().map(GroceryItemResponse::id).sorted().toList();
+    }
+}
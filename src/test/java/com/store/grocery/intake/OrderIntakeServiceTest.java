@@ -0,0 +1,148 @@
+package com.store.grocery.intake;
+
+import com.store.grocery.entity.CreateOrderRequest;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderIntakeServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderIntakeProperties properties;
+
+    private OrderIntakeService orderIntakeService;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new OrderIntakeProperties();
+        properties.setMode(OrderIntakeProperties.Mode.ASYNC);
+        properties.setQueueCapacity(3);
+        properties.setBatchSize(2);
+        // The writer thread is not started, tests drive processNextBatch directly
+        orderIntakeService = new OrderIntakeService(userService, new TransactionTemplate(transactionManager), properties);
+    }
+
+    @Test
+    void testSubmit_QueuesAndCommitsInBatches() throws InterruptedException {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        CreateOrderRequest first = orderRequest(1L);
+        CreateOrderRequest second = orderRequest(2L);
+        CreateOrderRequest third = orderRequest(3L);
+        when(userService.createOrder(first)).thenReturn(11L);
+        when(userService.createOrder(second)).thenReturn(12L);
+        when(userService.createOrder(third)).thenReturn(13L);
+
+        OrderIntakeTicket ticket = orderIntakeService.submit(first);
+        orderIntakeService.submit(second);
+        OrderIntakeTicket lastTicket = orderIntakeService.submit(third);
+
+        assertEquals(OrderIntakeStatus.QUEUED, orderIntakeService.getTicket(ticket.getIntakeId()).getStatus());
+        assertEquals(3, orderIntakeService.getQueueDepth());
+
+        assertEquals(2, orderIntakeService.processNextBatch(0));
+        assertEquals(1, orderIntakeService.processNextBatch(0));
+        assertEquals(0, orderIntakeService.processNextBatch(0));
+
+        assertEquals(11L, orderIntakeService.getTicket(ticket.getIntakeId()).getOrderId());
+        assertEquals(OrderIntakeStatus.COMMITTED, orderIntakeService.getTicket(lastTicket.getIntakeId()).getStatus());
+        // One transaction per batch, not per order
+        verify(transactionManager, times(2)).commit(any());
+
+        OrderIntakeStats stats = orderIntakeService.getStats();
+        assertEquals(3, stats.getOrdersAccepted());
+        assertEquals(3, stats.getOrdersCommitted());
+        assertEquals(2, stats.getBatches());
+        assertEquals(2, stats.getMaxBatchSize());
+        assertEquals(1.5, stats.getAverageBatchSize());
+        assertEquals(0, stats.getQueueDepth());
+    }
+
+    @Test
+    void testProcessNextBatch_FailedOrderOnlyFailsItself() throws InterruptedException {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        CreateOrderRequest good = orderRequest(1L);
+        CreateOrderRequest bad = orderRequest(2L);
+        when(userService.createOrder(good)).thenReturn(11L);
+        when(userService.createOrder(bad)).thenThrow(new ApiException("Insufficient stock for grocery item 1", HttpStatus.CONFLICT));
+
+        OrderIntakeTicket goodTicket = orderIntakeService.submit(good);
+        OrderIntakeTicket badTicket = orderIntakeService.submit(bad);
+        orderIntakeService.processNextBatch(0);
+
+        // The shared transaction is rolled back and each order retried on its own
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(OrderIntakeStatus.COMMITTED, orderIntakeService.getTicket(goodTicket.getIntakeId()).getStatus());
+        OrderIntakeTicket failed = orderIntakeService.getTicket(badTicket.getIntakeId());
+        assertEquals(OrderIntakeStatus.FAILED, failed.getStatus());
+        assertEquals("Insufficient stock for grocery item 1", failed.getErrorMessage());
+        assertEquals(1, orderIntakeService.getStats().getOrdersFailed());
+    }
+
+    @Test
+    void testSubmit_QueueFull() {
+        for (long i = 1; i <= 3; i++) {
+            orderIntakeService.submit(orderRequest(i));
+        }
+
+        ApiException exception = assertThrows(ApiException.class, () -> orderIntakeService.submit(orderRequest(4L)));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(1, orderIntakeService.getStats().getOrdersRejected());
+        assertEquals(3, orderIntakeService.getStats().getOrdersAccepted());
+    }
+
+    @Test
+    void testSubmit_InvalidRequest() {
+        CreateOrderRequest orderRequest = new CreateOrderRequest(null, 1L, Map.of(1L, 0.0), null);
+
+        ApiException exception = assertThrows(ApiException.class, () -> orderIntakeService.submit(orderRequest));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertEquals(0, orderIntakeService.getQueueDepth());
+    }
+
+    @Test
+    void testGetTicket_NotFound() {
+        ApiException exception = assertThrows(ApiException.class, () -> orderIntakeService.getTicket("missing"));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void testFinishedTicketsAreBounded() throws InterruptedException {
+        properties.setTicketRetention(1);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(userService.createOrder(any())).thenReturn(11L, 12L);
+
+        OrderIntakeTicket oldest = orderIntakeService.submit(orderRequest(1L));
+        OrderIntakeTicket newest = orderIntakeService.submit(orderRequest(2L));
+        orderIntakeService.processNextBatch(0);
+
+        assertThrows(ApiException.class, () -> orderIntakeService.getTicket(oldest.getIntakeId()));
+        assertEquals(12L, orderIntakeService.getTicket(newest.getIntakeId()).getOrderId());
+    }
+
+    private static CreateOrderRequest orderRequest(Long userId) {
+        return new CreateOrderRequest(null, userId, Map.of(1L, 2.0), null);
+    }
+}
@@ -0,0 +1,278 @@
+package com.store.grocery.inventory;
+
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.entity.InventoryAdjustment;
+import com.store.grocery.entity.InventoryAdjustment.Mode;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.GroceryItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryWriteBehindServiceTest {
+
+    @Mock
+    private GroceryItemRepository groceryItemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path logDirectory;
+
+    private InventoryWriteBehindProperties properties;
+
+    private InventoryWriteBehindService writeBehindService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        properties = new InventoryWriteBehindProperties();
+        properties.setMode(InventoryWriteBehindProperties.Mode.WRITE_BEHIND);
+        properties.setMaxPendingItems(3);
+        properties.setLogDirectory(logDirectory);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(groceryItemRepository.adjustStock(any())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<?>>getArgument(0).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        // The flusher thread is not started, tests drive flush directly
+        writeBehindService = newService();
+        writeBehindService.recover();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException, IOException {
+        writeBehindService.stop();
+    }
+
+    @Test
+    void testFlush_CoalescesUpdatesPerItemInOneTransaction() throws IOException {
+        // Scanner updates: last SET wins, later deltas apply on top, deltas alone are summed
+        writeBehindService.submit(new InventoryAdjustment(2L, Mode.SET, 40));
+        writeBehindService.submit(new InventoryAdjustment(2L, Mode.SET, 30));
+        writeBehindService.submit(new InventoryAdjustment(2L, Mode.ADD, -5));
+        writeBehindService.submit(new InventoryAdjustment(1L, Mode.ADD, 3));
+        writeBehindService.submit(new InventoryAdjustment(1L, Mode.ADD, 4));
+        assertEquals(2, writeBehindService.getPendingItems());
+
+        assertEquals(2, writeBehindService.flush());
+
+        ArgumentCaptor<List<InventoryAdjustment>> batch = ArgumentCaptor.forClass(List.class);
+        verify(groceryItemRepository).adjustStock(batch.capture());
+        assertEquals(List.of(1L, 2L), batch.getValue().stream().map(InventoryAdjustment::getItemId).toList());
+        assertEquals(Mode.ADD, batch.getValue().get(0).getMode());
+        assertEquals(7, batch.getValue().get(0).getQuantity());
+        assertEquals(Mode.SET, batch.getValue().get(1).getMode());
+        assertEquals(25, batch.getValue().get(1).getQuantity());
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(0, writeBehindService.getPendingItems());
+
+        InventoryWriteBehindStats stats = writeBehindService.getStats();
+        assertEquals(5, stats.getUpdatesAccepted());
+        assertEquals(1, stats.getFlushes());
+        assertEquals(2, stats.getItemsWritten());
+        // Nothing is left to replay once a flush is committed
+        assertEquals(List.of(), replayedUpdates());
+    }
+
+    @Test
+    void testCoalesce_DropsDeltaThatWouldGoBelowBufferedStock() {
+        InventoryAdjustment set = new InventoryAdjustment(1L, Mode.SET, 2);
+
+        InventoryAdjustment coalesced = InventoryWriteBehindService.coalesce(set, new InventoryAdjustment(1L, Mode.ADD, -3));
+
+        assertSame(set, coalesced);
+    }
+
+    @Test
+    void testFlush_FailedFlushIsRetriedUnderNewerUpdates() throws IOException {
+        writeBehindService.submit(new InventoryAdjustment(1L, Mode.SET, 10));
+        doThrow(new QueryTimeoutException("Lock wait timeout")).when(groceryItemRepository).adjustStock(any());
+
+        assertThrows(QueryTimeoutException.class, () -> writeBehindService.flush());
+        writeBehindService.submit(new InventoryAdjustment(1L, Mode.ADD, 2));
+
+        // The failed SET is still logged, under the delta that arrived after it
+        assertEquals(List.of(new InventoryAdjustment(1L, Mode.SET, 10), new InventoryAdjustment(1L, Mode.ADD, 2)).toString(),
+                replayedUpdates().toString());
+        doReturn(new int[] {1}).when(groceryItemRepository).adjustStock(any());
+        assertEquals(1, writeBehindService.flush());
+
+        ArgumentCaptor<List<InventoryAdjustment>> batch = ArgumentCaptor.forClass(List.class);
+        verify(groceryItemRepository, times(2)).adjustStock(batch.capture());
+        assertEquals(Mode.SET, batch.getValue().get(0).getMode());
+        assertEquals(12, batch.getValue().get(0).getQuantity());
+        assertEquals(1, writeBehindService.getStats().getFlushFailures());
+        assertEquals(List.of(), replayedUpdates());
+    }
+
+    @Test
+    void testRecover_ReplaysUpdatesLoggedBeforeACrash() throws IOException, InterruptedException {
+        writeBehindService.submit(new InventoryAdjustment(1L, Mode.SET, 10));
+        writeBehindService.submit(new InventoryAdjustment(2L, Mode.ADD, 5));
+        // The process dies before the flush, half-way through writing one more update
+        Files.writeString(newestSegment(), "SET 3 99", StandardOpenOption.APPEND);
+
+        InventoryWriteBehindService restarted = newService();
+        restarted.recover();
+
+        assertEquals(2, restarted.getPendingItems());
+        assertEquals(2, restarted.getStats().getUpdatesRecovered());
+        assertEquals(2, restarted.flush());
+        ArgumentCaptor<List<InventoryAdjustment>> batch = ArgumentCaptor.forClass(List.class);
+        verify(groceryItemRepository).adjustStock(batch.capture());
+        assertEquals(List.of(1L, 2L), batch.getValue().stream().map(InventoryAdjustment::getItemId).toList());
+        restarted.stop();
+    }
+
+    @Test
+    void testFlush_WritesEachStoreInItsOwnTransaction() throws IOException, InterruptedException {
+        writeBehindService.submit(new InventoryAdjustment(1L, Mode.SET, 10));
+        StoreContext.runAs(2, () -> writeBehindService.submit(new InventoryAdjustment(1L, Mode.SET, 20)));
+        // The same item id in two stores is buffered twice, and recovered for the right store
+        assertEquals(2, writeBehindService.getPendingItems());
+        InventoryWriteBehindService restarted = newService();
+        restarted.recover();
+        List<Long> flushedFor = new ArrayList<>();
+        doAnswer(invocation -> {
+            flushedFor.add(StoreContext.currentStoreId());
+            return new int[] {1};
+        }).when(groceryItemRepository).adjustStock(any());
+
+        assertEquals(2, restarted.flush());
+
+        assertEquals(List.of(1L, 2L), flushedFor);
+        verify(transactionManager, times(2)).commit(any());
+        restarted.stop();
+    }
+
+    @Test
+    void testFlush_FailedStoreDoesNotKeepCommittedStoresInTheLog() throws IOException, InterruptedException {
+        writeBehindService.submit(new InventoryAdjustment(1L, Mode.ADD, 5));
+        StoreContext.runAs(2, () -> writeBehindService.submit(new InventoryAdjustment(1L, Mode.ADD, 7)));
+        doAnswer(invocation -> {
+            if (StoreContext.currentStoreId() == 2) {
+                throw new QueryTimeoutException("Shard unavailable");
+            }
+            return new int[] {1};
+        }).when(groceryItemRepository).adjustStock(any());
+
+        // Store 1 commits, store 2 fails
+        assertThrows(QueryTimeoutException.class, () -> writeBehindService.flush());
+
+        assertEquals(List.of(), replayedUpdates(1));
+        assertEquals(List.of(new InventoryAdjustment(1L, Mode.ADD, 7)).toString(), replayedUpdates(2).toString());
+        // The process dies before store 2 is written: only its delta is applied again
+        InventoryWriteBehindService restarted = newService();
+        restarted.recover();
+        List<Long> flushedFor = new ArrayList<>();
+        doAnswer(invocation -> {
+            flushedFor.add(StoreContext.currentStoreId());
+            return new int[] {1};
+        }).when(groceryItemRepository).adjustStock(any());
+
+        assertEquals(1, restarted.getStats().getUpdatesRecovered());
+        assertEquals(1, restarted.flush());
+        assertEquals(List.of(2L), flushedFor);
+        restarted.stop();
+    }
+
+    @Test
+    void testRecover_MovesSharedLogIntoStoreLogs() throws IOException, InterruptedException {
+        // Written before the logs were kept per store, with and without a store
+        Files.writeString(logDirectory.resolve(String.format("%020d.log", 1)), "SET 1 10.0\nADD 1 2.0 2\n");
+
+        InventoryWriteBehindService restarted = newService();
+        restarted.recover();
+
+        assertEquals(2, restarted.getPendingItems());
+        try (var files = Files.list(logDirectory)) {
+            assertTrue(files.noneMatch(Files::isRegularFile));
+        }
+        assertEquals(List.of(new InventoryAdjustment(1L, Mode.SET, 10)).toString(), replayedUpdates(1).toString());
+        assertEquals(List.of(new InventoryAdjustment(1L, Mode.ADD, 2)).toString(), replayedUpdates(2).toString());
+        restarted.stop();
+    }
+
+    @Test
+    void testFlush_CountsUpdatesForUnknownItemsAsDropped() throws IOException {
+        writeBehindService.submit(new InventoryAdjustment(1L, Mode.SET, 10));
+        writeBehindService.submit(new InventoryAdjustment(99L, Mode.SET, 10));
+        doReturn(new int[] {1, 0}).when(groceryItemRepository).adjustStock(any());
+
+        assertEquals(1, writeBehindService.flush());
+
+        assertEquals(1, writeBehindService.getStats().getItemsWritten());
+        assertEquals(1, writeBehindService.getStats().getItemsDropped());
+    }
+
+    @Test
+    void testSubmit_RejectsNewItemsWhenBufferIsFull() {
+        writeBehindService.submit(new InventoryAdjustment(1L, Mode.SET, 1));
+        writeBehindService.submit(new InventoryAdjustment(2L, Mode.SET, 1));
+        writeBehindService.submit(new InventoryAdjustment(3L, Mode.SET, 1));
+
+        ApiException exception = assertThrows(ApiException.class,
+                () -> writeBehindService.submit(new InventoryAdjustment(4L, Mode.SET, 1)));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        // Items already buffered still take updates
+        assertDoesNotThrow(() -> writeBehindService.submit(new InventoryAdjustment(3L, Mode.ADD, 1)));
+        assertEquals(1, writeBehindService.getStats().getUpdatesRejected());
+    }
+
+    @Test
+    void testSubmit_NegativeStockLevel() {
+        ApiException exception = assertThrows(ApiException.class,
+                () -> writeBehindService.submit(new InventoryAdjustment(1L, Mode.SET, -1)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertEquals(0, writeBehindService.getPendingItems());
+    }
+
+    private InventoryWriteBehindService newService() {
+        return new InventoryWriteBehindService(groceryItemRepository, new CatalogSnapshotCache(groceryItemRepository),
+                new TransactionTemplate(transactionManager), properties);
+    }
+
+    private List<InventoryAdjustment> replayedUpdates() throws IOException {
+        return replayedUpdates(StoreContext.DEFAULT_STORE_ID);
+    }
+
+    private List<InventoryAdjustment> replayedUpdates(long storeId) throws IOException {
+        try (InventoryWriteLog writeLog = new InventoryWriteLog(logDirectory.resolve("store-" + storeId), false)) {
+            return writeLog.replay().stream().map(InventoryWriteLog.Entry::update).toList();
+        }
+    }
+
+    private Path newestSegment() throws IOException {
+        try (var files = Files.list(logDirectory.resolve("store-" + StoreContext.DEFAULT_STORE_ID))) {
+            return files.max(Path::compareTo).orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.store.grocery.metrics;
+
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.datasource.ReplicaRoutingDataSource;
+import com.store.grocery.datasource.ShardingProperties;
+import com.store.grocery.intake.OrderIntakeService;
+import com.store.grocery.inventory.InventoryWriteBehindService;
+import com.store.grocery.sales.ItemSalesService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GroceryMetricsTest {
+
+    @Mock
+    private CatalogSnapshotCache catalogSnapshotCache;
+
+    @Mock
+    private OrderIntakeService orderIntakeService;
+
+    @Mock
+    private InventoryWriteBehindService inventoryWriteBehindService;
+
+    @Mock
+    private ItemSalesService itemSalesService;
+
+    @Mock
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testBindTo_RegistersCatalogVersionPerStore() {
+        // Mock data
+        ShardingProperties shardingProperties = new ShardingProperties();
+        shardingProperties.setStores(Map.of(1L, 0, 7L, 1));
+        when(catalogSnapshotCache.getVersion(1L)).thenReturn(4L);
+        when(catalogSnapshotCache.getVersion(7L)).thenReturn(9L);
+
+        // Call the method under test
+        new GroceryMetrics(catalogSnapshotCache, orderIntakeService, inventoryWriteBehindService, itemSalesService,
+                replicaRoutingDataSource, shardingProperties).bindTo(meterRegistry);
+
+        // Verify the response
+        assertEquals(2, meterRegistry.get("grocery.catalog.version").gauges().size());
+        assertEquals(4, meterRegistry.get("grocery.catalog.version").tag("store", "1").gauge().value());
+        assertEquals(9, meterRegistry.get("grocery.catalog.version").tag("store", "7").gauge().value());
+        verify(catalogSnapshotCache, never()).getVersion();
+    }
+}
@@ -0,0 +1,48 @@
+package com.store.grocery.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestQueryMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RequestQueryMetrics requestQueryMetrics = new RequestQueryMetrics(meterRegistry);
+
+    @Test
+    void testAfterCompletion_RecordsCountsPerEndpoint() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/user/create-order");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/user/create-order");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        requestQueryMetrics.preHandle(request, response, new Object());
+        requestQueryMetrics.inspect("select * from qp_user where id=?");
+        requestQueryMetrics.inspect("update qp_grocery_item set quantity=quantity-? where id=? and quantity>=?");
+        requestQueryMetrics.onLoad(new Object(), (Object) 1L, new Object[0], new String[0], null);
+        requestQueryMetrics.preFlush(Collections.emptyIterator());
+        requestQueryMetrics.afterCompletion(request, response, new Object(), null);
+
+        DistributionSummary statements = meterRegistry.get("grocery.request.statements")
+                .tag("uri", "/user/create-order").tag("method", "POST").summary();
+        assertEquals(1, statements.count());
+        assertEquals(2, statements.totalAmount());
+        assertEquals(1, meterRegistry.get("grocery.request.entity.loads").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("grocery.request.flushes").summary().totalAmount());
+    }
+
+    @Test
+    void testInspect_OutsideRequestIsNotCounted() {
+        String sql = "select * from qp_grocery_item";
+
+        assertEquals(sql, requestQueryMetrics.inspect(sql));
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+}
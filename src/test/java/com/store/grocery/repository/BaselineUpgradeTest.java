@@ -0,0 +1,91 @@
+package com.store.grocery.repository;
+
+import com.store.grocery.entity.CreateOrderRequest;
+import com.store.grocery.entity.OrderHistoryFilter;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.ItemSales;
+import com.store.grocery.response.OrderSummary;
+import com.store.grocery.service.UserService;
+import com.store.grocery.support.EmbeddedStore;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application on a database that the baseline release built with ddl-auto=update and
+ * filled, as existing installations have: Flyway adopts it as version 1, migrates it from there,
+ * and Hibernate validates the mapping against the result.
+ */
+public class BaselineUpgradeTest {
+
+    private static final String URL = "jdbc:h2:mem:baseline-upgrade;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static EmbeddedStore store;
+
+    private static UserService userService;
+
+    @BeforeAll
+    static void startStore() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(URL);
+        dataSource.setUser("sa");
+        new ResourceDatabasePopulator(new ClassPathResource("db/ddl-auto-baseline-h2.sql")).execute(dataSource);
+
+        store = EmbeddedStore.start("baseline-upgrade");
+        userService = store.getBean(UserService.class);
+    }
+
+    @AfterAll
+    static void stopStore() {
+        store.close();
+    }
+
+    @Test
+    void testExistingDatabaseIsBaselinedAndMigrated() {
+        MigrationInfo[] applied = store.getBean(Flyway.class).info().applied();
+
+        assertEquals(List.of("1", "2", "3", "4"), Arrays.stream(applied).map(info -> info.getVersion().getVersion()).toList());
+        assertTrue(applied[0].getType().isBaseline());
+        // The old join table is gone, the order lines keep their order through order_id
+        assertEquals(0, store.getBean(JdbcTemplate.class).queryForObject(
+                "select count(*) from information_schema.tables where table_name = 'QP_ORDER_ORDER_ITEMS'", Integer.class));
+    }
+
+    @Test
+    void testExistingRowsAreReadable() {
+        List<GroceryItemResponse> available = userService.viewAvailableGroceryItems();
+
+        assertEquals(List.of("Eggs", "Sugar"), available.stream().map(GroceryItemResponse::name).sorted().toList());
+        // Items from before optimistic locking start at version 0
+        assertTrue(available.stream().allMatch(item -> item.version() == 0));
+        List<OrderSummary> history = userService.viewOrderHistory(1L, new OrderHistoryFilter(null, 10)).getItems();
+        assertEquals(List.of(2L, 1L), history.stream().map(OrderSummary::orderId).toList());
+        assertEquals(2, history.get(1).lines().size());
+        // The sales totals start from the existing orders
+        assertEquals(List.of(new ItemSales(2L, 2, 40), new ItemSales(1L, 2, 85), new ItemSales(3L, 1, 5)),
+                store.getBean(ItemSalesTotalRepository.class).findTopByQuantitySold(PageRequest.of(0, 3)));
+    }
+
+    @Test
+    void testNewOrdersContinueAfterTheExistingIds() {
+        Long orderId = userService.createOrder(new CreateOrderRequest(null, 1L, Map.of(3L, 2.0), "upgrade-1"));
+
+        assertTrue(orderId > 51, "New order id " + orderId + " collides with existing orders");
+        // Replayed under the same key, which the new column now records
+        assertEquals(orderId, userService.createOrder(new CreateOrderRequest(null, 1L, Map.of(3L, 2.0), "upgrade-1")));
+        assertEquals(3, userService.viewOrderHistory(1L, new OrderHistoryFilter(null, 10)).getItems().size());
+    }
+}
@@ -0,0 +1,189 @@
+package com.store.grocery.repository;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.store.grocery.entity.CreateOrderRequest;
+import com.store.grocery.response.ItemSales;
+import com.store.grocery.response.OrderSummary;
+import com.store.grocery.service.UserService;
+import com.store.grocery.support.EmbeddedStore;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the migrations against an embedded database, lets Hibernate validate the mapping against
+ * them, and checks that the statements Hibernate generates for the hot queries are planned on the
+ * indexes meant for them. The statements are taken from Hibernate's SQL log as the repository
+ * methods run, so they carry the store restriction and paging exactly as sent.
+ */
+public class QueryPlanTest {
+
+    private static final Logger SQL_LOGGER = (Logger) LoggerFactory.getLogger("org.hibernate.SQL");
+
+    private static EmbeddedStore store;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private static StatementCapture statements;
+
+    private static List<Long> itemIds;
+
+    private static long userId;
+
+    @BeforeAll
+    static void startStore() {
+        store = EmbeddedStore.start("query-plans");
+        jdbcTemplate = store.getBean(JdbcTemplate.class);
+        // Mostly sold out, as the availability index is meant for
+        itemIds = store.seedItems(2_000, i -> i % 10 == 0 ? 100 : 0);
+        List<Long> userIds = store.seedUsers(20);
+        userId = userIds.get(0);
+        UserService userService = store.getBean(UserService.class);
+        for (int i = 0; i < 200; i++) {
+            Map<Long, Double> basket = Map.of(itemIds.get(i % 20 * 10), 1.0, itemIds.get((i + 1) % 20 * 10), 2.0);
+            userService.createOrder(new CreateOrderRequest(null, userIds.get(i % userIds.size()), basket, null));
+        }
+        // Fresh row counts for the planner
+        jdbcTemplate.execute("analyze");
+        // Attached once the application has set up logging, kept out of the console
+        statements = new StatementCapture();
+        statements.start();
+        SQL_LOGGER.addAppender(statements);
+        SQL_LOGGER.setLevel(Level.DEBUG);
+        SQL_LOGGER.setAdditive(false);
+    }
+
+    @AfterAll
+    static void stopStore() {
+        SQL_LOGGER.detachAppender(statements);
+        SQL_LOGGER.setLevel(null);
+        SQL_LOGGER.setAdditive(true);
+        store.close();
+    }
+
+    @Test
+    void testAvailableCatalogIsReadFromTheQuantityIndex() {
+        // Otherwise answered from the query cache without a statement
+        store.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(GroceryItemRepository.AVAILABLE_ITEMS_QUERY_REGION);
+
+        String plan = explainStatementOf(() -> store.getBean(GroceryItemRepository.class).findByQuantityGreaterThan(0));
+
+        String conditions = indexConditions(plan, "IDX_GROCERY_ITEM_STORE_AVAILABLE");
+        assertTrue(conditions.contains("STORE_ID =") && conditions.contains("QUANTITY >"), plan);
+    }
+
+    @Test
+    void testOrderHistorySeeksTheUserIndex() {
+        OrderRepository orders = store.getBean(OrderRepository.class);
+
+        String plan = explainStatementOf(() -> orders.findSummariesBefore(userId, Long.MAX_VALUE, PageRequest.of(0, 21)));
+
+        String conditions = indexConditions(plan, "IDX_ORDER_USER_STORE_HISTORY");
+        assertTrue(conditions.contains("USER_ID =") && conditions.contains("STORE_ID ="), plan);
+        // Every 20th order is the user's, newest first
+        List<OrderSummary> page = orders.findSummariesBefore(userId, Long.MAX_VALUE, PageRequest.of(0, 21));
+        assertEquals(10, page.size());
+        assertTrue(page.get(0).orderId() > page.get(9).orderId());
+    }
+
+    @Test
+    void testItemSalesAreSummedFromTheItemIndex() {
+        OrderItemRepository orderItems = store.getBean(OrderItemRepository.class);
+
+        String plan = explainStatementOf(() -> orderItems.findItemSales(List.of(itemIds.get(0), itemIds.get(10))));
+
+        assertTrue(indexConditions(plan, "IDX_ORDER_ITEM_ITEM_SALES").contains("ITEM_ID IN"), plan);
+        // Each of the two items is in 10 orders once and 10 more twice, priced 1 and 11
+        List<ItemSales> sales = orderItems.findItemSales(List.of(itemIds.get(0), itemIds.get(10)));
+        assertEquals(List.of(new ItemSales(itemIds.get(0), 30, 30), new ItemSales(itemIds.get(10), 30, 330)),
+                sales.stream().sorted(Comparator.comparing(ItemSales::itemId)).toList());
+    }
+
+    @Test
+    void testTopSellersAreReadFromTheTopOfTheTotalsIndex() {
+        ItemSalesTotalRepository totals = store.getBean(ItemSalesTotalRepository.class);
+        // The first flush creates the totals, the second adds to them. Far above the seeded orders,
+        // whose totals the background flush may have written by now
+        totals.addSales(List.of(new ItemSales(itemIds.get(1), 500, 50), new ItemSales(itemIds.get(2), 300, 9_000)));
+        totals.addSales(List.of(new ItemSales(itemIds.get(1), 100, 10), new ItemSales(itemIds.get(3), 800, 8)));
+
+        String byQuantity = explainStatementOf(() -> totals.findTopByQuantitySold(PageRequest.of(0, 2)));
+        String byRevenue = explainStatementOf(() -> totals.findTopByRevenue(PageRequest.of(0, 1)));
+
+        assertTrue(indexConditions(byQuantity, "IDX_ITEM_SALES_STORE_QUANTITY").contains("STORE_ID ="), byQuantity);
+        assertTrue(byQuantity.contains("/* index sorted */"), byQuantity);
+        assertTrue(indexConditions(byRevenue, "IDX_ITEM_SALES_STORE_REVENUE").contains("STORE_ID ="), byRevenue);
+        assertTrue(byRevenue.contains("/* index sorted */"), byRevenue);
+        assertEquals(List.of(new ItemSales(itemIds.get(3), 800, 8), new ItemSales(itemIds.get(1), 600, 60)),
+                totals.findTopByQuantitySold(PageRequest.of(0, 2)));
+        assertEquals(List.of(new ItemSales(itemIds.get(2), 300, 9_000)), totals.findTopByRevenue(PageRequest.of(0, 1)));
+    }
+
+    @Test
+    void testSalesTotalsAddUpWithoutRounding() {
+        ItemSalesTotalRepository totals = store.getBean(ItemSalesTotalRepository.class);
+        // Not in any seeded order, so the background flush never adds to it
+        Long itemId = itemIds.get(4);
+        for (int i = 0; i < 10; i++) {
+            totals.addSales(List.of(new ItemSales(itemId, 0.1, 0.35)));
+        }
+
+        // Summed as doubles these would be 0.9999999999999999 and 3.5000000000000004
+        Map<String, Object> row = jdbcTemplate.queryForMap("select quantity_sold, revenue from qp_item_sales where item_id = ?", itemId);
+        assertEquals(new BigDecimal("1.0000"), row.get("QUANTITY_SOLD"));
+        assertEquals(new BigDecimal("3.5000"), row.get("REVENUE"));
+    }
+
+    /**
+     * Runs {@code query} and returns the plan of the one statement Hibernate sent for it. H2 plans
+     * the statement with its parameters unbound, as it does when preparing it.
+     */
+    private static String explainStatementOf(Supplier<?> query) {
+        String thread = Thread.currentThread().getName();
+        statements.events.clear();
+        query.get();
+        // The background flushers log their statements too
+        List<String> sent = statements.events.stream()
+                .filter(event -> event.getThreadName().equals(thread))
+                .map(ILoggingEvent::getFormattedMessage)
+                .toList();
+        assertEquals(1, sent.size(), "Statements sent: " + sent);
+        return jdbcTemplate.queryForObject("explain " + sent.get(0), String.class);
+    }
+
+    /**
+     * The conditions H2 looks up in {@code index}, or an empty string if the plan does not use it.
+     */
+    private static String indexConditions(String plan, String index) {
+        int start = plan.indexOf(index + ":");
+        return start < 0 ? "" : plan.substring(start, plan.indexOf("*/", start));
+    }
+
+    private static final class StatementCapture extends AppenderBase<ILoggingEvent> {
+
+        private final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            events.add(event);
+        }
+    }
+}
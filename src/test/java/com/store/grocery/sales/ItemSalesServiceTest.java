@@ -0,0 +1,148 @@
+package com.store.grocery.sales;
+
+import com.store.grocery.datasource.StoreContext;
+import com.store.grocery.entity.ItemSalesTotal;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.ItemSalesTotalRepository;
+import com.store.grocery.response.ItemSales;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSalesServiceTest {
+
+    @Mock
+    private ItemSalesTotalRepository itemSalesTotalRepository;
+
+    private ItemSalesService itemSalesService;
+
+    // What each store was sent, flush by flush
+    private final Map<Long, List<List<ItemSales>>> written = new TreeMap<>();
+
+    // Writes for this store time out
+    private long failingStore = -1;
+
+    @BeforeEach
+    public void setUp() {
+        // The flusher thread is not started, tests drive flush directly
+        itemSalesService = new ItemSalesService(itemSalesTotalRepository, new ItemSalesProperties());
+        lenient().doAnswer(invocation -> {
+            if (StoreContext.currentStoreId() == failingStore) {
+                throw new QueryTimeoutException("Statement timed out");
+            }
+            written.computeIfAbsent(StoreContext.currentStoreId(), storeId -> new ArrayList<>()).add(invocation.getArgument(0));
+            return null;
+        }).when(itemSalesTotalRepository).addSales(any());
+    }
+
+    @Test
+    void testFlush_WritesEachStoresTotalsOnceInItemOrder() {
+        itemSalesService.record(1, List.of(new ItemSales(9L, 2, 5.0), new ItemSales(4L, 1.5, 3.0)));
+        itemSalesService.record(1, List.of(new ItemSales(9L, 1, 2.5)));
+        itemSalesService.record(2, List.of(new ItemSales(9L, 4, 8.0)));
+
+        assertEquals(3, itemSalesService.flush());
+
+        assertEquals(List.of(new ItemSales(4L, 1.5, 3.0), new ItemSales(9L, 3, 7.5)), written.get(1L).get(0));
+        assertEquals(List.of(new ItemSales(9L, 4, 8.0)), written.get(2L).get(0));
+        // Written sales are taken off the counters, so the next flush has nothing to add
+        assertEquals(0, itemSalesService.flush());
+        verify(itemSalesTotalRepository, times(2)).addSales(any());
+        assertEquals(1, itemSalesService.getStats().getFlushes());
+        assertEquals(3, itemSalesService.getStats().getItemsWritten());
+    }
+
+    @Test
+    void testFlush_FailedStoreKeepsItsCountsForTheNextFlush() {
+        itemSalesService.record(1, List.of(new ItemSales(1L, 2, 4.0)));
+        itemSalesService.record(2, List.of(new ItemSales(1L, 1, 1.0)));
+        failingStore = 1;
+
+        assertThrows(QueryTimeoutException.class, () -> itemSalesService.flush());
+        assertNull(written.get(1L));
+        assertEquals(1, itemSalesService.getStats().getFlushFailures());
+
+        // Sold again before the retry: both amounts go out together
+        itemSalesService.record(1, List.of(new ItemSales(1L, 3, 6.0)));
+        failingStore = -1;
+
+        assertEquals(1, itemSalesService.flush());
+        assertEquals(List.of(new ItemSales(1L, 5, 10.0)), written.get(1L).get(0));
+        // Store 2 was written by the failed flush and is not written again
+        assertEquals(1, written.get(2L).size());
+    }
+
+    @Test
+    void testRecord_ConcurrentOrdersAddUpExactly() throws Exception {
+        int threads = 8;
+        int ordersPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        itemSalesService.record(1, List.of(new ItemSales(1L, 0.1, 0.35)));
+                    }
+                }));
+            }
+            // Flushes while the orders are counted must neither lose nor repeat anything
+            while (!futures.stream().allMatch(Future::isDone)) {
+                itemSalesService.flush();
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        itemSalesService.flush();
+
+        double quantity = 0;
+        double revenue = 0;
+        for (List<ItemSales> flush : written.get(1L)) {
+            quantity += flush.get(0).quantitySold();
+            revenue += flush.get(0).revenue();
+        }
+        assertEquals(threads * ordersPerThread * 0.1, quantity, 1e-6);
+        assertEquals(threads * ordersPerThread * 0.35, revenue, 1e-6);
+        assertEquals(threads * ordersPerThread, itemSalesService.getStats().getLinesRecorded());
+    }
+
+    @Test
+    void testGetTopSellers_RanksByTheRequestedTotal() {
+        List<ItemSales> byRevenue = List.of(new ItemSales(3L, 2, 90.0));
+        when(itemSalesTotalRepository.findTopByRevenue(PageRequest.of(0, 1))).thenReturn(byRevenue);
+
+        assertSame(byRevenue, itemSalesService.getTopSellers(1, ItemSalesTotal.Ranking.REVENUE));
+        verify(itemSalesTotalRepository, never()).findTopByQuantitySold(any());
+    }
+
+    @Test
+    void testGetTopSellers_RejectsLimitOutOfRange() {
+        ApiException exception = assertThrows(ApiException.class, () -> itemSalesService.getTopSellers(101, ItemSalesTotal.Ranking.QUANTITY));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertEquals("Limit must be between 1 and 100", exception.getMessage());
+        assertThrows(ApiException.class, () -> itemSalesService.getTopSellers(0, ItemSalesTotal.Ranking.QUANTITY));
+        verifyNoInteractions(itemSalesTotalRepository);
+    }
+}
@@ -0,0 +1,81 @@
+package com.store.grocery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.UnitOfMeasurement;
+import com.store.grocery.repository.GroceryItemRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogExportServiceTest {
+
+    @Mock
+    private GroceryItemRepository groceryItemRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CatalogExportService catalogExportService;
+
+    @BeforeEach
+    public void setUp() {
+        catalogExportService = new CatalogExportService(groceryItemRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void testExportGroceryItems_WritesOneJsonObjectPerLine() throws Exception {
+        // Mock data
+        GroceryItem sugar = new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00);
+        GroceryItem soap = new GroceryItem(2L, "Rin Soap", 12, UnitOfMeasurement.PIECE, 200);
+        when(groceryItemRepository.streamAllOrderById()).thenReturn(Stream.of(sugar, soap));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Call service method
+        long written = catalogExportService.exportGroceryItems(out);
+
+        // Verify
+        assertEquals(2, written);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(objectMapper.writeValueAsString(sugar), lines[0]);
+        assertEquals(objectMapper.writeValueAsString(soap), lines[1]);
+        verify(entityManager, times(1)).detach(sugar);
+        verify(entityManager, times(1)).detach(soap);
+    }
+
+    @Test
+    void testExportGroceryItems_EmptyCatalog() throws Exception {
+        when(groceryItemRepository.streamAllOrderById()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, catalogExportService.exportGroceryItems(out));
+        assertEquals(0, out.size());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void testExportGroceryItems_ClosesStream() throws Exception {
+        Stream<GroceryItem> items = List.of(new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00)).stream();
+        Runnable onClose = mock(Runnable.class);
+        when(groceryItemRepository.streamAllOrderById()).thenReturn(items.onClose(onClose));
+
+        catalogExportService.exportGroceryItems(new ByteArrayOutputStream());
+
+        verify(onClose, times(1)).run();
+    }
+}
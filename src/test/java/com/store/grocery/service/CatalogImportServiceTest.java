@@ -0,0 +1,173 @@
+package com.store.grocery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.ImportFormat;
+import com.store.grocery.entity.UnitOfMeasurement;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.response.ImportError;
+import com.store.grocery.response.ImportReport;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogImportServiceTest {
+
+    @Mock
+    private GroceryItemRepository groceryItemRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogSnapshotCache catalogSnapshotCache;
+
+    private CatalogImportService catalogImportService;
+
+    @BeforeEach
+    public void setUp() {
+        catalogSnapshotCache = new CatalogSnapshotCache(groceryItemRepository);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // Chunks of two lines, so a handful of lines spans several transactions
+        catalogImportService = new CatalogImportService(groceryItemRepository, entityManager, catalogSnapshotCache,
+                new TransactionTemplate(transactionManager), new ObjectMapper(), new ConflictRetry(3, Duration.ZERO, Duration.ZERO), 2);
+    }
+
+    @Test
+    void testImportCsv_InsertsAndUpdatesInChunks() {
+        // Mock data
+        GroceryItem sugar = new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00);
+        when(groceryItemRepository.findAllById(List.of(1L))).thenReturn(List.of(sugar));
+        String csv = "id,name,price,unitOfMeasure,quantity\n"
+                + "1,Sugar,45,KILOGRAM,120\n"
+                + ",\"Rice, basmati\",60,KILOGRAM,80\n"
+                + ",Rin Soap,12,PIECE,200\n";
+
+        // Call service method
+        ImportReport report = catalogImportService.importGroceryItems(stream(csv), ImportFormat.CSV);
+
+        // Verify
+        assertEquals(3, report.getLinesRead());
+        assertEquals(2, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(0, report.getFailed());
+        assertEquals(45, sugar.getPrice());
+        assertEquals(120, sugar.getQuantity());
+        ArgumentCaptor<GroceryItem> inserted = ArgumentCaptor.forClass(GroceryItem.class);
+        verify(entityManager, times(2)).persist(inserted.capture());
+        assertEquals(List.of("Rice, basmati", "Rin Soap"), inserted.getAllValues().stream().map(GroceryItem::getName).toList());
+        verify(transactionManager, times(2)).commit(any());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        assertEquals(3, catalogSnapshotCache.getVersion(), "Each committed chunk should invalidate the catalog");
+    }
+
+    @Test
+    void testImportNdjson_ReportsBadLinesAndKeepsTheRest() {
+        // Mock data
+        when(groceryItemRepository.findAllById(List.of(9L))).thenReturn(List.of());
+        String ndjson = "{\"name\":\"Milk\",\"price\":1.5,\"unitOfMeasure\":\"LITER\",\"quantity\":30}\n"
+                + "{not json}\n"
+                + "\n"
+                + "{\"name\":\"Oil\",\"price\":-1,\"unitOfMeasure\":\"LITER\",\"quantity\":5}\n"
+                + "{\"id\":9,\"name\":\"Salt\",\"price\":2,\"unitOfMeasure\":\"KILOGRAM\",\"quantity\":5}\n";
+
+        // Call service method
+        ImportReport report = catalogImportService.importGroceryItems(stream(ndjson), ImportFormat.NDJSON);
+
+        // Verify
+        assertEquals(4, report.getLinesRead());
+        assertEquals(1, report.getInserted());
+        assertEquals(0, report.getUpdated());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(2L, 4L, 5L), report.getErrors().stream().map(ImportError::line).toList());
+        assertEquals("price must be zero or more", report.getErrors().get(1).message());
+        assertEquals("Grocery item not found", report.getErrors().get(2).message());
+    }
+
+    @Test
+    void testImport_FailedChunkReportsEveryLineInIt() {
+        // Mock the first commit failing, the second succeeding
+        doThrow(new TransactionSystemException("Commit failed")).doNothing().when(transactionManager).commit(any());
+        String ndjson = "{\"name\":\"Milk\",\"price\":1,\"unitOfMeasure\":\"LITER\",\"quantity\":1}\n"
+                + "{\"name\":\"Curd\",\"price\":1,\"unitOfMeasure\":\"LITER\",\"quantity\":1}\n"
+                + "{\"name\":\"Ghee\",\"price\":1,\"unitOfMeasure\":\"LITER\",\"quantity\":1}\n";
+
+        // Call service method
+        ImportReport report = catalogImportService.importGroceryItems(stream(ndjson), ImportFormat.NDJSON);
+
+        // Verify
+        assertEquals(1, report.getInserted());
+        assertEquals(2, report.getFailed());
+        assertEquals(List.of(1L, 2L), report.getErrors().stream().map(ImportError::line).toList());
+    }
+
+    @Test
+    void testImport_ChunkThatLosesAVersionCheckIsRetried() {
+        // Mock data: an order reserves stock between the chunk's read and its flush
+        when(groceryItemRepository.findAllById(List.of(1L)))
+                .thenAnswer(invocation -> List.of(new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00)));
+        doThrow(new OptimisticLockException("Row was updated by another transaction")).doNothing().when(entityManager).flush();
+        String csv = "id,name,price,unitOfMeasure,quantity\n"
+                + "1,Sugar,45,KILOGRAM,120\n";
+
+        // Call service method
+        ImportReport report = catalogImportService.importGroceryItems(stream(csv), ImportFormat.CSV);
+
+        // Verify
+        assertEquals(1, report.getUpdated());
+        assertEquals(0, report.getFailed());
+        verify(groceryItemRepository, times(2)).findAllById(List.of(1L));
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testImportCsv_RejectsUnknownHeader() {
+        ApiException exception = assertThrows(ApiException.class,
+                () -> catalogImportService.importGroceryItems(stream("name,cost\nSugar,1\n"), ImportFormat.CSV));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(entityManager, transactionManager);
+    }
+
+    @Test
+    void testImportReport_KeepsBoundedErrorDetails() {
+        ImportReport report = new ImportReport();
+        for (int line = 1; line <= ImportReport.MAX_REPORTED_ERRORS + 5; line++) {
+            report.failed(line, "name is required");
+        }
+
+        assertEquals(ImportReport.MAX_REPORTED_ERRORS + 5, report.getFailed());
+        assertEquals(ImportReport.MAX_REPORTED_ERRORS, report.getErrors().size());
+        assertTrue(report.isErrorsTruncated());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,57 @@
+package com.store.grocery.service;
+
+import com.store.grocery.entity.GroceryItem;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConflictRetryTest {
+
+    private final ConflictRetry conflictRetry = new ConflictRetry(3, Duration.ofMillis(1), Duration.ofMillis(2));
+
+    @Test
+    void testRun_RetriesUntilTheActionWins() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Call method under test
+        String result = conflictRetry.run(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockException("stale");
+            }
+            return "saved";
+        });
+
+        // Verify
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testRun_RethrowsTheLastConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Call method under test and verify
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> conflictRetry.run(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(GroceryItem.class, 1L);
+        }));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testRun_DoesNotRetryOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Call method under test and verify
+        assertThrows(IllegalStateException.class, () -> conflictRetry.run(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
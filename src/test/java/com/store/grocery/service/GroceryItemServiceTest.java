@@ -1,16 +1,26 @@
 package com.store.grocery.service;
 
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.entity.CatalogFilter;
 import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.InventoryAdjustment;
 import com.store.grocery.entity.UnitOfMeasurement;
 import com.store.grocery.exception.ApiException;
 import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.response.CatalogPage;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.support.CatalogItemViews;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +33,13 @@ public class GroceryItemServiceTest {
     @Mock
     private GroceryItemRepository groceryItemRepository;
 
+    @Mock
+    private CatalogSnapshotCache catalogSnapshotCache;
+
+    // Real retries without the pauses between them
+    @Spy
+    private ConflictRetry conflictRetry = new ConflictRetry(3, Duration.ZERO, Duration.ZERO);
+
     @InjectMocks
     private GroceryItemService groceryItemService;
 
@@ -45,6 +62,7 @@ public class GroceryItemServiceTest {
 
         // Verify that the repository method was called once with the correct list of grocery items
         verify(groceryItemRepository, times(1)).saveAll(mockGroceryItems);
+        verify(catalogSnapshotCache, times(1)).invalidate();
 
     }
 
@@ -64,6 +82,7 @@ public class GroceryItemServiceTest {
 
         // Verify
         assertEquals("Failed to add grocery item", exception.getMessage());
+        verify(catalogSnapshotCache, never()).invalidate();
     }
 
     // Fetch Grocery Item testing
@@ -76,24 +95,24 @@ public class GroceryItemServiceTest {
         );
 
         // Mock repository method
-        when(groceryItemRepository.findAll()).thenReturn(mockGroceryItems);
+        when(groceryItemRepository.findAllByOrderById()).thenReturn(CatalogItemViews.of(mockGroceryItems));
 
         // Call service method
-        List<GroceryItem> result = groceryItemService.fetchAllGroceryItems();
+        List<GroceryItemResponse> result = groceryItemService.fetchAllGroceryItems();
 
         // Verify
         assertNotNull(result, "Result should not be null");
         assertEquals(mockGroceryItems.size(), result.size(), "Result list size should match input list size");
         for (int i = 0; i < mockGroceryItems.size(); i++) {
-            assertEquals(mockGroceryItems.get(i), result.get(i), "Grocery item at index " + i + " should match");
+            assertEquals(GroceryItemResponse.from(mockGroceryItems.get(i)), result.get(i), "Grocery item at index " + i + " should match");
         }
-        verify(groceryItemRepository, times(1)).findAll();
+        verify(groceryItemRepository, times(1)).findAllByOrderById();
     }
 
     @Test
     void testFetchAllGroceryItems_Exception() {
         // Mock repository method to throw an exception
-        when(groceryItemRepository.findAll()).thenThrow(new RuntimeException());
+        when(groceryItemRepository.findAllByOrderById()).thenThrow(new RuntimeException());
 
         // Verify that the service method throws ApiException
         ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.fetchAllGroceryItems());
@@ -102,6 +121,65 @@ public class GroceryItemServiceTest {
         assertEquals("Failed to retrieve grocery items", exception.getMessage());
     }
 
+    // Keyset page testing
+    @Test
+    void testFetchGroceryItemsPage_HasNextPage() {
+        // Mock data: size + 1 rows means there is another page
+        List<GroceryItem> rows = List.of(
+                new GroceryItem(11L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00),
+                new GroceryItem(12L, "Rice", 60, UnitOfMeasurement.KILOGRAM, 80),
+                new GroceryItem(13L, "Wheat", 35, UnitOfMeasurement.KILOGRAM, 90));
+        CatalogFilter filter = new CatalogFilter(10L, 2, 20.0, 70.0, UnitOfMeasurement.KILOGRAM, true);
+        when(groceryItemRepository.findPageAfter(10L, 20.0, 70.0, UnitOfMeasurement.KILOGRAM, true, PageRequest.of(0, 3)))
+                .thenReturn(CatalogItemViews.of(rows));
+
+        // Call service method
+        CatalogPage<GroceryItemResponse> page = groceryItemService.fetchGroceryItemsPage(filter);
+
+        // Verify
+        assertEquals(rows.subList(0, 2).stream().map(GroceryItemResponse::from).toList(), page.getItems());
+        assertEquals(12L, page.getNextCursor());
+    }
+
+    @Test
+    void testFetchGroceryItemsPage_LastPage() {
+        // Mock data
+        List<GroceryItem> rows = List.of(new GroceryItem(11L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00));
+        when(groceryItemRepository.findPageAfter(0L, null, null, null, false, PageRequest.of(0, 51))).thenReturn(CatalogItemViews.of(rows));
+
+        // Call service method
+        CatalogPage<GroceryItemResponse> page = groceryItemService.fetchGroceryItemsPage(new CatalogFilter());
+
+        // Verify
+        assertEquals(List.of(GroceryItemResponse.from(rows.get(0))), page.getItems());
+        assertNull(page.getNextCursor(), "Last page should not carry a cursor");
+    }
+
+    @Test
+    void testFetchGroceryItemsPage_InvalidSize() {
+        CatalogFilter filter = new CatalogFilter();
+        filter.setSize(0);
+
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.fetchGroceryItemsPage(filter));
+
+        // Verify
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(groceryItemRepository);
+    }
+
+    @Test
+    void testFetchGroceryItemsPage_InvalidPriceRange() {
+        CatalogFilter filter = new CatalogFilter(null, 10, 50.0, 10.0, null, false);
+
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.fetchGroceryItemsPage(filter));
+
+        // Verify
+        assertEquals("minPrice cannot be greater than maxPrice", exception.getMessage());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
     // Remove grocery item testing
     @Test
     void testRemoveGroceryItem_Success() {
@@ -116,6 +194,7 @@ public class GroceryItemServiceTest {
         // Verify
         verify(groceryItemRepository, times(1)).findById(itemId);
         //verify(groceryItemRepository, times(1)).deleteById(List.of(itemId));
+        verify(catalogSnapshotCache, times(1)).invalidate();
     }
 
     @Test
@@ -171,6 +250,82 @@ public class GroceryItemServiceTest {
         assertEquals(updatedItem.getQuantity(), result.getQuantity(), "Updated item quantity should match");
         verify(groceryItemRepository, times(1)).findById(itemId);
         verify(groceryItemRepository, times(1)).save(existingItem);
+        verify(catalogSnapshotCache, times(1)).invalidate();
+    }
+
+    @Test
+    void testUpdateGroceryItem_RetriesOnVersionConflict() {
+        // Mock data
+        Long itemId = 1L;
+        GroceryItem updatedItem = new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00);
+        GroceryItem staleItem = new GroceryItem(1L, "Sugar", 38.50, UnitOfMeasurement.KILOGRAM, 150.00);
+        GroceryItem freshItem = new GroceryItem(1L, "Sugar", 38.50, UnitOfMeasurement.KILOGRAM, 149.00);
+        freshItem.setVersion(1);
+        when(groceryItemRepository.findById(itemId)).thenReturn(Optional.of(staleItem), Optional.of(freshItem));
+        when(groceryItemRepository.save(staleItem)).thenThrow(new ObjectOptimisticLockingFailureException(GroceryItem.class, itemId));
+        when(groceryItemRepository.save(freshItem)).thenReturn(freshItem);
+
+        // Call service method
+        GroceryItem result = groceryItemService.updateGroceryItem(itemId, updatedItem);
+
+        // Verify
+        assertSame(freshItem, result);
+        assertEquals(42.50, result.getPrice());
+        verify(groceryItemRepository, times(2)).findById(itemId);
+        verify(catalogSnapshotCache, times(1)).invalidate();
+    }
+
+    @Test
+    void testUpdateGroceryItem_ConflictAfterRetries() {
+        // Mock data
+        Long itemId = 1L;
+        GroceryItem updatedItem = new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00);
+        when(groceryItemRepository.findById(itemId)).thenAnswer(invocation -> Optional.of(new GroceryItem(1L, "Sugar", 38.50, UnitOfMeasurement.KILOGRAM, 150.00)));
+        when(groceryItemRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(GroceryItem.class, itemId));
+
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.updateGroceryItem(itemId, updatedItem));
+
+        // Verify
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(groceryItemRepository, times(3)).save(any());
+        verify(catalogSnapshotCache, never()).invalidate();
+    }
+
+    @Test
+    void testUpdateGroceryItem_StaleIfMatchVersion() {
+        // Mock data
+        Long itemId = 1L;
+        GroceryItem updatedItem = new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00);
+        GroceryItem existingItem = new GroceryItem(1L, "Sugar", 38.50, UnitOfMeasurement.KILOGRAM, 150.00);
+        existingItem.setVersion(7);
+        when(groceryItemRepository.findById(itemId)).thenReturn(Optional.of(existingItem));
+
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.updateGroceryItem(itemId, updatedItem, 6L));
+
+        // Verify
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatus());
+        verify(groceryItemRepository, never()).save(any());
+        verify(conflictRetry, never()).run(any());
+    }
+
+    @Test
+    void testUpdateGroceryItem_IfMatchLosesRace() {
+        // Mock data
+        Long itemId = 1L;
+        GroceryItem updatedItem = new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00);
+        GroceryItem existingItem = new GroceryItem(1L, "Sugar", 38.50, UnitOfMeasurement.KILOGRAM, 150.00);
+        existingItem.setVersion(7);
+        when(groceryItemRepository.findById(itemId)).thenReturn(Optional.of(existingItem));
+        when(groceryItemRepository.save(existingItem)).thenThrow(new ObjectOptimisticLockingFailureException(GroceryItem.class, itemId));
+
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.updateGroceryItem(itemId, updatedItem, 7L));
+
+        // Verify: a conditional update is never retried
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatus());
+        verify(groceryItemRepository, times(1)).save(existingItem);
     }
 
     @Test
@@ -213,17 +368,16 @@ public class GroceryItemServiceTest {
         // Mock data
         Long itemId = 1L;
         double quantity = 10.0;
-        GroceryItem groceryItem = new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00);
-        when(groceryItemRepository.findById(itemId)).thenReturn(Optional.of(groceryItem));
-        when(groceryItemRepository.save(groceryItem)).thenReturn(groceryItem);
+        when(groceryItemRepository.updateQuantity(itemId, quantity)).thenReturn(1);
 
         // Call service method
         assertDoesNotThrow(() -> groceryItemService.manageInventory(itemId, quantity));
 
         // Verify
-        assertEquals(quantity, groceryItem.getQuantity(), "Inventory quantity should be updated");
-        verify(groceryItemRepository, times(1)).findById(itemId);
-        verify(groceryItemRepository, times(1)).save(groceryItem);
+        verify(groceryItemRepository, times(1)).updateQuantity(itemId, quantity);
+        verify(groceryItemRepository, never()).findById(any());
+        verify(groceryItemRepository, never()).save(any());
+        verify(catalogSnapshotCache, times(1)).invalidate();
     }
 
     @Test
@@ -231,7 +385,7 @@ public class GroceryItemServiceTest {
         // Mock data
         Long itemId = 1L;
         double quantity = 10.0;
-        when(groceryItemRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(groceryItemRepository.updateQuantity(itemId, quantity)).thenReturn(0);
 
         // Verify that the service method throws ApiException
         ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.manageInventory(itemId, quantity));
@@ -239,8 +393,46 @@ public class GroceryItemServiceTest {
         // Verify
         assertEquals("Grocery item not found", exception.getMessage());
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
-        verify(groceryItemRepository, times(1)).findById(itemId);
-        verify(groceryItemRepository, never()).save(any());
+        verify(groceryItemRepository, times(1)).updateQuantity(itemId, quantity);
+        verify(catalogSnapshotCache, never()).invalidate();
+    }
+
+    @Test
+    void testManageInventory_IfMatchVersion() {
+        // Mock data
+        when(groceryItemRepository.updateQuantityIfVersion(1L, 10.0, 3L)).thenReturn(1);
+
+        // Call service method
+        assertDoesNotThrow(() -> groceryItemService.manageInventory(1L, 10.0, 3L));
+
+        // Verify
+        verify(groceryItemRepository, never()).updateQuantity(anyLong(), anyDouble());
+        verify(catalogSnapshotCache, times(1)).invalidate();
+    }
+
+    @Test
+    void testManageInventory_StaleIfMatchVersion() {
+        // Mock data
+        when(groceryItemRepository.updateQuantityIfVersion(1L, 10.0, 3L)).thenReturn(0);
+        when(groceryItemRepository.existsById(1L)).thenReturn(true);
+
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.manageInventory(1L, 10.0, 3L));
+
+        // Verify
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatus());
+        verify(catalogSnapshotCache, never()).invalidate();
+    }
+
+    @Test
+    void testManageInventory_NegativeQuantity() {
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.manageInventory(1L, -10.0));
+
+        // Verify
+        assertEquals("Quantity cannot be negative", exception.getMessage());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(groceryItemRepository, never()).updateQuantity(anyLong(), anyDouble());
     }
 
     @Test
@@ -248,7 +440,7 @@ public class GroceryItemServiceTest {
         // Mock data
         Long itemId = 1L;
         double quantity = 10.0;
-        when(groceryItemRepository.findById(itemId)).thenThrow(new RuntimeException());
+        when(groceryItemRepository.updateQuantity(itemId, quantity)).thenThrow(new RuntimeException());
 
         // Verify that the service method throws ApiException
         ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.manageInventory(itemId, quantity));
@@ -256,7 +448,53 @@ public class GroceryItemServiceTest {
         // Verify
         assertEquals("Failed to manage inventory", exception.getMessage());
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, exception.getStatus());
-        verify(groceryItemRepository, times(1)).findById(itemId);
-        verify(groceryItemRepository, never()).save(any());
+        verify(groceryItemRepository, times(1)).updateQuantity(itemId, quantity);
+        verify(catalogSnapshotCache, never()).invalidate();
+    }
+
+    @Test
+    void testAddInventory_Success() {
+        // Mock data
+        Long itemId = 1L;
+        when(groceryItemRepository.adjustStock(anyList())).thenReturn(new int[] {1});
+
+        // Call service method
+        assertDoesNotThrow(() -> groceryItemService.addInventory(itemId, -4.0));
+
+        // Verify
+        verify(groceryItemRepository).adjustStock(argThat(adjustments -> adjustments.size() == 1
+                && adjustments.get(0).getMode() == InventoryAdjustment.Mode.ADD && adjustments.get(0).getQuantity() == -4.0));
+        verify(groceryItemRepository, never()).existsById(any());
+        verify(catalogSnapshotCache, times(1)).invalidate();
+    }
+
+    @Test
+    void testAddInventory_InsufficientStock() {
+        // Mock data
+        Long itemId = 1L;
+        when(groceryItemRepository.adjustStock(anyList())).thenReturn(new int[] {0});
+        when(groceryItemRepository.existsById(itemId)).thenReturn(true);
+
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.addInventory(itemId, -40.0));
+
+        // Verify
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(catalogSnapshotCache, never()).invalidate();
+    }
+
+    @Test
+    void testAddInventory_NotFound() {
+        // Mock data
+        Long itemId = 1L;
+        when(groceryItemRepository.adjustStock(anyList())).thenReturn(new int[] {0});
+        when(groceryItemRepository.existsById(itemId)).thenReturn(false);
+
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> groceryItemService.addInventory(itemId, 5.0));
+
+        // Verify
+        assertEquals("Grocery item not found", exception.getMessage());
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
     }
 }
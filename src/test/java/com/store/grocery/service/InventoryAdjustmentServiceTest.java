@@ -0,0 +1,152 @@
+package com.store.grocery.service;
+
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.entity.InventoryAdjustment;
+import com.store.grocery.entity.InventoryAdjustment.Mode;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.response.BulkInventoryReport;
+import com.store.grocery.response.InventoryAdjustmentResult;
+import com.store.grocery.response.InventoryAdjustmentResult.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryAdjustmentServiceTest {
+
+    @Mock
+    private GroceryItemRepository groceryItemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogSnapshotCache catalogSnapshotCache;
+
+    private InventoryAdjustmentService inventoryAdjustmentService;
+
+    @BeforeEach
+    public void setUp() {
+        catalogSnapshotCache = new CatalogSnapshotCache(groceryItemRepository);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // Chunks of two adjustments, at most five per request
+        inventoryAdjustmentService = new InventoryAdjustmentService(groceryItemRepository, catalogSnapshotCache,
+                new TransactionTemplate(transactionManager), 2, 5);
+    }
+
+    @Test
+    void testAdjustInventory_AppliesChunksInItemIdOrder() {
+        // Mock data
+        List<InventoryAdjustment> adjustments = List.of(
+                new InventoryAdjustment(3L, Mode.SET, 30),
+                new InventoryAdjustment(1L, Mode.ADD, 5),
+                new InventoryAdjustment(2L, Mode.SET, 20));
+        when(groceryItemRepository.adjustStock(any())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<?>>getArgument(0).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        long version = catalogSnapshotCache.getVersion();
+
+        // Call service method
+        BulkInventoryReport report = inventoryAdjustmentService.adjustInventory(adjustments);
+
+        // Verify
+        assertEquals(3, report.applied());
+        assertEquals(0, report.rejected());
+        assertEquals(List.of(3L, 1L, 2L), report.results().stream().map(InventoryAdjustmentResult::itemId).toList());
+        assertTrue(report.results().stream().allMatch(result -> result.status() == Status.APPLIED));
+        ArgumentCaptor<List<InventoryAdjustment>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(groceryItemRepository, times(2)).adjustStock(chunks.capture());
+        assertEquals(List.of(1L, 2L), chunks.getAllValues().get(0).stream().map(InventoryAdjustment::getItemId).toList());
+        assertEquals(List.of(3L), chunks.getAllValues().get(1).stream().map(InventoryAdjustment::getItemId).toList());
+        verify(transactionManager, times(2)).commit(any());
+        verify(groceryItemRepository, never()).findExistingIds(any());
+        assertTrue(catalogSnapshotCache.getVersion() > version);
+    }
+
+    @Test
+    void testAdjustInventory_ReportsMissingItemsAndInsufficientStock() {
+        // Mock data
+        List<InventoryAdjustment> adjustments = List.of(
+                new InventoryAdjustment(1L, Mode.ADD, -50),
+                new InventoryAdjustment(9L, Mode.SET, 10));
+        when(groceryItemRepository.adjustStock(any())).thenReturn(new int[] {0, 0});
+        when(groceryItemRepository.findExistingIds(Set.of(1L, 9L))).thenReturn(List.of(1L));
+
+        // Call service method
+        BulkInventoryReport report = inventoryAdjustmentService.adjustInventory(adjustments);
+
+        // Verify
+        assertEquals(0, report.applied());
+        assertEquals(2, report.rejected());
+        assertEquals(List.of(new InventoryAdjustmentResult(1L, Status.INSUFFICIENT_STOCK), new InventoryAdjustmentResult(9L, Status.NOT_FOUND)),
+                report.results());
+    }
+
+    @Test
+    void testAdjustInventory_RejectsInvalidLinesWithoutTouchingTheDatabase() {
+        // Mock data
+        List<InventoryAdjustment> adjustments = List.of(
+                new InventoryAdjustment(null, Mode.SET, 10),
+                new InventoryAdjustment(1L, Mode.SET, -1),
+                new InventoryAdjustment(2L, null, 1));
+
+        // Call service method
+        BulkInventoryReport report = inventoryAdjustmentService.adjustInventory(adjustments);
+
+        // Verify
+        assertEquals(0, report.applied());
+        assertTrue(report.results().stream().allMatch(result -> result.status() == Status.INVALID));
+        verifyNoInteractions(groceryItemRepository, transactionManager);
+    }
+
+    @Test
+    void testAdjustInventory_FailedChunkDoesNotAffectOtherChunks() {
+        // Mock data
+        List<InventoryAdjustment> adjustments = List.of(
+                new InventoryAdjustment(1L, Mode.SET, 1),
+                new InventoryAdjustment(2L, Mode.SET, 2),
+                new InventoryAdjustment(3L, Mode.SET, 3));
+        when(groceryItemRepository.adjustStock(any()))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout"))
+                .thenReturn(new int[] {1});
+
+        // Call service method
+        BulkInventoryReport report = inventoryAdjustmentService.adjustInventory(adjustments);
+
+        // Verify
+        assertEquals(1, report.applied());
+        assertEquals(List.of(Status.FAILED, Status.FAILED, Status.APPLIED),
+                report.results().stream().map(InventoryAdjustmentResult::status).toList());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void testAdjustInventory_TooManyAdjustments() {
+        // Mock data
+        List<InventoryAdjustment> adjustments = Collections.nCopies(6, new InventoryAdjustment(1L, Mode.ADD, 1));
+
+        // Call service method and verify
+        ApiException exception = assertThrows(ApiException.class, () -> inventoryAdjustmentService.adjustInventory(adjustments));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(groceryItemRepository);
+    }
+}
@@ -1,18 +1,44 @@
 package com.store.grocery.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.grocery.cache.CatalogPayload;
+import com.store.grocery.cache.CatalogPayloadCache;
+import com.store.grocery.cache.CatalogSnapshotCache;
+import com.store.grocery.cache.IdempotencyKeyIndex;
+import com.store.grocery.datasource.DataSourceRoutingProperties;
+import com.store.grocery.datasource.ReadYourWrites;
 import com.store.grocery.entity.*;
 import com.store.grocery.exception.ApiException;
 import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.repository.ItemSalesTotalRepository;
 import com.store.grocery.repository.OrderItemRepository;
 import com.store.grocery.repository.OrderRepository;
 import com.store.grocery.repository.UserRepository;
+import com.store.grocery.response.CatalogPage;
+import com.store.grocery.response.GroceryItemResponse;
+import com.store.grocery.response.OrderLine;
+import com.store.grocery.response.OrderSummary;
+import com.store.grocery.response.SuccessResponse;
+import com.store.grocery.sales.ItemSalesProperties;
+import com.store.grocery.sales.ItemSalesService;
+import com.store.grocery.support.CatalogItemViews;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,9 +61,39 @@ public class UserServiceImplTest {
 
     @Mock
     private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private GroceryItemService groceryItemService;
+
+    @Mock
+    private ItemSalesTotalRepository itemSalesTotalRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogSnapshotCache catalogSnapshotCache;
+
+    private IdempotencyKeyIndex idempotencyKeyIndex;
+
+    private ItemSalesService itemSalesService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private UserServiceImpl userServiceImpl;
 
+    @BeforeEach
+    public void setUp() {
+        // Real cache over the mocked repository, so reads still reach findByQuantityGreaterThan on a miss
+        catalogSnapshotCache = new CatalogSnapshotCache(groceryItemRepository);
+        idempotencyKeyIndex = new IdempotencyKeyIndex(100, Duration.ofHours(1));
+        // Not started, so counted sales stay in memory
+        itemSalesService = new ItemSalesService(itemSalesTotalRepository, new ItemSalesProperties());
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        userServiceImpl = new UserServiceImpl(groceryItemRepository, userRepository, orderRepository, orderItemRepository, catalogSnapshotCache, groceryItemService,
+                new CatalogPayloadCache(objectMapper), idempotencyKeyIndex, new ReadYourWrites(new DataSourceRoutingProperties()), new TransactionTemplate(transactionManager), itemSalesService);
+    }
+
     @Test
     void testViewAvailableGroceryItems_Success() {
         // Mock data
@@ -46,20 +102,59 @@ public class UserServiceImplTest {
                 new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00),
                 new GroceryItem(2L, "Rin Soap", 12, UnitOfMeasurement.PIECE, 200)
         );
-        when(groceryItemRepository.findByQuantityGreaterThan(0)).thenReturn(availableItems);
+        when(groceryItemRepository.findByQuantityGreaterThan(0)).thenReturn(CatalogItemViews.of(availableItems));
 
         // Call service method
-        List<GroceryItem> result = userServiceImpl.viewAvailableGroceryItems();
+        List<GroceryItemResponse> result = userServiceImpl.viewAvailableGroceryItems();
 
         // Verify
         assertNotNull(result, "Result should not be null");
         assertEquals(availableItems.size(), result.size(), "Result list size should match input list size");
         for (int i = 0; i < availableItems.size(); i++) {
-            assertEquals(availableItems.get(i), result.get(i), "Grocery item at index " + i + " should match");
+            assertEquals(GroceryItemResponse.from(availableItems.get(i)), result.get(i), "Grocery item at index " + i + " should match");
         }
         verify(groceryItemRepository, times(1)).findByQuantityGreaterThan(0);
     }
 
+    @Test
+    void testViewAvailableGroceryItems_ServedFromSnapshotUntilInvalidated() {
+        List<GroceryItem> availableItems = List.of(
+                new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00));
+        when(groceryItemRepository.findByQuantityGreaterThan(0)).thenReturn(CatalogItemViews.of(availableItems));
+
+        userServiceImpl.viewAvailableGroceryItems();
+        userServiceImpl.viewAvailableGroceryItems();
+        verify(groceryItemRepository, times(1)).findByQuantityGreaterThan(0);
+
+        catalogSnapshotCache.invalidate();
+        List<GroceryItemResponse> result = userServiceImpl.viewAvailableGroceryItems();
+
+        assertEquals(List.of(GroceryItemResponse.from(availableItems.get(0))), result);
+        verify(groceryItemRepository, times(2)).findByQuantityGreaterThan(0);
+    }
+
+    @Test
+    void testViewAvailableGroceryItemsPayload_SerializedOncePerVersion() throws Exception {
+        List<GroceryItem> availableItems = List.of(
+                new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00));
+        when(groceryItemRepository.findByQuantityGreaterThan(0)).thenReturn(CatalogItemViews.of(availableItems));
+
+        CatalogPayload first = userServiceImpl.viewAvailableGroceryItemsPayload();
+        CatalogPayload second = userServiceImpl.viewAvailableGroceryItemsPayload();
+
+        assertSame(first, second, "Unchanged catalog should reuse the serialized payload");
+        assertEquals(catalogSnapshotCache.getVersionTag(), first.getVersionTag());
+        assertEquals(objectMapper.writeValueAsString(new SuccessResponse<>(true, "Successfully fetched available grocery items",
+                        availableItems.stream().map(GroceryItemResponse::from).toList())),
+                new String(first.getIdentity().toByteArray(), StandardCharsets.UTF_8));
+
+        catalogSnapshotCache.invalidate();
+        CatalogPayload third = userServiceImpl.viewAvailableGroceryItemsPayload();
+
+        assertNotSame(first, third);
+        assertEquals(catalogSnapshotCache.getVersion(), third.getVersion());
+    }
+
     @Test
     void testViewAvailableGroceryItems_Exception() {
         // Mock repository method to throw an exception
@@ -74,6 +169,19 @@ public class UserServiceImplTest {
         verify(groceryItemRepository, times(1)).findByQuantityGreaterThan(0);
     }
 
+    @Test
+    void testViewAvailableGroceryItemsPage_OnlyInStock() {
+        CatalogFilter filter = new CatalogFilter();
+        filter.setSize(10);
+        CatalogPage<GroceryItemResponse> page = new CatalogPage<>(List.of(), null);
+        when(groceryItemService.fetchGroceryItemsPage(filter)).thenReturn(page);
+
+        CatalogPage<GroceryItemResponse> result = userServiceImpl.viewAvailableGroceryItemsPage(filter);
+
+        assertSame(page, result);
+        assertTrue(filter.isInStock(), "Shoppers should only page through in-stock items");
+    }
+
     //order testing
     @Test
     void testCreateOrder_Success() {
@@ -99,21 +207,86 @@ public class UserServiceImplTest {
 
         GroceryItem groceryItem1 = new GroceryItem(1L, "Sugar", price1, UnitOfMeasurement.KILOGRAM, 150.00);
         groceryItem1.setId(itemId1);
-        when(groceryItemRepository.findById(itemId1)).thenReturn(Optional.of(groceryItem1));
 
         GroceryItem groceryItem2 = new GroceryItem(2L, "Rin Soap", price2, UnitOfMeasurement.PIECE, 200);
         groceryItem2.setId(itemId2);
-        when(groceryItemRepository.findById(itemId2)).thenReturn(Optional.of(groceryItem2));
+        when(groceryItemRepository.findAllById(itemWithQuantity.keySet())).thenReturn(List.of(groceryItem1, groceryItem2));
+        when(groceryItemRepository.reserveStock(anyLong(), anyDouble())).thenReturn(1);
 
         // Call service method
         assertDoesNotThrow(() -> userServiceImpl.createOrder(orderRequest));
 
         // Verify
+        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
         verify(userRepository, times(1)).findById(userId);
-        verify(groceryItemRepository, times(1)).findById(itemId1);
-        verify(groceryItemRepository, times(1)).findById(itemId2);
-        verify(orderRepository, times(2)).save(any(Order.class));
+        verify(groceryItemRepository, times(1)).findAllById(itemWithQuantity.keySet());
+        verify(groceryItemRepository, never()).findById(anyLong());
+        verify(orderRepository, times(1)).save(orderCaptor.capture());
         verify(orderItemRepository, times(1)).saveAll(any());
+        assertEquals(2, orderCaptor.getValue().getOrderItems().size());
+        assertEquals(price1 * qty1 + price2 * qty2, orderCaptor.getValue().getTotalPrice(), 0.0001);
+
+        // Stock is reserved in ascending item id order
+        InOrder inOrder = inOrder(groceryItemRepository);
+        inOrder.verify(groceryItemRepository).reserveStock(itemId1, qty1);
+        inOrder.verify(groceryItemRepository).reserveStock(itemId2, qty2);
+
+        // Both lines are counted for the top sellers
+        assertEquals(2, itemSalesService.getStats().getLinesRecorded());
+    }
+
+    @Test
+    void testCreateOrder_InsufficientStock() {
+        // Mock data
+        CreateOrderRequest orderRequest = new CreateOrderRequest();
+        orderRequest.setUserId(1L);
+        Map<Long, Double> itemWithQuantity = new HashMap<>();
+        itemWithQuantity.put(1L, 2.0);
+        itemWithQuantity.put(2L, 500.0);
+        orderRequest.setItemWithQuantity(itemWithQuantity);
+
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(groceryItemRepository.findAllById(itemWithQuantity.keySet())).thenReturn(List.of(
+                new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00),
+                new GroceryItem(2L, "Rin Soap", 12, UnitOfMeasurement.PIECE, 200)));
+        when(groceryItemRepository.reserveStock(1L, 2.0)).thenReturn(1);
+        when(groceryItemRepository.reserveStock(2L, 500.0)).thenReturn(0);
+
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> userServiceImpl.createOrder(orderRequest));
+
+        // Verify
+        assertEquals("Insufficient stock for grocery item 2", exception.getMessage());
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(orderRepository, never()).save(any());
+        verify(orderItemRepository, never()).saveAll(any());
+        assertEquals(0, itemSalesService.getStats().getLinesRecorded());
+    }
+
+    @Test
+    void testCreateOrder_NonPositiveQuantity() {
+        // Mock data
+        CreateOrderRequest orderRequest = new CreateOrderRequest();
+        orderRequest.setUserId(1L);
+        Map<Long, Double> itemWithQuantity = new HashMap<>();
+        itemWithQuantity.put(1L, -2.0);
+        orderRequest.setItemWithQuantity(itemWithQuantity);
+
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(groceryItemRepository.findAllById(itemWithQuantity.keySet())).thenReturn(List.of(
+                new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00)));
+
+        // Verify that the service method throws ApiException
+        ApiException exception = assertThrows(ApiException.class, () -> userServiceImpl.createOrder(orderRequest));
+
+        // Verify
+        assertEquals("Quantity must be greater than zero", exception.getMessage());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(groceryItemRepository, never()).reserveStock(anyLong(), anyDouble());
     }
 
     @Test
@@ -131,7 +304,7 @@ public class UserServiceImplTest {
         assertEquals("User not found", exception.getMessage());
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
         verify(userRepository, times(1)).findById(1L);
-        verify(groceryItemRepository, never()).findById(anyLong());
+        verify(groceryItemRepository, never()).findAllById(any());
         verify(orderRepository, never()).save(any());
         verify(orderItemRepository, never()).saveAll(any());
     }
@@ -149,7 +322,7 @@ public class UserServiceImplTest {
         user.setId(1L);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
-        when(groceryItemRepository.findById(1L)).thenReturn(Optional.empty());
+        when(groceryItemRepository.findAllById(itemWithQuantity.keySet())).thenReturn(List.of());
 
         // Verify that the service method throws ApiException
         var exception = assertThrows(ApiException.class, () ->
@@ -160,9 +333,156 @@ public class UserServiceImplTest {
         assertEquals("Grocery item not found", exception.getMessage());
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
         verify(userRepository, times(1)).findById(1L);
-        verify(groceryItemRepository, times(1)).findById(1L);
-//        verify(orderRepository, never()).save(any());
-//        verify(orderItemRepository, never()).saveAll(any());
+        verify(groceryItemRepository, times(1)).findAllById(itemWithQuantity.keySet());
+        verify(orderRepository, never()).save(any());
+        verify(orderItemRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testCreateOrder_ReplayFromIndex() {
+        // Mock data
+        CreateOrderRequest orderRequest = new CreateOrderRequest(42L, 1L, Map.of(1L, 2.0), null);
+        idempotencyKeyIndex.put(1L, "42", 51L);
+
+        // Call service method
+        Long orderId = userServiceImpl.createOrder(orderRequest);
+
+        // Verify the original order is returned and nothing is written
+        assertEquals(51L, orderId);
+        verifyNoInteractions(userRepository, orderRepository, orderItemRepository, transactionManager);
+        verify(groceryItemRepository, never()).reserveStock(anyLong(), anyDouble());
+    }
+
+    @Test
+    void testCreateOrder_ReplayFromDatabase() {
+        // Mock data: the key is known to the database but not to this instance's index
+        CreateOrderRequest orderRequest = new CreateOrderRequest(null, 1L, Map.of(1L, 2.0), "c0ffee");
+        when(orderRepository.findOrderIdByIdempotencyKey(1L, "c0ffee")).thenReturn(Optional.of(51L));
+
+        // Call service method twice
+        assertEquals(51L, userServiceImpl.createOrder(orderRequest));
+        assertEquals(51L, userServiceImpl.createOrder(orderRequest));
+
+        // Verify the second replay is answered from the index
+        verify(orderRepository, times(1)).findOrderIdByIdempotencyKey(1L, "c0ffee");
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testCreateOrder_RecordsIdempotencyKey() {
+        // Mock data
+        CreateOrderRequest orderRequest = new CreateOrderRequest(42L, 1L, Map.of(1L, 2.0), "c0ffee");
+        User user = new User();
+        user.setId(1L);
+        when(orderRepository.findOrderIdByIdempotencyKey(1L, "c0ffee")).thenReturn(Optional.empty());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(groceryItemRepository.findAllById(any())).thenReturn(List.of(new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00)));
+        when(groceryItemRepository.reserveStock(1L, 2.0)).thenReturn(1);
+        when(orderRepository.save(any())).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setOrderId(51L);
+            return order;
+        });
+
+        // Call service method
+        Long orderId = userServiceImpl.createOrder(orderRequest);
+
+        // Verify the header key wins over the body orderId and is remembered
+        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository).save(orderCaptor.capture());
+        assertEquals("c0ffee", orderCaptor.getValue().getIdempotencyKey());
+        assertEquals(51L, orderId);
+        assertEquals(51L, idempotencyKeyIndex.get(1L, "c0ffee"));
+        assertNull(idempotencyKeyIndex.get(2L, "c0ffee"), "Keys are scoped to the user");
+    }
+
+    @Test
+    void testCreateOrder_ConcurrentDuplicateReturnsWinner() {
+        // Mock data: another request with the same key commits between our lookup and our commit
+        CreateOrderRequest orderRequest = new CreateOrderRequest(42L, 1L, Map.of(1L, 2.0), null);
+        User user = new User();
+        user.setId(1L);
+        when(orderRepository.findOrderIdByIdempotencyKey(1L, "42")).thenReturn(Optional.empty(), Optional.of(51L));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(groceryItemRepository.findAllById(any())).thenReturn(List.of(new GroceryItem(1L, "Sugar", 42.50, UnitOfMeasurement.KILOGRAM, 150.00)));
+        when(groceryItemRepository.reserveStock(1L, 2.0)).thenReturn(1);
+        doThrow(new DataIntegrityViolationException("uk_order_user_idempotency_key")).when(transactionManager).commit(any());
+
+        // Call service method
+        Long orderId = userServiceImpl.createOrder(orderRequest);
+
+        // Verify
+        assertEquals(51L, orderId);
+        verify(orderRepository, times(2)).findOrderIdByIdempotencyKey(1L, "42");
+    }
+
+    @Test
+    void testCreateOrder_IdempotencyKeyTooLong() {
+        CreateOrderRequest orderRequest = new CreateOrderRequest(null, 1L, Map.of(1L, 2.0), "k".repeat(65));
+
+        ApiException exception = assertThrows(ApiException.class, () -> userServiceImpl.createOrder(orderRequest));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(orderRepository);
     }
 
+    @Test
+    void testViewOrderHistory_AttachesLinesFromOneQuery() {
+        // Mock data: one row more than the page size, so there is a next page
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(orderRepository.findSummariesBefore(1L, Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(List.of(new OrderSummary(30L, 10), new OrderSummary(20L, 5), new OrderSummary(10L, 1)));
+        when(orderItemRepository.findLinesByOrderIds(any())).thenReturn(List.of(
+                new OrderLine(30L, 1L, "Sugar", UnitOfMeasurement.KILOGRAM, 2, 8),
+                new OrderLine(30L, 2L, "Rin Soap", UnitOfMeasurement.PIECE, 1, 2),
+                new OrderLine(20L, 1L, "Sugar", UnitOfMeasurement.KILOGRAM, 1, 5)));
+
+        // Call service method
+        CatalogPage<OrderSummary> page = userServiceImpl.viewOrderHistory(1L, new OrderHistoryFilter(null, 2));
+
+        // Verify
+        assertEquals(List.of(30L, 20L), page.getItems().stream().map(OrderSummary::orderId).toList());
+        assertEquals(20L, page.getNextCursor());
+        assertEquals(2, page.getItems().get(0).lines().size());
+        assertEquals(1, page.getItems().get(1).lines().size());
+        verify(orderItemRepository, times(1)).findLinesByOrderIds(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(30L, 20L))));
+    }
+
+    @Test
+    void testViewOrderHistory_LastPageSkipsLineQueryWhenEmpty() {
+        // Mock data
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(orderRepository.findSummariesBefore(1L, 10L, PageRequest.of(0, UserServiceImpl.DEFAULT_ORDER_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        // Call service method
+        CatalogPage<OrderSummary> page = userServiceImpl.viewOrderHistory(1L, new OrderHistoryFilter(10L, null));
+
+        // Verify
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verifyNoInteractions(orderItemRepository);
+    }
+
+    @Test
+    void testViewOrderHistory_UnknownUser() {
+        // Mock data
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        // Call service method and verify
+        ApiException exception = assertThrows(ApiException.class,
+                () -> userServiceImpl.viewOrderHistory(99L, new OrderHistoryFilter()));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        verifyNoInteractions(orderRepository, orderItemRepository);
+    }
+
+    @Test
+    void testViewOrderHistory_RejectsOversizedPage() {
+        // Call service method and verify
+        ApiException exception = assertThrows(ApiException.class,
+                () -> userServiceImpl.viewOrderHistory(1L, new OrderHistoryFilter(null, UserServiceImpl.MAX_ORDER_PAGE_SIZE + 1)));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(userRepository, orderRepository);
+    }
 }
@@ -0,0 +1,165 @@
+package com.store.grocery.stress;
+
+import com.store.grocery.entity.CreateOrderRequest;
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.InventoryAdjustment;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.response.BulkInventoryReport;
+import com.store.grocery.service.GroceryItemService;
+import com.store.grocery.service.InventoryAdjustmentService;
+import com.store.grocery.service.UserService;
+import com.store.grocery.support.EmbeddedStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs admin inventory writes concurrently with orders against a real database.
+ */
+@Tag("stress")
+public class InventoryStressTest {
+
+    private static final int THREADS = 32;
+
+    private static EmbeddedStore store;
+
+    private static UserService userService;
+
+    private static GroceryItemService groceryItemService;
+
+    private static GroceryItemRepository groceryItemRepository;
+
+    private static InventoryAdjustmentService inventoryAdjustmentService;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startStore() {
+        store = EmbeddedStore.start("inventory-stress");
+        userService = store.getBean(UserService.class);
+        groceryItemService = store.getBean(GroceryItemService.class);
+        groceryItemRepository = store.getBean(GroceryItemRepository.class);
+        inventoryAdjustmentService = store.getBean(InventoryAdjustmentService.class);
+        jdbcTemplate = store.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void stopStore() {
+        store.close();
+    }
+
+    @Test
+    void testRestocksDuringOrdersNeverGoNegative() throws Exception {
+        long itemId = store.seedItems(1, i -> 10).get(0);
+        List<Long> userIds = store.seedUsers(THREADS);
+        AtomicInteger negativeReads = new AtomicInteger();
+
+        // Half the threads order, the other half reset the stock level and read it back
+        StressRunner.run("restocks during orders", THREADS, 20, (thread, iteration) -> {
+            if (thread % 2 == 0) {
+                try {
+                    userService.createOrder(orderRequest(userIds.get(thread), itemId, 1.0));
+                } catch (ApiException e) {
+                    assertEquals(HttpStatus.CONFLICT, e.getStatus(), e.getMessage());
+                }
+            } else {
+                groceryItemService.manageInventory(itemId, ThreadLocalRandom.current().nextInt(0, 5));
+                if (stock(itemId) < 0) {
+                    negativeReads.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, negativeReads.get(), "Stock was observed below zero");
+        assertTrue(stock(itemId) >= 0);
+    }
+
+    @Test
+    void testBulkAdjustmentsDuringOrdersKeepStockConsistent() throws Exception {
+        List<Long> itemIds = store.seedItems(5_000, i -> 100);
+        List<Long> userIds = store.seedUsers(THREADS);
+
+        // A few threads take stock out of every item in one request while the rest order from a handful of them
+        StressRunner.run("bulk adjustments during orders", THREADS, 5, (thread, iteration) -> {
+            if (thread % 8 == 0) {
+                List<InventoryAdjustment> adjustments = new ArrayList<>(itemIds.size());
+                for (Long itemId : itemIds) {
+                    adjustments.add(new InventoryAdjustment(itemId, InventoryAdjustment.Mode.ADD, -1));
+                }
+                BulkInventoryReport report = inventoryAdjustmentService.adjustInventory(adjustments);
+                assertEquals(itemIds.size(), report.applied());
+            } else {
+                try {
+                    userService.createOrder(orderRequest(userIds.get(thread), itemIds.get(thread % 4), 1.0));
+                } catch (ApiException e) {
+                    assertEquals(HttpStatus.CONFLICT, e.getStatus(), e.getMessage());
+                }
+            }
+        });
+
+        // Four bulk threads ran five times each, so every item lost 20 units to adjustments
+        for (Long itemId : itemIds) {
+            double stock = stock(itemId);
+            assertTrue(stock >= 0, "Stock of item " + itemId + " went negative: " + stock);
+            assertEquals(100 - 20 - stock, orderedQuantity(itemId), 1e-9, "Stock delta of item " + itemId + " does not match");
+        }
+    }
+
+    @Test
+    void testItemEditsDuringOrdersKeepReservations() throws Exception {
+        long itemId = store.seedItems(1, i -> 10_000).get(0);
+        List<Long> userIds = store.seedUsers(THREADS);
+        AtomicInteger edits = new AtomicInteger();
+
+        // Admins edit the price through a read-modify-write of the whole item, sending the version
+        // they read as If-Match and starting over when it is stale, while shoppers order
+        StressRunner.run("item edits during orders", THREADS, 20, (thread, iteration) -> {
+            if (thread % 4 != 0) {
+                userService.createOrder(orderRequest(userIds.get(thread), itemId, 1.0));
+                return;
+            }
+            for (int attempt = 0; attempt < 100; attempt++) {
+                GroceryItem current = groceryItemRepository.findById(itemId).orElseThrow();
+                GroceryItem edited = new GroceryItem(itemId, current.getName(), current.getPrice() + 1,
+                        current.getUnitOfMeasure(), current.getQuantity());
+                try {
+                    groceryItemService.updateGroceryItem(itemId, edited, current.getVersion());
+                    edits.incrementAndGet();
+                    return;
+                } catch (ApiException e) {
+                    assertEquals(HttpStatus.PRECONDITION_FAILED, e.getStatus(), e.getMessage());
+                }
+            }
+        });
+
+        assertEquals(10_000 - stock(itemId), orderedQuantity(itemId), 1e-9, "Item edits lost concurrent stock reservations");
+        assertTrue(edits.get() > 0, "No edit got through");
+    }
+
+    private static CreateOrderRequest orderRequest(Long userId, long itemId, double quantity) {
+        CreateOrderRequest orderRequest = new CreateOrderRequest();
+        orderRequest.setUserId(userId);
+        orderRequest.setItemWithQuantity(Map.of(itemId, quantity));
+        return orderRequest;
+    }
+
+    private static double stock(long itemId) {
+        return jdbcTemplate.queryForObject("select quantity from qp_grocery_item where id = ?", Double.class, itemId);
+    }
+
+    private static double orderedQuantity(long itemId) {
+        return jdbcTemplate.queryForObject("select coalesce(sum(quantity), 0) from qp_order_item where item_id = ?", Double.class, itemId);
+    }
+}
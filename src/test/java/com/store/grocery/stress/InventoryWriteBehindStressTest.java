@@ -0,0 +1,89 @@
+package com.store.grocery.stress;
+
+import com.store.grocery.entity.InventoryAdjustment;
+import com.store.grocery.inventory.InventoryWriteBehindService;
+import com.store.grocery.inventory.InventoryWriteBehindStats;
+import com.store.grocery.support.EmbeddedStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sends scanner-style stock deltas for a few items from many threads with write-behind enabled
+ * and checks that the coalesced flushes add up to every delta accepted.
+ */
+@Tag("stress")
+public class InventoryWriteBehindStressTest {
+
+    private static final int THREADS = 32;
+
+    @TempDir
+    static Path logDirectory;
+
+    private static EmbeddedStore store;
+
+    private static InventoryWriteBehindService writeBehindService;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startStore() {
+        store = EmbeddedStore.start("write-behind-stress",
+                "grocery.inventory.write-behind.mode=write-behind",
+                "grocery.inventory.write-behind.flush-interval=50ms",
+                "grocery.inventory.write-behind.log-directory=" + logDirectory);
+        writeBehindService = store.getBean(InventoryWriteBehindService.class);
+        jdbcTemplate = store.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void stopStore() {
+        store.close();
+    }
+
+    @Test
+    void testScannerDeltasAreCoalescedWithoutLosingUpdates() throws Exception {
+        List<Long> itemIds = store.seedItems(8, i -> 1_000);
+        AtomicLongArray expected = new AtomicLongArray(itemIds.size());
+        for (int i = 0; i < itemIds.size(); i++) {
+            expected.set(i, 1_000);
+        }
+
+        // Each thread takes one unit out and puts two back, over and over, on a handful of items
+        StressRunner.run("write-behind deltas", THREADS, 500, (thread, iteration) -> {
+            int item = (thread + iteration) % itemIds.size();
+            double delta = iteration % 2 == 0 ? -1 : 2;
+            writeBehindService.submit(new InventoryAdjustment(itemIds.get(item), InventoryAdjustment.Mode.ADD, delta));
+            expected.addAndGet(item, (long) delta);
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        for (int i = 0; i < itemIds.size(); i++) {
+            while (stock(itemIds.get(i)) != expected.get(i) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(expected.get(i), stock(itemIds.get(i)), 1e-9, "Stock of item " + itemIds.get(i) + " lost buffered updates");
+        }
+        InventoryWriteBehindStats stats = writeBehindService.getStats();
+        assertEquals(THREADS * 500, stats.getUpdatesAccepted());
+        assertEquals(0, stats.getItemsDropped());
+        assertTrue(stats.getItemsWritten() < stats.getUpdatesAccepted() / 10,
+                "Expected coalescing, wrote " + stats.getItemsWritten() + " rows for " + stats.getUpdatesAccepted() + " updates");
+        System.out.printf("[stress] write-behind: %d updates written as %d rows in %d flushes%n",
+                stats.getUpdatesAccepted(), stats.getItemsWritten(), stats.getFlushes());
+    }
+
+    private static double stock(long itemId) {
+        return jdbcTemplate.queryForObject("select quantity from qp_grocery_item where id = ?", Double.class, itemId);
+    }
+}
@@ -0,0 +1,137 @@
+package com.store.grocery.stress;
+
+import com.store.grocery.entity.CreateOrderRequest;
+import com.store.grocery.exception.ApiException;
+import com.store.grocery.service.UserService;
+import com.store.grocery.support.EmbeddedStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Places orders from many threads against a real database and checks that stock is never
+ * oversold and that retried requests never create a second order.
+ */
+@Tag("stress")
+public class OrderStressTest {
+
+    private static final int THREADS = 32;
+
+    private static EmbeddedStore store;
+
+    private static UserService userService;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startStore() {
+        store = EmbeddedStore.start("order-stress");
+        userService = store.getBean(UserService.class);
+        jdbcTemplate = store.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void stopStore() {
+        store.close();
+    }
+
+    @Test
+    void testConcurrentOrdersNeverOversell() throws Exception {
+        long itemId = store.seedItems(1, i -> 100).get(0);
+        List<Long> userIds = store.seedUsers(THREADS);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // 320 attempts at one unit each against 100 units of stock
+        StressRunner.run("orders on one item", THREADS, 10, (thread, iteration) -> {
+            try {
+                userService.createOrder(orderRequest(userIds.get(thread), Map.of(itemId, 1.0), null));
+                placed.incrementAndGet();
+            } catch (ApiException e) {
+                assertEquals(HttpStatus.CONFLICT, e.getStatus(), e.getMessage());
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(0, stock(itemId), 1e-9);
+        assertEquals(100, placed.get());
+        assertEquals(220, rejected.get());
+        assertEquals(100, orderedQuantity(itemId), 1e-9);
+    }
+
+    @Test
+    void testConcurrentOverlappingBasketsKeepStockConsistent() throws Exception {
+        List<Long> itemIds = store.seedItems(5, i -> 50);
+        List<Long> userIds = store.seedUsers(THREADS);
+
+        // Baskets share items in random combinations, which would deadlock without a fixed lock order
+        StressRunner.run("overlapping baskets", THREADS, 10, (thread, iteration) -> {
+            Map<Long, Double> basket = new HashMap<>();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int line = 0; line < 3; line++) {
+                basket.put(itemIds.get(random.nextInt(itemIds.size())), 1.0 + random.nextInt(3));
+            }
+            try {
+                userService.createOrder(orderRequest(userIds.get(thread), basket, null));
+            } catch (ApiException e) {
+                assertEquals(HttpStatus.CONFLICT, e.getStatus(), e.getMessage());
+            }
+        });
+
+        for (Long itemId : itemIds) {
+            double stock = stock(itemId);
+            assertTrue(stock >= 0, "Stock of item " + itemId + " went negative: " + stock);
+            assertEquals(50 - stock, orderedQuantity(itemId), 1e-9, "Stock delta of item " + itemId + " does not match its order lines");
+        }
+    }
+
+    @Test
+    void testRetriedOrdersAreNotDuplicated() throws Exception {
+        long itemId = store.seedItems(1, i -> 1_000).get(0);
+        Long userId = store.seedUsers(1).get(0);
+        Map<String, Set<Long>> orderIdsByKey = new ConcurrentHashMap<>();
+
+        // Every thread sends the same key on the same iteration, like a client retrying a slow request
+        StressRunner.run("retried orders", THREADS, 10, (thread, iteration) -> {
+            String key = "retry-" + iteration;
+            Long orderId = userService.createOrder(orderRequest(userId, Map.of(itemId, 2.0), key));
+            orderIdsByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(orderId);
+        });
+
+        assertEquals(10, orderIdsByKey.size());
+        orderIdsByKey.forEach((key, orderIds) -> assertEquals(1, orderIds.size(), "Key " + key + " produced orders " + orderIds));
+        Integer orders = jdbcTemplate.queryForObject("select count(*) from qp_order where user_id = ?", Integer.class, userId);
+        assertEquals(10, orders);
+        assertEquals(1_000 - 20, stock(itemId), 1e-9);
+        assertEquals(20, orderedQuantity(itemId), 1e-9);
+    }
+
+    private static CreateOrderRequest orderRequest(Long userId, Map<Long, Double> basket, String idempotencyKey) {
+        CreateOrderRequest orderRequest = new CreateOrderRequest();
+        orderRequest.setUserId(userId);
+        orderRequest.setItemWithQuantity(basket);
+        orderRequest.setIdempotencyKey(idempotencyKey);
+        return orderRequest;
+    }
+
+    private static double stock(long itemId) {
+        return jdbcTemplate.queryForObject("select quantity from qp_grocery_item where id = ?", Double.class, itemId);
+    }
+
+    private static double orderedQuantity(long itemId) {
+        return jdbcTemplate.queryForObject("select coalesce(sum(quantity), 0) from qp_order_item where item_id = ?", Double.class, itemId);
+    }
+}
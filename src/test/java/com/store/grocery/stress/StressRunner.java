@@ -0,0 +1,57 @@
+package com.store.grocery.stress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same task from many threads at once and reports the throughput reached.
+ */
+final class StressRunner {
+
+    @FunctionalInterface
+    interface Task {
+        void run(int thread, int iteration) throws Exception;
+    }
+
+    private StressRunner() {
+    }
+
+    /**
+     * Starts all threads together and runs {@code iterations} calls of {@code task} on each.
+     * Exceptions thrown by the task fail the run; tasks catch the outcomes they expect.
+     */
+    static double run(String name, int threads, int iterations, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        task.run(thread, i);
+                    }
+                    return null;
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            double throughput = threads * iterations / seconds;
+            System.out.printf("[stress] %s: %d threads x %d ops in %.2fs, %.1f ops/s%n", name, threads, iterations, seconds, throughput);
+            return throughput;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
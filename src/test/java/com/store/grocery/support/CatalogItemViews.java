@@ -0,0 +1,24 @@
+package com.store.grocery.support;
+
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.repository.CatalogItemView;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.List;
+
+/**
+ * Builds {@link CatalogItemView} projections from entity fixtures, the way Spring Data would.
+ */
+public final class CatalogItemViews {
+
+    private static final SpelAwareProxyProjectionFactory PROJECTION_FACTORY = new SpelAwareProxyProjectionFactory();
+
+    private CatalogItemViews() {
+    }
+
+    public static List<CatalogItemView> of(List<GroceryItem> items) {
+        return items.stream()
+                .map(item -> PROJECTION_FACTORY.createProjection(CatalogItemView.class, item))
+                .toList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.store.grocery.support;
+
+import com.store.grocery.QpAssessmentApplication;
+import com.store.grocery.entity.GroceryItem;
+import com.store.grocery.entity.UnitOfMeasurement;
+import com.store.grocery.entity.User;
+import com.store.grocery.repository.GroceryItemRepository;
+import com.store.grocery.repository.UserRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * The full application started against its own in-memory H2 database (the {@code h2} profile),
+ * with helpers to seed catalog items and users. Shared by the benchmarks, the load generator and
+ * the database-backed tests.
+ */
+public final class EmbeddedStore implements AutoCloseable {
+
+    private static final int SEED_CHUNK_SIZE = 1_000;
+
+    private static final UnitOfMeasurement[] UNITS = UnitOfMeasurement.values();
+
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedStore(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Starts the application without a web server. {@code properties} are {@code key=value} overrides.
+     */
+    public static EmbeddedStore start(String databaseName, String... properties) {
+        return start(databaseName, WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Starts the application; with {@link WebApplicationType#SERVLET} it listens on a random port.
+     */
+    public static EmbeddedStore start(String databaseName, WebApplicationType webApplicationType, String... properties) {
+        // Passed as command line arguments so they win over the profile's own settings
+        List<String> args = new ArrayList<>();
+        // H2 gives up on a row lock after 1s by default, far less than MySQL's 50s
+        args.add("--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QpAssessmentApplication.class)
+                .web(webApplicationType)
+                .profiles("h2")
+                .run(args.toArray(String[]::new));
+        return new EmbeddedStore(context);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int getPort() {
+        return Integer.parseInt(context.getEnvironment().getProperty("local.server.port", "-1"));
+    }
+
+    /**
+     * Saves {@code count} items priced 1 to 100, with the quantity for the n-th item (0-based)
+     * taken from {@code quantity}. Returns the ids in insertion order.
+     */
+    public List<Long> seedItems(int count, LongToDoubleFunction quantity) {
+        GroceryItemRepository groceryItemRepository = getBean(GroceryItemRepository.class);
+        List<Long> ids = new ArrayList<>(count);
+        List<GroceryItem> chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+        for (int i = 0; i < count; i++) {
+            chunk.add(new GroceryItem(null, "Item " + i, 1 + i % 100, UNITS[i % UNITS.length], quantity.applyAsDouble(i)));
+            if (chunk.size() == SEED_CHUNK_SIZE || i == count - 1) {
+                groceryItemRepository.saveAll(chunk).forEach(item -> ids.add(item.getId()));
+                chunk.clear();
+            }
+        }
+        return ids;
+    }
+
+    public List<Long> seedUsers(int count) {
+        UserRepository userRepository = getBean(UserRepository.class);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User(null, "user" + i, "USER"));
+        }
+        return userRepository.saveAll(users).stream().map(User::getId).toList();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}